@@ -0,0 +1,31 @@
+package edu.lehigh.swat.bench.uba;
+
+/**
+ * Generates individual universities for the benchmarks
+ * <p>
+ * This lives in the generator's own package since {@link UniversityGenerator}
+ * is package private.
+ * </p>
+ */
+public class UniversityRunner {
+
+    private UniversityRunner() {
+    }
+
+    /**
+     * Generates a university using the writers created by the given state
+     * 
+     * @param state
+     *            Global state
+     * @param univIndex
+     *            University index
+     */
+    public static void generate(GlobalState state, int univIndex) {
+        UniversityState univState = new UniversityState(state, univIndex);
+        new UniversityGenerator(univState).run();
+        if (univState.hasError()) {
+            throw new IllegalStateException(String.format("Failed to generate University %d", univIndex),
+                    univState.getError());
+        }
+    }
+}
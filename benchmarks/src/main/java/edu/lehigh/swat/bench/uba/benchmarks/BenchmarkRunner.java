@@ -0,0 +1,136 @@
+package edu.lehigh.swat.bench.uba.benchmarks;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+import edu.lehigh.swat.bench.uba.writers.WriterType;
+
+/**
+ * Runs the benchmarks and summarizes the results per triple
+ * <p>
+ * Accepts the usual JMH command line options, the GC profiler is always
+ * enabled so that allocation is reported. Once the benchmarks complete the
+ * writer results are divided by the number of triples written, and the
+ * consolidator results by the number of bytes copied.
+ * </p>
+ */
+public class BenchmarkRunner {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    private static final double MB = 1024 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmdOptions = new CommandLineOptions(args);
+        if (cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListWithParams()
+                || cmdOptions.shouldListProfilers() || cmdOptions.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdOptions);
+        boolean gc = false;
+        for (ProfilerConfig profiler : cmdOptions.getProfilers()) {
+            gc = gc || profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName());
+        }
+        if (!gc)
+            options.addProfiler(GCProfiler.class);
+
+        Collection<RunResult> results = new Runner(options.build()).run();
+        summarize(results);
+    }
+
+    private static void summarize(Collection<RunResult> results) {
+        boolean perTriple = false;
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            perTriple = perTriple || benchmark.startsWith(WriterBenchmark.class.getName())
+                    || benchmark.startsWith(ConsolidatorBenchmark.class.getName());
+        }
+        if (!perTriple)
+            return;
+
+        // Record the stream up front so any output from generating it comes
+        // before the summary
+        EventStream stream = EventStream.record();
+        long triples = stream.getTriples();
+
+        System.out.println();
+        System.out.println("Summary:");
+        System.out.println();
+        System.out.println(String.format("%-40s %15s %15s %15s %15s", "Benchmark", "ns/triple", "B alloc/triple",
+                "B out/triple", "MB/s"));
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            Result primary = result.getPrimaryResult();
+            double nanos = nanosPerOp(primary);
+            if (Double.isNaN(nanos))
+                continue;
+            double allocated = allocationPerOp(result);
+
+            if (params.getBenchmark().startsWith(WriterBenchmark.class.getName())) {
+                WriterType format = WriterType.valueOf(params.getParam("format"));
+                long bytes = WriterBenchmark.outputSize(format, stream);
+                System.out.println(String.format("%-40s %15.1f %15.1f %15.1f %15.1f", "write " + format,
+                        nanos / triples, allocated / triples, (double) bytes / triples, bytes / MB / (nanos / 1e9)));
+            } else if (params.getBenchmark().startsWith(ConsolidatorBenchmark.class.getName())) {
+                long copied = ConsolidatorBenchmark.FILES * WriterBenchmark.outputSize(WriterType.NTRIPLES, stream);
+                long copiedTriples = ConsolidatorBenchmark.FILES * triples;
+                System.out.println(String.format("%-40s %15.1f %15.1f %15s %15.1f",
+                        "consolidate compress=" + params.getParam("compress"), nanos / copiedTriples,
+                        allocated / copiedTriples, "-", copied / MB / (nanos / 1e9)));
+            }
+        }
+    }
+
+    /**
+     * Gets the time per operation in nanoseconds
+     * 
+     * @param primary
+     *            Primary result
+     * @return Time per operation, NaN if the result is not a time per
+     *         operation
+     */
+    private static double nanosPerOp(Result primary) {
+        String unit = primary.getScoreUnit();
+        if (!unit.endsWith("/op"))
+            return Double.NaN;
+        switch (unit.substring(0, unit.length() - 3)) {
+        case "ns":
+            return primary.getScore();
+        case "us":
+            return primary.getScore() * 1e3;
+        case "ms":
+            return primary.getScore() * 1e6;
+        case "s":
+            return primary.getScore() * 1e9;
+        default:
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Gets the bytes allocated per operation as measured by the GC profiler
+     * 
+     * @param result
+     *            Result
+     * @return Bytes allocated per operation, NaN if not measured
+     */
+    private static double allocationPerOp(RunResult result) {
+        for (Map.Entry<String, Result> e : result.getSecondaryResults().entrySet()) {
+            if (e.getKey().endsWith(ALLOCATION))
+                return e.getValue().getScore();
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,121 @@
+package edu.lehigh.swat.bench.uba.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.lehigh.swat.bench.uba.writers.WriterType;
+import edu.lehigh.swat.bench.uba.writers.utils.AbstractWriteConsolidator;
+import edu.lehigh.swat.bench.uba.writers.utils.SingleFileConsolidator;
+
+/**
+ * Benchmarks the copying done by {@link AbstractWriteConsolidator} when
+ * consolidating files into a single file
+ * <p>
+ * Each operation consolidates {@link #FILES} files each holding the
+ * N-Triples for a university, the input files are recreated before each
+ * operation since consolidation deletes them.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ConsolidatorBenchmark {
+
+    /** number of files consolidated by each operation */
+    public static final int FILES = 4;
+
+    /** whether the files are compressed */
+    @Param({ "false", "true" })
+    public boolean compress;
+
+    private File dir;
+    private byte[] contents;
+    private String[] files;
+    private PrintStream stdout;
+
+    @Setup
+    public void setup() throws IOException {
+        this.dir = Fixtures.createTempDirectory();
+
+        // Each file holds the N-Triples for the benchmark university so
+        // compression is realistic
+        byte[] data = WriterBenchmark.output(WriterType.NTRIPLES, EventStream.record());
+        if (this.compress) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (OutputStream output = new GZIPOutputStream(bytes)) {
+                output.write(data);
+            }
+            data = bytes.toByteArray();
+        }
+        this.contents = data;
+
+        this.files = new String[FILES];
+        for (int i = 0; i < FILES; i++) {
+            this.files[i] = new File(this.dir, "University" + i + (this.compress ? ".nt.gz" : ".nt"))
+                    .getAbsolutePath();
+        }
+
+        // Consolidators report every file they consolidate which would
+        // otherwise swamp the benchmark output
+        this.stdout = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+    }
+
+    @Setup(Level.Invocation)
+    public void createFiles() throws IOException {
+        for (String file : this.files) {
+            try (OutputStream output = new FileOutputStream(file)) {
+                output.write(this.contents);
+            }
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        System.setOut(this.stdout);
+        Fixtures.deleteDirectory(this.dir);
+    }
+
+    @Benchmark
+    public Long consolidate() {
+        String target = new File(this.dir, this.compress ? "Universities.nt.gz" : "Universities.nt")
+                .getAbsolutePath();
+        SingleFileConsolidator consolidator = new SingleFileConsolidator(target);
+        for (String file : this.files) {
+            consolidator.addFile(file);
+        }
+        consolidator.finish();
+        return consolidator.call();
+    }
+}
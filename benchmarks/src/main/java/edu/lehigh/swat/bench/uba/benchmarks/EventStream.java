@@ -0,0 +1,245 @@
+package edu.lehigh.swat.bench.uba.benchmarks;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
+import edu.lehigh.swat.bench.uba.GlobalState;
+import edu.lehigh.swat.bench.uba.UniversityRunner;
+import edu.lehigh.swat.bench.uba.model.Ontology;
+import edu.lehigh.swat.bench.uba.writers.Writer;
+import edu.lehigh.swat.bench.uba.writers.WriterFragment;
+
+/**
+ * A recorded stream of the section and property events the generator makes
+ * against a {@link Writer}
+ * <p>
+ * Replaying the stream drives a writer exactly as generating the university
+ * did without any of the cost of generating it, so that the cost of the
+ * writer itself can be measured.
+ * </p>
+ */
+public class EventStream {
+
+    private static final byte START_SECTION = 0;
+    private static final byte START_ABOUT_SECTION = 1;
+    private static final byte END_SECTION = 2;
+    private static final byte ADD_PROPERTY = 3;
+    private static final byte ADD_RESOURCE_PROPERTY = 4;
+    private static final byte ADD_TYPED_PROPERTY = 5;
+    private static final byte ADD_UNIVERSITY_PROPERTY = 6;
+
+    private final List<Event> events = new ArrayList<>();
+    private long triples = 0;
+    private int depth = 0;
+
+    /**
+     * Records the events made when generating the benchmark university
+     * 
+     * @return Event stream
+     */
+    public static EventStream record() {
+        EventStream stream = new EventStream();
+        File dir = Fixtures.createTempDirectory();
+        try {
+            UniversityRunner.generate(Fixtures.createRecordingState(stream, dir), Fixtures.UNIVERSITY);
+        } finally {
+            Fixtures.deleteDirectory(dir);
+        }
+        return stream;
+    }
+
+    /**
+     * Gets the number of events in the stream
+     * 
+     * @return Number of events
+     */
+    public int size() {
+        return this.events.size();
+    }
+
+    /**
+     * Gets the number of triples the stream represents, this is the number of
+     * triples the RDF writers produce from it excluding any file headers
+     * 
+     * @return Number of triples
+     */
+    public long getTriples() {
+        return this.triples;
+    }
+
+    /**
+     * Replays the stream to a writer, the writer must already have started a
+     * file or fragment
+     * 
+     * @param writer
+     *            Writer
+     */
+    public void replay(Writer writer) {
+        for (int i = 0; i < this.events.size(); i++) {
+            Event e = this.events.get(i);
+            switch (e.type) {
+            case START_SECTION:
+                writer.startSection(e.classOrProperty, e.value);
+                break;
+            case START_ABOUT_SECTION:
+                writer.startAboutSection(e.classOrProperty, e.value);
+                break;
+            case END_SECTION:
+                writer.endSection(e.classOrProperty);
+                break;
+            case ADD_PROPERTY:
+                writer.addProperty(e.classOrProperty, e.value, false);
+                break;
+            case ADD_RESOURCE_PROPERTY:
+                writer.addProperty(e.classOrProperty, e.value, true);
+                break;
+            case ADD_TYPED_PROPERTY:
+                writer.addProperty(e.classOrProperty, e.valueClass, e.value);
+                break;
+            case ADD_UNIVERSITY_PROPERTY:
+                writer.addUniversityProperty(e.classOrProperty, e.valueClass, e.value);
+                break;
+            default:
+                throw new IllegalStateException("Unknown event type " + e.type);
+            }
+        }
+    }
+
+    private void add(byte type, int classOrProperty, int valueClass, String value) {
+        this.events.add(new Event(type, classOrProperty, valueClass, value));
+        switch (type) {
+        case START_SECTION:
+        case START_ABOUT_SECTION:
+            // A nested section is also linked to its enclosing section
+            this.triples += this.depth > 0 ? 2 : 1;
+            this.depth++;
+            break;
+        case END_SECTION:
+            this.depth--;
+            break;
+        case ADD_TYPED_PROPERTY:
+        case ADD_UNIVERSITY_PROPERTY:
+            // The value is also given its type
+            this.triples += 2;
+            break;
+        default:
+            this.triples++;
+            break;
+        }
+    }
+
+    /**
+     * Creates a writer that records all the events made against it to this
+     * stream
+     * 
+     * @param callbackTarget
+     *            Callback target for the generator
+     * @return Recording writer
+     */
+    Writer recorder(GeneratorCallbackTarget callbackTarget) {
+        return new Recorder(callbackTarget);
+    }
+
+    private static class Event {
+        final byte type;
+        final int classOrProperty, valueClass;
+        final String value;
+
+        Event(byte type, int classOrProperty, int valueClass, String value) {
+            this.type = type;
+            this.classOrProperty = classOrProperty;
+            this.valueClass = valueClass;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A writer that records events to the stream, the callbacks are still
+     * made to the generator so it generates exactly as it would with any other
+     * writer
+     */
+    private class Recorder implements Writer {
+
+        private final GeneratorCallbackTarget callbackTarget;
+
+        Recorder(GeneratorCallbackTarget callbackTarget) {
+            this.callbackTarget = callbackTarget;
+        }
+
+        @Override
+        public void startFile(String fileName, GlobalState state) {
+        }
+
+        @Override
+        public void startFile(GlobalState state, OutputStream output) {
+        }
+
+        @Override
+        public void flushFile(GlobalState state) {
+        }
+
+        @Override
+        public void endFile(GlobalState state) {
+        }
+
+        @Override
+        public void endFile(GlobalState state, OutputStream output) {
+        }
+
+        @Override
+        public void startFragment(GlobalState state, boolean continuation) {
+            throw new UnsupportedOperationException("Fragments are not recorded");
+        }
+
+        @Override
+        public WriterFragment endFragment(GlobalState state) {
+            throw new UnsupportedOperationException("Fragments are not recorded");
+        }
+
+        @Override
+        public void appendFragment(GlobalState state, WriterFragment fragment) {
+            throw new UnsupportedOperationException("Fragments are not recorded");
+        }
+
+        @Override
+        public void startSection(int classType, String id) {
+            this.callbackTarget.startSectionCB(classType);
+            add(START_SECTION, classType, 0, id);
+        }
+
+        @Override
+        public void startAboutSection(int classType, String id) {
+            this.callbackTarget.startAboutSectionCB(classType);
+            add(START_ABOUT_SECTION, classType, 0, id);
+        }
+
+        @Override
+        public void endSection(int classType) {
+            add(END_SECTION, classType, 0, null);
+        }
+
+        @Override
+        public void addProperty(int property, String value, boolean isResource) {
+            this.callbackTarget.addPropertyCB(property);
+            add(isResource ? ADD_RESOURCE_PROPERTY : ADD_PROPERTY, property, 0, value);
+        }
+
+        @Override
+        public void addProperty(int property, int valueClass, String valueId) {
+            this.callbackTarget.addPropertyCB(property);
+            this.callbackTarget.addValueClassCB(valueClass);
+            add(ADD_TYPED_PROPERTY, property, valueClass, valueId);
+        }
+
+        @Override
+        public void addUniversityProperty(int property, int univIndex, String univId) {
+            this.callbackTarget.addPropertyCB(property);
+            this.callbackTarget.addValueClassCB(Ontology.CS_C_UNIV);
+            // The university index is recorded in place of the value class
+            add(ADD_UNIVERSITY_PROPERTY, property, univIndex, univId);
+        }
+    }
+}
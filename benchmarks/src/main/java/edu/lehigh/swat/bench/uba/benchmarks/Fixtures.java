@@ -0,0 +1,124 @@
+package edu.lehigh.swat.bench.uba.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
+import edu.lehigh.swat.bench.uba.GlobalState;
+import edu.lehigh.swat.bench.uba.RandomSourceType;
+import edu.lehigh.swat.bench.uba.ScheduleMode;
+import edu.lehigh.swat.bench.uba.writers.ConsolidationMode;
+import edu.lehigh.swat.bench.uba.writers.GraphMode;
+import edu.lehigh.swat.bench.uba.writers.Writer;
+import edu.lehigh.swat.bench.uba.writers.WriterType;
+
+/**
+ * Shared fixtures for the benchmarks
+ */
+final class Fixtures {
+
+    /** ontology url, the generator's default */
+    static final String ONTOLOGY = "http://www.lehigh.edu/~zhp2/2004/0401/univ-bench.owl";
+
+    /** seed used for all the data generated by the benchmarks */
+    static final long SEED = 0;
+
+    /** index of the university used by the benchmarks */
+    static final int UNIVERSITY = 0;
+
+    /** callback target that ignores all callbacks */
+    static final GeneratorCallbackTarget NO_CALLBACKS = new GeneratorCallbackTarget() {
+
+        @Override
+        public void startSectionCB(int classType) {
+        }
+
+        @Override
+        public void startAboutSectionCB(int classType) {
+        }
+
+        @Override
+        public void addPropertyCB(int property) {
+        }
+
+        @Override
+        public void addValueClassCB(int classType) {
+        }
+    };
+
+    private Fixtures() {
+    }
+
+    /**
+     * Creates the global state for generating a single university to its own
+     * files, exactly as the generator does with its default options
+     * 
+     * @param type
+     *            Writer type
+     * @param outputDir
+     *            Output directory
+     * @return Global state
+     */
+    static GlobalState createState(WriterType type, File outputDir) {
+        return new GlobalState(1, SEED, UNIVERSITY, ONTOLOGY, type, outputDir, ConsolidationMode.None, false, 1, 1,
+                TimeUnit.HOURS, true, false, false, -1, RandomSourceType.Legacy, ScheduleMode.InOrder, false, 0,
+                GraphMode.University);
+    }
+
+    /**
+     * Creates the global state for generating a single university where
+     * everything generated is passed to the given event stream
+     * 
+     * @param stream
+     *            Event stream to record to
+     * @param outputDir
+     *            Output directory
+     * @return Global state
+     */
+    static GlobalState createRecordingState(final EventStream stream, File outputDir) {
+        return new GlobalState(1, SEED, UNIVERSITY, ONTOLOGY, WriterType.NTRIPLES, outputDir, ConsolidationMode.None,
+                false, 1, 1, TimeUnit.HOURS, true, false, false, -1, RandomSourceType.Legacy, ScheduleMode.InOrder,
+                false, 0, GraphMode.University) {
+
+            @Override
+            public Writer createWriter(GeneratorCallbackTarget callbackTarget) {
+                return stream.recorder(callbackTarget);
+            }
+        };
+    }
+
+    /**
+     * Creates a temporary directory
+     * 
+     * @return Directory
+     */
+    static File createTempDirectory() {
+        try {
+            return Files.createTempDirectory("uba-benchmarks").toFile();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create temporary directory", e);
+        }
+    }
+
+    /**
+     * Deletes a temporary directory and its contents
+     * 
+     * @param dir
+     *            Directory
+     */
+    static void deleteDirectory(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                if (f.isDirectory()) {
+                    deleteDirectory(f);
+                } else {
+                    f.delete();
+                }
+            }
+        }
+        dir.delete();
+    }
+}
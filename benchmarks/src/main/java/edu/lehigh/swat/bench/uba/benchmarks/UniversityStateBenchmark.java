@@ -0,0 +1,85 @@
+package edu.lehigh.swat.bench.uba.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.lehigh.swat.bench.uba.UniversityState;
+import edu.lehigh.swat.bench.uba.model.GenerationParameters;
+import edu.lehigh.swat.bench.uba.model.Ontology;
+import edu.lehigh.swat.bench.uba.writers.WriterType;
+
+/**
+ * Benchmarks for the per-instance operations of {@link UniversityState}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UniversityStateBenchmark {
+
+    /** classes whose ids are built, covering the different forms of id */
+    private static final int[] ID_CLASSES = { Ontology.CS_C_FULLPROF, Ontology.CS_C_UNDERSTUD,
+            Ontology.CS_C_GRADSTUD, Ontology.CS_C_COURSE, Ontology.CS_C_RESEARCHGROUP, Ontology.CS_C_DEPT };
+
+    private File dir;
+    private UniversityState univState;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        this.dir = Fixtures.createTempDirectory();
+        this.univState = new UniversityState(Fixtures.createState(WriterType.NTRIPLES, this.dir),
+                Fixtures.UNIVERSITY);
+        this.univState.prepare();
+        this.univState.getInstances()[Ontology.CS_C_DEPT].num = GenerationParameters.DEPT_MIN;
+        this.univState.getInstances()[Ontology.CS_C_DEPT].count = 1;
+        this.univState.resetInstanceInfo();
+    }
+
+    @TearDown
+    public void teardown() {
+        Fixtures.deleteDirectory(this.dir);
+    }
+
+    @Benchmark
+    public String getId() {
+        int i = this.next++;
+        return this.univState.getId(ID_CLASSES[i % ID_CLASSES.length], i & 1023);
+    }
+
+    /**
+     * Selects the courses taken by a student
+     */
+    @Benchmark
+    public int[] getRandomListSmall() {
+        return this.univState.getRandomList(GenerationParameters.UNDERSTUD_COURSE_MAX, 0, 59);
+    }
+
+    /**
+     * Selects the graduate students who are teaching and research assistants
+     */
+    @Benchmark
+    public int[] getRandomListLarge() {
+        return this.univState.getRandomList(100, 0, 299);
+    }
+
+    @Benchmark
+    public int resetInstanceInfo() {
+        this.univState.resetInstanceInfo();
+        return this.univState.getInstances()[Ontology.CS_C_STUDENT].total;
+    }
+}
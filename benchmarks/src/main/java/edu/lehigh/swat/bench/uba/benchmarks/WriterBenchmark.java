@@ -0,0 +1,129 @@
+package edu.lehigh.swat.bench.uba.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.lehigh.swat.bench.uba.GlobalState;
+import edu.lehigh.swat.bench.uba.writers.Writer;
+import edu.lehigh.swat.bench.uba.writers.WriterType;
+
+/**
+ * Benchmarks each {@link Writer} by replaying the events recorded from
+ * generating a university
+ * <p>
+ * Each operation writes the whole university to a single file in the same way
+ * as {@code --consolidate Partial}, divide the results by
+ * {@link EventStream#getTriples()} for the cost per triple, the
+ * {@link BenchmarkRunner} does this automatically.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class WriterBenchmark {
+
+    /** output format, defaults to all formats */
+    @Param
+    public WriterType format;
+
+    private EventStream stream;
+    private File dir;
+    private GlobalState state;
+    private String fileName;
+
+    @Setup
+    public void setup() {
+        this.stream = EventStream.record();
+        this.dir = Fixtures.createTempDirectory();
+        this.state = Fixtures.createState(this.format, this.dir);
+        this.fileName = fileName(this.state);
+    }
+
+    @TearDown
+    public void teardown() {
+        Fixtures.deleteDirectory(this.dir);
+    }
+
+    @Benchmark
+    public Writer write() {
+        return write(this.state, this.fileName, this.stream);
+    }
+
+    private static Writer write(GlobalState state, String fileName, EventStream stream) {
+        Writer writer = state.createWriter(Fixtures.NO_CALLBACKS);
+        writer.startFile(fileName, state);
+        stream.replay(writer);
+        writer.endFile(state);
+        return writer;
+    }
+
+    private static String fileName(GlobalState state) {
+        return new File(state.getOutputDirectory(), "University0" + state.getFileExtension()).getAbsolutePath();
+    }
+
+    /**
+     * Gets the size of the output a writer produces for a stream
+     * 
+     * @param format
+     *            Output format
+     * @param stream
+     *            Event stream
+     * @return Output size in bytes, across all files the writer produces
+     */
+    static long outputSize(WriterType format, EventStream stream) {
+        File dir = Fixtures.createTempDirectory();
+        try {
+            GlobalState state = Fixtures.createState(format, dir);
+            write(state, fileName(state), stream);
+            long size = 0;
+            for (File f : dir.listFiles()) {
+                size += f.length();
+            }
+            return size;
+        } finally {
+            Fixtures.deleteDirectory(dir);
+        }
+    }
+
+    /**
+     * Gets the output a writer that produces a single file produces for a
+     * stream
+     * 
+     * @param format
+     *            Output format
+     * @param stream
+     *            Event stream
+     * @return Output
+     */
+    static byte[] output(WriterType format, EventStream stream) {
+        File dir = Fixtures.createTempDirectory();
+        try {
+            GlobalState state = Fixtures.createState(format, dir);
+            String fileName = fileName(state);
+            write(state, fileName, stream);
+            return Files.readAllBytes(new File(fileName).toPath());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read output", e);
+        } finally {
+            Fixtures.deleteDirectory(dir);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package edu.lehigh.swat.bench.uba;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import com.github.rvesse.airline.HelpOption;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.help.ExitCodes;
+import com.github.rvesse.airline.annotations.restrictions.AllowedRawValues;
+import com.github.rvesse.airline.annotations.restrictions.NotBlank;
+import com.github.rvesse.airline.annotations.restrictions.ranges.IntegerRange;
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+import edu.lehigh.swat.bench.uba.benchmark.BenchmarkResult;
+import edu.lehigh.swat.bench.uba.benchmark.BenchmarkRun;
+import edu.lehigh.swat.bench.uba.writers.ConsolidationMode;
+import edu.lehigh.swat.bench.uba.writers.WriterType;
+
+//@formatter:off
+@Command(name = "benchmark.sh", description = "Benchmarks the Artificial Data Generator for the Lehigh University Benchmark (LUBM) across a matrix of output formats, threads, consolidation modes and compression")
+@ExitCodes(codes = { 0, 1, 2, 3, 4 }, 
+           descriptions = { 
+             "Benchmarks ran successfully", 
+             "Help was displayed",
+             "Invalid arguments", 
+             "Error during benchmarking",
+             "One or more runs regressed relative to the baseline"
+           })
+//@formatter:on
+public class BenchmarkLauncher {
+
+    private static final String DEFAULT_OUTPUT_DIR = "benchmark-output";
+
+    private static final String DEFAULT_RESULTS_FILE = "benchmark-results.csv";
+
+    private static final long DEFAULT_TIMEOUT = 180;
+
+    @Option(name = { "-u",
+            "--univ" }, title = "NumberOfUniversities", arity = 1, description = "Sets the number of universities to generate data for in each run (default 10)")
+    @IntegerRange(min = 1, minInclusive = true)
+    private int univNum = 10;
+
+    @Option(name = { "-s",
+            "--seed" }, title = "Seed", arity = 1, description = "Seed used for random data generation (default 0)")
+    private int seed = 0;
+
+    @Option(name = { "-f",
+            "--format" }, title = "OutputFormat", arity = 1, description = "Adds an output format to the matrix, may be specified multiple times (default all formats)")
+    @AllowedRawValues(allowedValues = { "OWL", "DAML", "NTRIPLES", "TURTLE", "TURTLE_COMPACT", "NQUADS", "TRIG", "BINARY_RDF", "HDT", "ID_TRIPLES", "VERTICAL_PARTITIONS", "GRAPHML", "GRAPHML_NODESFIRST", "NEO4J_GRAPHML", "NEO4J_CSV", "JSON", "JSON_LINES" })
+    private List<WriterType> formats = new ArrayList<>();
+
+    @Option(name = { "-t",
+            "--threads" }, title = "NumThreads", arity = 1, description = "Adds a number of threads to the matrix, may be specified multiple times (default 1 and the number of processors)")
+    @IntegerRange(min = 1, max = Generator.MAX_THREADS)
+    private List<Integer> threads = new ArrayList<>();
+
+    @Option(name = {
+            "--consolidate" }, title = "ConsolidationMode", arity = 1, description = "Adds a consolidation mode to the matrix, may be specified multiple times (default all modes)")
+    @AllowedRawValues(allowedValues = { "None", "Partial", "Full", "Maximal" })
+    private List<ConsolidationMode> consolidate = new ArrayList<>();
+
+    @Option(name = {
+            "--compress" }, title = "Compress", arity = 1, description = "Adds whether output is compressed to the matrix, may be specified multiple times (default both true and false)")
+    @AllowedRawValues(allowedValues = { "true", "false" })
+    private List<Boolean> compress = new ArrayList<>();
+
+    @Option(name = { "-o",
+            "--output" }, title = "OutputDirectory", description = "Sets the directory in which data is generated during each run, data is deleted after each run (default "
+                    + DEFAULT_OUTPUT_DIR + ")")
+    @NotBlank
+    private String workDir = DEFAULT_OUTPUT_DIR;
+
+    @Option(name = { "-r",
+            "--results" }, title = "ResultsFile", description = "Sets the file the results are written to, results are written as JSON if the file name ends with .json and as CSV otherwise (default "
+                    + DEFAULT_RESULTS_FILE + ")")
+    @NotBlank
+    private String resultsFile = DEFAULT_RESULTS_FILE;
+
+    @Option(name = { "-b",
+            "--baseline" }, title = "BaselineFile", description = "Sets a results file from a previous benchmark to compare the results against, runs whose wall time exceeds that of the same configuration in the baseline by more than the regression threshold are reported as regressions")
+    @NotBlank
+    private String baselineFile = null;
+
+    @Option(name = {
+            "--regression-threshold" }, title = "Percent", arity = 1, description = "Sets the percentage by which the wall time of a run may exceed the baseline before it is considered a regression (default 10)")
+    @IntegerRange(min = 0, minInclusive = true)
+    private int threshold = 10;
+
+    @Option(name = {
+            "--jvm-arg" }, title = "JvmArgument", arity = 1, description = "Adds an argument for the JVM each run is executed in e.g. --jvm-arg -Xmx4g, may be specified multiple times")
+    private List<String> jvmArgs = new ArrayList<>();
+
+    @Option(name = {
+            "--max-time" }, title = "Minutes", arity = 1, description = "The maximum amount of time (expressed in minutes) to allow each run to generate data for before aborting it (default is "
+                    + DEFAULT_TIMEOUT + ")")
+    private long timeout = DEFAULT_TIMEOUT;
+
+    @Option(name = { "-v",
+            "--verbose" }, description = "When set the output of each run is shown")
+    private boolean verbose = false;
+
+    @Inject
+    private HelpOption<BenchmarkLauncher> help;
+
+    public static void main(String[] args) {
+        SingleCommand<BenchmarkLauncher> parser = SingleCommand.singleCommand(BenchmarkLauncher.class);
+        int exitCode = 0;
+        try {
+            BenchmarkLauncher launcher = parser.parse(args);
+
+            // Show help if requested
+            if (launcher.help.showHelpIfRequested()) {
+                System.exit(1);
+            }
+
+            exitCode = launcher.run();
+        } catch (ParseException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (Throwable e) {
+            e.printStackTrace(System.err);
+            System.exit(3);
+        }
+
+        System.exit(exitCode);
+    }
+
+    /**
+     * Runs the benchmarks
+     * 
+     * @return Exit code
+     */
+    private int run() {
+        // Read the baseline first so that an invalid baseline fails fast
+        Map<String, BenchmarkResult> baseline = new HashMap<>();
+        if (this.baselineFile != null) {
+            for (BenchmarkResult result : BenchmarkResult.read(new File(this.baselineFile))) {
+                baseline.put(result.getKey(), result);
+            }
+        }
+
+        List<BenchmarkRun> runs = new ArrayList<>();
+        for (WriterType format : orDefault(this.formats, Arrays.asList(WriterType.values()))) {
+            for (int t : orDefault(this.threads, Arrays.asList(1, Runtime.getRuntime().availableProcessors()))) {
+                for (ConsolidationMode mode : orDefault(this.consolidate, Arrays.asList(ConsolidationMode.values()))) {
+                    for (boolean c : orDefault(this.compress, Arrays.asList(false, true))) {
+                        runs.add(new BenchmarkRun(format, t, mode, c));
+                    }
+                }
+            }
+        }
+
+        File outputDir = new File(this.workDir).getAbsoluteFile();
+        File runDir = new File(outputDir, "run");
+        List<BenchmarkResult> results = new ArrayList<>();
+        int failures = 0, regressions = 0;
+        for (int i = 0; i < runs.size(); i++) {
+            BenchmarkRun run = runs.get(i);
+            System.out.println(String.format("[%d/%d] %s", i + 1, runs.size(), run));
+
+            delete(runDir);
+            if (!runDir.mkdirs()) {
+                throw new IllegalArgumentException(
+                        String.format("Unable to create requested output directory %s", runDir));
+            }
+            try {
+                BenchmarkResult result = run.execute(this.univNum, this.seed, runDir, this.timeout, this.jvmArgs,
+                        this.verbose);
+                results.add(result);
+                System.out.println(String.format(
+                        "    %,d ms, %,d triples/s, %.1f MB/s, %s peak RSS, %,d ms GC", result.getWallTime(),
+                        result.getTriplesPerSecond(), result.getBytesPerSecond() / (1024.0 * 1024.0),
+                        result.getPeakRss() >= 0 ? String.format("%,d MB", result.getPeakRss() / (1024 * 1024))
+                                : "unknown",
+                        result.getGcTime()));
+
+                BenchmarkResult base = baseline.get(result.getKey());
+                if (base != null && base.getWallTime() > 0) {
+                    double change = 100.0 * (result.getWallTime() - base.getWallTime()) / base.getWallTime();
+                    boolean regressed = change > this.threshold;
+                    if (regressed)
+                        regressions++;
+                    System.out.println(String.format("    %+.1f%% wall time vs baseline (%,d ms)%s", change,
+                            base.getWallTime(), regressed ? " REGRESSION" : ""));
+                } else if (this.baselineFile != null) {
+                    System.out.println("    No baseline for this configuration");
+                }
+            } catch (RuntimeException e) {
+                failures++;
+                System.err.println(e.getMessage());
+            } finally {
+                delete(runDir);
+            }
+        }
+        // Only removed if we left it empty
+        outputDir.delete();
+
+        BenchmarkResult.write(results, new File(this.resultsFile));
+        System.out.println(String.format("Results for %d of %d runs written to %s", results.size(), runs.size(),
+                this.resultsFile));
+        if (this.baselineFile != null) {
+            System.out.println(String.format("%d runs regressed by more than %d%% relative to the baseline %s",
+                    regressions, this.threshold, this.baselineFile));
+        }
+
+        if (failures > 0) {
+            System.err.println(String.format("%d runs failed", failures));
+            return 3;
+        }
+        return regressions > 0 ? 4 : 0;
+    }
+
+    private static <T> Iterable<T> orDefault(List<T> values, List<T> defaults) {
+        // Remove duplicates while preserving the order given
+        return new LinkedHashSet<>(values.isEmpty() ? defaults : values);
+    }
+
+    private static void delete(File f) {
+        File[] files = f.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        f.delete();
+    }
+}
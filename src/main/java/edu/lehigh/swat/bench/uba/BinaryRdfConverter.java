@@ -0,0 +1,115 @@
+package edu.lehigh.swat.bench.uba;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import javax.inject.Inject;
+
+import com.github.rvesse.airline.HelpOption;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.help.ExitCodes;
+import com.github.rvesse.airline.annotations.restrictions.NotBlank;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+import edu.lehigh.swat.bench.uba.writers.binary.BinaryRdfReader;
+import edu.lehigh.swat.bench.uba.writers.utils.BufferSizes;
+import edu.lehigh.swat.bench.uba.writers.utils.BufferedOutputSink;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
+
+//@formatter:off
+@Command(name = "BinaryRdfConverter", description = "Converts data generated with --format BINARY_RDF into N-Triples")
+@ExitCodes(codes = { 0, 1, 2, 3 },
+           descriptions = {
+             "Conversion completed successfully",
+             "Help was displayed",
+             "Invalid arguments",
+             "Error during conversion"
+           })
+//@formatter:on
+public class BinaryRdfConverter {
+
+    @Option(name = { "-o",
+            "--output" }, title = "OutputFile", arity = 1, description = "Sets the file to write the N-Triples to (default stdout)")
+    @NotBlank
+    private String outputFile = null;
+
+    @Arguments(title = "InputFile", description = "Binary RDF files to convert, files ending in .gz are decompressed")
+    @Required
+    private List<String> inputFiles = new ArrayList<>();
+
+    @Inject
+    private HelpOption<BinaryRdfConverter> help;
+
+    public static void main(String[] args) {
+        SingleCommand<BinaryRdfConverter> parser = SingleCommand.singleCommand(BinaryRdfConverter.class);
+        try {
+            BinaryRdfConverter converter = parser.parse(args);
+
+            // Show help if requested
+            if (converter.help.showHelpIfRequested()) {
+                System.exit(1);
+            }
+
+            converter.run();
+        } catch (ParseException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (Throwable e) {
+            e.printStackTrace(System.err);
+            System.exit(3);
+        }
+
+        // If we got here everything worked OK
+        System.exit(0);
+    }
+
+    private void run() throws IOException {
+        OutputStream stream = this.outputFile != null ? new FileOutputStream(this.outputFile) : System.out;
+        OutputSink out = new BufferedOutputSink(stream, BufferSizes.OUTPUT_BUFFER_SIZE);
+        try {
+            for (String inputFile : this.inputFiles) {
+                InputStream input = new FileInputStream(inputFile);
+                if (inputFile.endsWith(".gz"))
+                    input = new GZIPInputStream(input, BufferSizes.GZIP_BUFFER_SIZE);
+                try (BinaryRdfReader reader = new BinaryRdfReader(input)) {
+                    while (reader.next()) {
+                        writeIri(out, reader.getSubject());
+                        out.print(' ');
+                        writeIri(out, reader.getPredicate());
+                        out.print(' ');
+                        if (reader.isObjectLiteral()) {
+                            out.print('"');
+                            out.print(reader.getObject());
+                            out.print('"');
+                        } else {
+                            writeIri(out, reader.getObject());
+                        }
+                        out.println(" .");
+                    }
+                }
+            }
+        } finally {
+            if (this.outputFile != null) {
+                out.close();
+            } else {
+                out.flush();
+            }
+        }
+    }
+
+    private static void writeIri(OutputSink out, String iri) {
+        out.print('<');
+        out.print(iri);
+        out.print('>');
+    }
+}
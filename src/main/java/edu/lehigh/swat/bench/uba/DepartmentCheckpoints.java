@@ -0,0 +1,197 @@
+package edu.lehigh.swat.bench.uba;
+
+import edu.lehigh.swat.bench.uba.model.GenerationParameters;
+import edu.lehigh.swat.bench.uba.model.Ontology;
+
+/**
+ * Checkpoints of the random number generator state of a university at the
+ * start of each of its departments
+ * <p>
+ * The checkpoints are calculated by a pre-pass that makes exactly the same
+ * random number calls as {@link UniversityGenerator} and
+ * {@link UniversityState} but tracks only the counts that influence those
+ * calls, no identifiers are built and nothing is written. This is cheap
+ * compared to actually generating the data and allows the departments of a
+ * university to be generated in parallel, or an individual department to be
+ * generated on its own, while producing identical data to generating the
+ * whole university sequentially.
+ * </p>
+ * <p>
+ * <strong>Any change to the random number calls made during data generation
+ * must be mirrored here</strong>, department generators check that they finish
+ * in the state the next checkpoint expects so any divergence is detected.
+ * </p>
+ */
+public class DepartmentCheckpoints {
+
+    private final RandomSource random;
+    private final long[] states;
+
+    /**
+     * Calculates the checkpoints for a university
+     *
+     * @param random
+     *            Random source for the university, must be in its initial state
+     *            and is consumed by the pre-pass
+     */
+    public DepartmentCheckpoints(RandomSource random) {
+        this.random = random;
+
+        int num = getDepartmentCount(random);
+        this.states = new long[num + 1];
+        for (int i = 0; i < num; i++) {
+            this.states[i] = this.random.getState();
+            department();
+        }
+        this.states[num] = this.random.getState();
+    }
+
+    /**
+     * Determines the number of departments in a university, this is the first
+     * random number drawn when generating a university
+     *
+     * @param random
+     *            Random source for the university, must be in its initial state
+     *            and is consumed by this call
+     * @return Number of departments
+     */
+    public static int getDepartmentCount(RandomSource random) {
+        return GenerationParameters.DEPT_MIN
+                + random.nextInt(GenerationParameters.DEPT_MAX - GenerationParameters.DEPT_MIN + 1);
+    }
+
+    /**
+     * Gets the number of departments in the university
+     *
+     * @return Number of departments
+     */
+    public int getDepartmentCount() {
+        return this.states.length - 1;
+    }
+
+    /**
+     * Gets the random state at the start of the given department
+     *
+     * @param deptIndex
+     *            Department index, if this is equal to the number of
+     *            departments the state after generating the last department is
+     *            returned
+     * @return Random state
+     */
+    public long getState(int deptIndex) {
+        return this.states[deptIndex];
+    }
+
+    private int range(int min, int max) {
+        return min + this.random.nextInt(max - min + 1);
+    }
+
+    private void randomList(int num, int min, int max) {
+        int size = max - min + 1;
+        for (int i = 0; i < num; i++) {
+            range(0, size - i - 1);
+        }
+    }
+
+    /**
+     * Mirrors the random number calls made by
+     * {@link UniversityGenerator#_generateDeptContent}
+     */
+    private void department() {
+        // UniversityState.reset()
+        int fullProfs = range(GenerationParameters.FULLPROF_MIN, GenerationParameters.FULLPROF_MAX);
+        int assoProfs = range(GenerationParameters.ASSOPROF_MIN, GenerationParameters.ASSOPROF_MAX);
+        int asstProfs = range(GenerationParameters.ASSTPROF_MIN, GenerationParameters.ASSTPROF_MAX);
+        int lecturers = range(GenerationParameters.LEC_MIN, GenerationParameters.LEC_MAX);
+        int faculty = fullProfs + assoProfs + asstProfs + lecturers;
+        int underStuds = range(GenerationParameters.R_UNDERSTUD_FACULTY_MIN * faculty,
+                GenerationParameters.R_UNDERSTUD_FACULTY_MAX * faculty);
+        int gradStuds = range(GenerationParameters.R_GRADSTUD_FACULTY_MIN * faculty,
+                GenerationParameters.R_GRADSTUD_FACULTY_MAX * faculty);
+        int tas = range(gradStuds / GenerationParameters.R_GRADSTUD_TA_MAX,
+                gradStuds / GenerationParameters.R_GRADSTUD_TA_MIN);
+        int ras = range(gradStuds / GenerationParameters.R_GRADSTUD_RA_MAX,
+                gradStuds / GenerationParameters.R_GRADSTUD_RA_MIN);
+        range(GenerationParameters.RESEARCHGROUP_MIN, GenerationParameters.RESEARCHGROUP_MAX);
+        // chair
+        this.random.nextInt(fullProfs);
+
+        int[] profs = new int[Ontology.CLASS_NUM];
+        profs[Ontology.CS_C_FULLPROF] = fullProfs;
+        profs[Ontology.CS_C_ASSOPROF] = assoProfs;
+        profs[Ontology.CS_C_ASSTPROF] = asstProfs;
+
+        // Sections
+        Counts counts = new Counts();
+        for (int i = 0; i < fullProfs; i++) {
+            professor(counts, GenerationParameters.FULLPROF_PUB_MIN, GenerationParameters.FULLPROF_PUB_MAX);
+        }
+        for (int i = 0; i < assoProfs; i++) {
+            professor(counts, GenerationParameters.ASSOPROF_PUB_MIN, GenerationParameters.ASSOPROF_PUB_MAX);
+        }
+        for (int i = 0; i < asstProfs; i++) {
+            professor(counts, GenerationParameters.ASSTPROF_PUB_MIN, GenerationParameters.ASSTPROF_PUB_MAX);
+        }
+        for (int i = 0; i < lecturers; i++) {
+            faculty(counts);
+            counts.publications += range(GenerationParameters.LEC_PUB_MIN, GenerationParameters.LEC_PUB_MAX);
+        }
+        for (int i = 0; i < underStuds; i++) {
+            int n = range(GenerationParameters.UNDERSTUD_COURSE_MIN, GenerationParameters.UNDERSTUD_COURSE_MAX);
+            randomList(n, 0, counts.underCourses - 1);
+            if (0 == this.random.nextInt(GenerationParameters.R_UNDERSTUD_ADVISOR)) {
+                advisor(profs);
+            }
+        }
+        for (int i = 0; i < gradStuds; i++) {
+            int n = range(GenerationParameters.GRADSTUD_COURSE_MIN, GenerationParameters.GRADSTUD_COURSE_MAX);
+            randomList(n, 0, counts.gradCourses - 1);
+            this.random.nextInt(GenerationParameters.UNIV_NUM);
+            if (0 == this.random.nextInt(GenerationParameters.R_GRADSTUD_ADVISOR)) {
+                advisor(profs);
+            }
+            n = range(GenerationParameters.GRADSTUD_PUB_MIN, GenerationParameters.GRADSTUD_PUB_MAX);
+            randomList(n, 0, counts.publications - 1);
+        }
+
+        // RAs and TAs
+        randomList(tas + ras, 0, gradStuds - 1);
+        randomList(tas, 0, counts.underCourses - 1);
+    }
+
+    private void professor(Counts counts, int minPubs, int maxPubs) {
+        faculty(counts);
+        // research interest
+        this.random.nextInt(GenerationParameters.RESEARCH_NUM);
+        counts.publications += range(minPubs, maxPubs);
+    }
+
+    private void faculty(Counts counts) {
+        int n = range(GenerationParameters.FACULTY_COURSE_MIN, GenerationParameters.FACULTY_COURSE_MAX);
+        for (int i = 0; i < n; i++) {
+            range(0, GenerationParameters.UNDER_COURSE_NUM - counts.underCourses - 1);
+            counts.underCourses++;
+        }
+        n = range(GenerationParameters.FACULTY_GRADCOURSE_MIN, GenerationParameters.FACULTY_GRADCOURSE_MAX);
+        for (int i = 0; i < n; i++) {
+            range(0, GenerationParameters.GRAD_COURSE_NUM - counts.gradCourses - 1);
+            counts.gradCourses++;
+        }
+        // degrees
+        this.random.nextInt(GenerationParameters.UNIV_NUM);
+        this.random.nextInt(GenerationParameters.UNIV_NUM);
+        this.random.nextInt(GenerationParameters.UNIV_NUM);
+    }
+
+    private void advisor(int[] profs) {
+        int profType = range(Ontology.CS_C_FULLPROF, Ontology.CS_C_ASSTPROF);
+        this.random.nextInt(profs[profType]);
+    }
+
+    /**
+     * Counts that influence random number calls within a department
+     */
+    private static class Counts {
+        int underCourses, gradCourses, publications;
+    }
+}
@@ -0,0 +1,75 @@
+package edu.lehigh.swat.bench.uba;
+
+import java.util.concurrent.Callable;
+
+import edu.lehigh.swat.bench.uba.model.Ontology;
+import edu.lehigh.swat.bench.uba.writers.WriterFragment;
+
+/**
+ * Generates a single department of a university independently of the other
+ * departments of that university
+ * <p>
+ * Used when the departments of a university are generated in parallel, the
+ * department is generated from its own state and its output returned as a
+ * fragment that the {@link UniversityGenerator} splices into the university's
+ * output in department order.
+ * </p>
+ * <p>
+ * When the department state was resumed from {@link DepartmentCheckpoints} the
+ * generator verifies that it finishes in the random state checkpointed for the
+ * next department, if it does not the generated data would differ from that
+ * generated sequentially so an error is raised.
+ * </p>
+ */
+class DepartmentGenerator implements Callable<WriterFragment> {
+
+    private final UniversityGenerator univGen;
+    private final UniversityState deptState;
+    private final int index, numDepts;
+    private final String filename;
+    private final DepartmentCheckpoints checkpoints;
+
+    /**
+     * Creates a new department generator
+     *
+     * @param univGen
+     *            University generator
+     * @param deptState
+     *            State for the department
+     * @param index
+     *            Index of the department
+     * @param numDepts
+     *            Number of departments in the university
+     * @param filename
+     *            File the department will be appended to, {@code null} if the
+     *            department should be written to its own file
+     * @param checkpoints
+     *            Checkpoints the department state was resumed from,
+     *            {@code null} if the department has its own seed
+     */
+    public DepartmentGenerator(UniversityGenerator univGen, UniversityState deptState, int index, int numDepts,
+            String filename, DepartmentCheckpoints checkpoints) {
+        this.univGen = univGen;
+        this.deptState = deptState;
+        this.index = index;
+        this.numDepts = numDepts;
+        this.filename = filename;
+        this.checkpoints = checkpoints;
+    }
+
+    @Override
+    public WriterFragment call() {
+        this.deptState.prepare();
+        this.deptState.getInstances()[Ontology.CS_C_DEPT].num = this.numDepts;
+        this.deptState.getInstances()[Ontology.CS_C_DEPT].count = this.index;
+
+        WriterFragment fragment = this.univGen._generateDeptFragment(this.deptState, this.index, this.filename);
+        if (this.checkpoints != null && this.deptState.getRandomState() != this.checkpoints.getState(this.index + 1)) {
+            throw new IllegalStateException(String.format(
+                    "Department %d of University %d did not finish at its expected random state, the checkpoint pre-pass has diverged from data generation",
+                    this.index, this.deptState.getUniversityIndex()));
+        }
+        this.deptState.setComplete();
+        return fragment;
+    }
+}
@@ -0,0 +1,182 @@
+package edu.lehigh.swat.bench.uba;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+import edu.lehigh.swat.bench.uba.model.InstanceCount;
+import edu.lehigh.swat.bench.uba.model.Ontology;
+import edu.lehigh.swat.bench.uba.model.PropertyCount;
+
+/**
+ * Statistics on the data generated
+ * <p>
+ * Instances and properties are counted by each {@link UniversityState} which
+ * is only ever used by a single thread, so counting requires no
+ * synchronization. The counts for a department are merged into these
+ * statistics once the department has been generated, this means shared state
+ * is only updated once per department rather than for every triple.
+ * </p>
+ */
+public class GenerationStatistics {
+
+    private final long[] classTotals = new long[Ontology.CLASS_NUM];
+    private final long[] propertyTotals = new long[Ontology.PROP_NUM];
+    private final Map<Integer, UniversityStatistics> universities = new TreeMap<>();
+
+    /**
+     * Records the counts for a department that has been generated
+     *
+     * @param univIndex
+     *            University index
+     * @param instances
+     *            Instance counts for the department
+     * @param properties
+     *            Property counts for the department
+     */
+    public synchronized void recordDepartment(int univIndex, InstanceCount[] instances, PropertyCount[] properties) {
+        UniversityStatistics univ = this.universities.get(univIndex);
+        if (univ == null) {
+            univ = new UniversityStatistics();
+            this.universities.put(univIndex, univ);
+        }
+        univ.departments++;
+        for (int i = 0; i < Ontology.CLASS_NUM; i++) {
+            univ.classes[i] += instances[i].logNum;
+            this.classTotals[i] += instances[i].logNum;
+        }
+        for (int i = 0; i < Ontology.PROP_NUM; i++) {
+            univ.properties[i] += properties[i].logNum;
+            this.propertyTotals[i] += properties[i].logNum;
+        }
+    }
+
+    /**
+     * Gets the total instances of a class generated so far
+     *
+     * @param classType
+     *            Class
+     * @return Total instances
+     */
+    public synchronized long getTotalInstances(int classType) {
+        return this.classTotals[classType];
+    }
+
+    /**
+     * Gets the total instances of a property generated so far
+     *
+     * @param propType
+     *            Property
+     * @return Total property instances
+     */
+    public synchronized long getTotalProperties(int propType) {
+        return this.propertyTotals[propType];
+    }
+
+    /**
+     * Gets the total instances of all classes generated so far
+     *
+     * @return Total instances
+     */
+    public synchronized long getTotalInstances() {
+        return sum(this.classTotals);
+    }
+
+    /**
+     * Gets the total instances of all properties generated so far
+     *
+     * @return Total property instances
+     */
+    public synchronized long getTotalProperties() {
+        return sum(this.propertyTotals);
+    }
+
+    /**
+     * Writes a JSON report of the statistics to the given file
+     * <p>
+     * The report gives the total departments, class instances and property
+     * instances plus the counts for each class and property, both across all
+     * universities and for each individual university.
+     * </p>
+     *
+     * @param file
+     *            File
+     * @param state
+     *            Global state
+     */
+    public synchronized void writeReport(File file, GlobalState state) {
+        try (PrintWriter writer = new PrintWriter(
+                new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.println("{");
+            writer.println("  \"seed\": " + state.getBaseSeed() + ",");
+            writer.println("  \"startIndex\": " + state.getStartIndex() + ",");
+            writer.println("  \"format\": \"" + state.getWriterType() + "\",");
+
+            int departments = 0;
+            for (UniversityStatistics univ : this.universities.values()) {
+                departments += univ.departments;
+            }
+            writer.println("  \"totals\": {");
+            writeCounts(writer, "    ", departments, this.classTotals, this.propertyTotals);
+            writer.println("  },");
+
+            writer.println("  \"universities\": [");
+            int i = 0;
+            for (Map.Entry<Integer, UniversityStatistics> e : this.universities.entrySet()) {
+                UniversityStatistics univ = e.getValue();
+                writer.println("    {");
+                writer.println("      \"index\": " + e.getKey() + ",");
+                writeCounts(writer, "      ", univ.departments, univ.classes, univ.properties);
+                writer.println(++i < this.universities.size() ? "    }," : "    }");
+            }
+            writer.println("  ]");
+            writer.println("}");
+
+            if (writer.checkError())
+                throw new IOException("Error writing statistics report");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write statistics report", e);
+        }
+    }
+
+    private static void writeCounts(PrintWriter writer, String indent, int departments, long[] classes,
+            long[] properties) {
+        writer.println(indent + "\"departments\": " + departments + ",");
+        writer.println(indent + "\"classInstances\": " + sum(classes) + ",");
+        writer.println(indent + "\"propertyInstances\": " + sum(properties) + ",");
+        writeMap(writer, indent, "classes", Ontology.CLASS_TOKEN, classes, true);
+        writeMap(writer, indent, "properties", Ontology.PROP_TOKEN, properties, false);
+    }
+
+    private static void writeMap(PrintWriter writer, String indent, String name, String[] keys, long[] values,
+            boolean more) {
+        writer.println(indent + "\"" + name + "\": {");
+        for (int i = 0; i < keys.length; i++) {
+            writer.print(indent + "  \"" + keys[i] + "\": " + values[i]);
+            writer.println(i < keys.length - 1 ? "," : "");
+        }
+        writer.println(more ? indent + "}," : indent + "}");
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    /**
+     * Statistics for a single university
+     */
+    private static class UniversityStatistics {
+        int departments;
+        final long[] classes = new long[Ontology.CLASS_NUM];
+        final long[] properties = new long[Ontology.PROP_NUM];
+    }
+}
@@ -26,6 +26,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import edu.lehigh.swat.bench.uba.writers.ConsolidationMode;
+import edu.lehigh.swat.bench.uba.writers.GraphMode;
 import edu.lehigh.swat.bench.uba.writers.WriterType;
 
 import java.io.*;
@@ -39,6 +40,12 @@ public class Generator {
     /** delimiter between name and index in a name string of an instance */
     public static final char INDEX_DELIMITER = '_';
 
+    /** maximum number of platform threads */
+    public static final int MAX_THREADS = 128;
+
+    /** maximum number of virtual threads */
+    public static final int MAX_VIRTUAL_THREADS = 16384;
+
     /**
      * Begins the data generation.
      * 
@@ -67,10 +74,52 @@ public class Generator {
      *            The time unit in which {@code executionTimeout} is expressed
      * @param quiet
      *            Whether to enable quiet mode
+     * @param splitSeeds
+     *            Whether each department is generated from its own seed, which
+     *            allows departments to be generated in parallel
+     * @param parallelDepartments
+     *            Whether the departments of each university are generated in
+     *            parallel
+     * @param department
+     *            Index of the only department to generate for each university,
+     *            negative to generate all departments
+     * @param randomType
+     *            Random number generator to use
+     * @param scheduleMode
+     *            Mode used to schedule the generation of universities
+     * @param virtualThreads
+     *            Whether to generate data on virtual threads, requires Java 21
+     *            or later
+     * @param maxBufferMemory
+     *            Maximum memory in bytes that in-memory output buffers may use
+     *            before they are flushed early or spilled to disk, zero or
+     *            negative for no limit
+     * @param graphMode
+     *            Mode used to place triples into named graphs for the quad
+     *            output formats
+     * @param statsFile
+     *            File to write a JSON statistics report to once generation
+     *            completes, {@code null} for no report
+     * @return Statistics on the data generated
      */
-    public void start(int univNum, int startIndex, int seed, WriterType writerType, String ontology, String workDir,
+    public GenerationStatistics start(int univNum, int startIndex, int seed, WriterType writerType, String ontology, String workDir,
             ConsolidationMode consolidate, boolean compress, int threads, long executionTimeout,
-            TimeUnit executionTimeoutUnit, boolean quiet) {
+            TimeUnit executionTimeoutUnit, boolean quiet, boolean splitSeeds, boolean parallelDepartments,
+            int department, RandomSourceType randomType, ScheduleMode scheduleMode, boolean virtualThreads,
+            long maxBufferMemory, GraphMode graphMode, String statsFile) {
+        if (virtualThreads && !ThreadPools.supportsVirtualThreads()) {
+            throw new IllegalArgumentException("Virtual threads require running on Java 21 or later");
+        }
+        if (threads > (virtualThreads ? MAX_VIRTUAL_THREADS : MAX_THREADS)) {
+            throw new IllegalArgumentException(String.format(
+                    "At most %d threads may be used, or %d when using virtual threads", MAX_THREADS,
+                    MAX_VIRTUAL_THREADS));
+        }
+        if (department >= 0 && consolidate != ConsolidationMode.None) {
+            throw new IllegalArgumentException(
+                    "Generating a single department requires consolidation mode None so the department has its own file");
+        }
+
         File outputDir = workDir != null ? new File(workDir) : new File(".");
         outputDir = outputDir.getAbsoluteFile();
         if (!outputDir.exists() || !outputDir.isDirectory()) {
@@ -80,7 +129,9 @@ public class Generator {
             }
         }
         GlobalState state = new GlobalState(univNum, seed, startIndex, ontology, writerType, outputDir, consolidate,
-                compress, threads, executionTimeout, executionTimeoutUnit, quiet);
+                compress, threads, executionTimeout, executionTimeoutUnit, quiet, splitSeeds,
+                parallelDepartments, department, randomType, scheduleMode, virtualThreads,
+                maxBufferMemory, graphMode);
 
         try {
             state.start();
@@ -88,8 +139,8 @@ public class Generator {
 
             // Submit a university generator for each university
             List<UniversityState> states = new ArrayList<>();
-            for (int i = 0; i < state.getNumberUniversities(); i++) {
-                UniversityState univState = new UniversityState(state, i + state.getStartIndex());
+            for (int i : scheduleUniversities(state)) {
+                UniversityState univState = new UniversityState(state, i);
                 UniversityGenerator univGen = new UniversityGenerator(univState);
                 state.getExecutor().submit(univGen);
                 states.add(univState);
@@ -119,7 +170,18 @@ public class Generator {
             // Tell state we're finished
             state.finish();
 
+            if (state.getMemoryBudget().isLimited()) {
+                LOGGER.info("Peak buffer memory was {} bytes of the {} byte budget",
+                        state.getMemoryBudget().getPeak(), state.getMemoryBudget().getLimit());
+            }
+
+            if (statsFile != null) {
+                state.getStatistics().writeReport(new File(statsFile), state);
+                System.out.println("Statistics written to " + statsFile);
+            }
+
             System.out.println("Completed!");
+            return state.getStatistics();
         } finally {
             // Tell state to finish regardless of whether we encountered an
             // error
@@ -129,6 +191,37 @@ public class Generator {
         }
     }
 
+    /**
+     * Determines the order in which universities are submitted for generation
+     * 
+     * @param state
+     *            Global state
+     * @return University indexes in submission order
+     */
+    private List<Integer> scheduleUniversities(final GlobalState state) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < state.getNumberUniversities(); i++) {
+            indexes.add(i + state.getStartIndex());
+        }
+        if (state.getScheduleMode() != ScheduleMode.LargestFirst)
+            return indexes;
+
+        // Estimate the cost of each university from its number of departments
+        // and submit the largest first, sorting is stable so universities of
+        // equal cost are still submitted in index order
+        final Map<Integer, Integer> costs = new HashMap<>();
+        for (Integer index : indexes) {
+            costs.put(index, DepartmentCheckpoints.getDepartmentCount(state.createRandomSource(index)));
+        }
+        Collections.sort(indexes, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Integer.compare(costs.get(b), costs.get(a));
+            }
+        });
+        return indexes;
+    }
+
     private void notAllGeneratorsFinished(GlobalState state) {
         if (state.getWriteConsolidator() != null) {
             state.getWriteConsolidator().cancel();
@@ -1,30 +1,50 @@
 package edu.lehigh.swat.bench.uba;
 
 import java.io.File;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
-import edu.lehigh.swat.bench.uba.model.Ontology;
+import edu.lehigh.swat.bench.uba.model.GenerationParameters;
 import edu.lehigh.swat.bench.uba.writers.ConsolidationMode;
+import edu.lehigh.swat.bench.uba.writers.CompactTurtleWriter;
 import edu.lehigh.swat.bench.uba.writers.DamlWriter;
+import edu.lehigh.swat.bench.uba.writers.GraphMode;
+import edu.lehigh.swat.bench.uba.writers.NQuadsWriter;
 import edu.lehigh.swat.bench.uba.writers.NTriplesWriter;
 import edu.lehigh.swat.bench.uba.writers.OwlWriter;
+import edu.lehigh.swat.bench.uba.writers.TrigWriter;
 import edu.lehigh.swat.bench.uba.writers.TurtleWriter;
 import edu.lehigh.swat.bench.uba.writers.Writer;
 import edu.lehigh.swat.bench.uba.writers.WriterType;
+import edu.lehigh.swat.bench.uba.writers.binary.BinaryRdfWriter;
+import edu.lehigh.swat.bench.uba.writers.hdt.HdtConsolidator;
+import edu.lehigh.swat.bench.uba.writers.hdt.HdtWriter;
+import edu.lehigh.swat.bench.uba.writers.ids.IdTriplesConsolidator;
+import edu.lehigh.swat.bench.uba.writers.ids.IdTriplesFormat;
+import edu.lehigh.swat.bench.uba.writers.ids.IdTriplesWriter;
+import edu.lehigh.swat.bench.uba.writers.pgraph.csv.Neo4jCsvConsolidator;
+import edu.lehigh.swat.bench.uba.writers.pgraph.csv.Neo4jCsvWriter;
 import edu.lehigh.swat.bench.uba.writers.pgraph.graphml.GraphMLConsolidator;
 import edu.lehigh.swat.bench.uba.writers.pgraph.graphml.GraphMLNodesThenEdgesConsolidator;
 import edu.lehigh.swat.bench.uba.writers.pgraph.graphml.GraphMLWriter;
 import edu.lehigh.swat.bench.uba.writers.pgraph.graphml.SegregatedGraphMLWriter;
 import edu.lehigh.swat.bench.uba.writers.pgraph.json.JsonConsolidator;
+import edu.lehigh.swat.bench.uba.writers.pgraph.json.JsonLinesWriter;
 import edu.lehigh.swat.bench.uba.writers.pgraph.json.JsonWriter;
+import edu.lehigh.swat.bench.uba.writers.utils.ConcurrentBitSet;
+import edu.lehigh.swat.bench.uba.writers.utils.MemoryBudget;
 import edu.lehigh.swat.bench.uba.writers.utils.SingleFileConsolidator;
 import edu.lehigh.swat.bench.uba.writers.utils.WriteConsolidator;
 import edu.lehigh.swat.bench.uba.writers.utils.WriterPool;
+import edu.lehigh.swat.bench.uba.writers.vp.VerticalPartitionConsolidator;
+import edu.lehigh.swat.bench.uba.writers.vp.VerticalPartitionWriter;
 
 public class GlobalState {
 
@@ -39,28 +59,37 @@ public class GlobalState {
     /** univ-bench ontology url */
     private final String ontology;
 
-    private final AtomicLong[] totalInstancesGenerated;
-    private final AtomicLong[] totalPropertiesGenerated;
+    private final GenerationStatistics statistics = new GenerationStatistics();
 
     private final WriterType writerType;
     private final File outputDir;
-    private final boolean compress, quiet;
+    private final boolean compress, quiet, splitSeeds, parallelDepartments;
+    private final int department;
+    private final RandomSourceType randomType;
+    private final ScheduleMode scheduleMode;
+    private final boolean virtualThreads;
+    private final MemoryBudget memoryBudget;
+    private final GraphMode graphMode;
     private final ConsolidationMode consolidate;
 
     private final int threads;
     private final ExecutorService executorService;
+    private final ExecutorService departmentService;
     private final long executionTimeout;
     private final TimeUnit executionTimeoutUnit;
     private final AtomicLong errorCount = new AtomicLong(0);
+    private final ConcurrentBitSet requiredUniversities = new ConcurrentBitSet(GenerationParameters.UNIV_NUM);
 
     private final WriterPool writerPool;
     private final WriteConsolidator writeConsolidator;
-    private final ExecutorService consolidatorService = Executors.newSingleThreadExecutor();
+    private final ExecutorService consolidatorService;
     private Future<Long> consolidatorFuture;
 
     public GlobalState(int univNum, long baseSeed, int startIndex, String ontologyUrl, WriterType type, File outputDir,
             ConsolidationMode consolidate, boolean compress, int threads, long executionTimeout,
-            TimeUnit executionTimeoutUnit, boolean quiet) {
+            TimeUnit executionTimeoutUnit, boolean quiet, boolean splitSeeds, boolean parallelDepartments,
+            int department, RandomSourceType randomType, ScheduleMode scheduleMode, boolean virtualThreads,
+            long maxBufferMemory, GraphMode graphMode) {
         this.numUniversities = univNum;
         this.baseSeed = baseSeed;
         this.startIndex = startIndex;
@@ -69,24 +98,34 @@ public class GlobalState {
         this.outputDir = outputDir;
         this.compress = compress;
         this.quiet = quiet;
+        this.splitSeeds = splitSeeds;
+        this.parallelDepartments = parallelDepartments || splitSeeds;
+        this.department = department;
+        this.randomType = randomType;
+        this.scheduleMode = scheduleMode;
+        this.virtualThreads = virtualThreads;
+        this.memoryBudget = new MemoryBudget(maxBufferMemory);
+        this.graphMode = graphMode;
         this.executionTimeout = executionTimeout;
         this.executionTimeoutUnit = executionTimeoutUnit;
 
-        this.totalInstancesGenerated = new AtomicLong[Ontology.CLASS_NUM];
-        for (int i = 0; i < Ontology.CLASS_NUM; i++) {
-            this.totalInstancesGenerated[i] = new AtomicLong(0l);
-        }
-        this.totalPropertiesGenerated = new AtomicLong[Ontology.PROP_NUM];
-        for (int i = 0; i < Ontology.PROP_NUM; i++) {
-            this.totalPropertiesGenerated[i] = new AtomicLong(0l);
+        this.threads = Math.max(threads, 1);
+        if (this.scheduleMode == ScheduleMode.LargestFirst && !this.virtualThreads) {
+            this.executorService = new ForkJoinPool(this.threads);
+        } else {
+            this.executorService = ThreadPools.newFixedThreadPool(this.threads, this.virtualThreads);
         }
 
-        if (threads <= 1) {
-            this.executorService = Executors.newSingleThreadExecutor();
-            this.threads = 1;
+        // Departments are generated by a separate pool so university
+        // generators can wait on their departments without starving them of
+        // threads, a work stealing pool can instead run departments itself
+        // since threads waiting on their departments help to run them
+        if (this.executorService instanceof ForkJoinPool) {
+            this.departmentService = this.executorService;
+        } else if (this.parallelDepartments && this.department < 0) {
+            this.departmentService = ThreadPools.newFixedThreadPool(this.threads, this.virtualThreads);
         } else {
-            this.threads = threads;
-            this.executorService = Executors.newFixedThreadPool(threads);
+            this.departmentService = null;
         }
 
         // Adjust consolidation mode if Maximal/Full is specified
@@ -102,11 +141,28 @@ public class GlobalState {
                 break;
             case NTRIPLES:
             case TURTLE:
+            case TURTLE_COMPACT:
+            case NQUADS:
+            case TRIG:
+            case BINARY_RDF:
+            case ID_TRIPLES:
+            case VERTICAL_PARTITIONS:
+            case JSON_LINES:
                 // All these formats can be trivially concatenated together so
                 // again using Partial should give the best IO balance and we'll
                 // need to add in a write consolidator
                 this.consolidate = ConsolidationMode.Partial;
                 break;
+            case NEO4J_CSV:
+                // The university files are split into files per label and
+                // type as they are consolidated
+                this.consolidate = ConsolidationMode.Partial;
+                break;
+            case HDT:
+                // HDT files can't be concatenated so are merged into a single
+                // file once every university has been written
+                this.consolidate = ConsolidationMode.Partial;
+                break;
             default:
                 // Otherwise default to full
                 this.consolidate = ConsolidationMode.Full;
@@ -118,6 +174,10 @@ public class GlobalState {
             case GRAPHML_NODESFIRST:
             case JSON:
             case NEO4J_GRAPHML:
+            case HDT:
+            case ID_TRIPLES:
+            case NEO4J_CSV:
+            case VERTICAL_PARTITIONS:
                 // All these formats need us to use Partial consolidation as the
                 // primary consolidation
                 this.consolidate = ConsolidationMode.Partial;
@@ -137,6 +197,10 @@ public class GlobalState {
             this.writerPool = null;
         }
 
+        // Write consolidation is I/O bound so is also run on a virtual thread
+        // if requested
+        this.consolidatorService = ThreadPools.newFixedThreadPool(1, this.virtualThreads);
+
         // Prepare write consolidation if needed
         StringBuilder consolidatedFileName = new StringBuilder();
         consolidatedFileName.append(this.outputDir.getAbsolutePath());
@@ -162,8 +226,44 @@ public class GlobalState {
             this.writeConsolidator = new JsonConsolidator(file.replace(ext, "-nodes" + ext),
                     file.replace(ext, "-edges" + ext));
             break;
+        case ID_TRIPLES:
+            if (consolidate == ConsolidationMode.Maximal) {
+                String triplesFile = consolidatedFileName.toString();
+                this.writeConsolidator = new IdTriplesConsolidator(triplesFile,
+                        triplesFile.replace(ext, IdTriplesFormat.DICTIONARY_EXTENSION));
+            } else {
+                this.writeConsolidator = null;
+            }
+            break;
+        case VERTICAL_PARTITIONS:
+            if (consolidate == ConsolidationMode.Maximal) {
+                this.writeConsolidator = new VerticalPartitionConsolidator(consolidatedFileName.toString(), ext);
+            } else {
+                this.writeConsolidator = null;
+            }
+            break;
+        case NEO4J_CSV:
+            if (consolidate == ConsolidationMode.Maximal) {
+                this.writeConsolidator = new Neo4jCsvConsolidator(consolidatedFileName.toString(), ext);
+            } else {
+                this.writeConsolidator = null;
+            }
+            break;
+        case HDT:
+            if (consolidate == ConsolidationMode.Maximal || consolidate == ConsolidationMode.Full) {
+                this.writeConsolidator = new HdtConsolidator(consolidatedFileName.toString(), this.memoryBudget,
+                        this.outputDir);
+            } else {
+                this.writeConsolidator = null;
+            }
+            break;
         case NTRIPLES:
         case TURTLE:
+        case TURTLE_COMPACT:
+        case NQUADS:
+        case TRIG:
+        case BINARY_RDF:
+        case JSON_LINES:
             if (consolidate == ConsolidationMode.Maximal) {
                 this.writeConsolidator = new SingleFileConsolidator(consolidatedFileName.toString());
                 break;
@@ -209,14 +309,99 @@ public class GlobalState {
         return this.quiet;
     }
 
+    /**
+     * Gets whether each department is generated from its own seed, which
+     * allows the departments of a university to be generated in parallel
+     * 
+     * @return True if departments have their own seeds
+     */
+    public boolean splitSeeds() {
+        return this.splitSeeds;
+    }
+
+    /**
+     * Gets whether the departments of a university are generated in parallel
+     * 
+     * @return True if departments are generated in parallel
+     */
+    public boolean parallelDepartments() {
+        return this.parallelDepartments;
+    }
+
+    /**
+     * Gets the index of the only department to generate for each university
+     * 
+     * @return Department index, negative if all departments are generated
+     */
+    public int getDepartment() {
+        return this.department;
+    }
+
     public int getThreads() {
         return this.threads;
     }
 
+    /**
+     * Gets whether generation runs on virtual threads
+     * 
+     * @return True if virtual threads are used
+     */
+    public boolean useVirtualThreads() {
+        return this.virtualThreads;
+    }
+
     public ExecutorService getExecutor() {
         return this.executorService;
     }
 
+    /**
+     * Gets the universities outside of those being generated that are
+     * referenced by the generated data and have already been written by a
+     * property graph writer
+     * 
+     * @return Required universities
+     */
+    public ConcurrentBitSet getRequiredUniversities() {
+        return this.requiredUniversities;
+    }
+
+    /**
+     * Gets the mode used to place triples into named graphs
+     * 
+     * @return Graph mode
+     */
+    public GraphMode getGraphMode() {
+        return this.graphMode;
+    }
+
+    /**
+     * Gets the mode used to schedule the generation of universities
+     * 
+     * @return Schedule mode
+     */
+    public ScheduleMode getScheduleMode() {
+        return this.scheduleMode;
+    }
+
+    /**
+     * Submits a department to be generated in parallel
+     * <p>
+     * When called from a thread of a work stealing pool the department is
+     * forked onto that thread's own queue, so it may either be run by that
+     * thread when it waits on the department or stolen by an idle thread.
+     * </p>
+     * 
+     * @param department
+     *            Department generator
+     * @return Future for the department
+     */
+    public <T> Future<T> submitDepartment(Callable<T> department) {
+        if (this.departmentService instanceof ForkJoinPool && Thread.currentThread() instanceof ForkJoinWorkerThread) {
+            return ForkJoinTask.adapt(department).fork();
+        }
+        return this.departmentService.submit(department);
+    }
+
     public long getExecutionTimeout() {
         return this.executionTimeout;
     }
@@ -225,20 +410,21 @@ public class GlobalState {
         return this.executionTimeoutUnit;
     }
 
-    public void incrementTotalInstances(int classType) {
-        this.totalInstancesGenerated[classType].incrementAndGet();
-    }
-
-    public void incrementTotalProperties(int propType) {
-        this.totalPropertiesGenerated[propType].incrementAndGet();
+    /**
+     * Gets the statistics on the data generated
+     * 
+     * @return Statistics
+     */
+    public GenerationStatistics getStatistics() {
+        return this.statistics;
     }
 
     public long getTotalInstances(int classType) {
-        return this.totalInstancesGenerated[classType].get();
+        return this.statistics.getTotalInstances(classType);
     }
 
     public long getTotalProperties(int propType) {
-        return this.totalPropertiesGenerated[propType].get();
+        return this.statistics.getTotalProperties(propType);
     }
 
     public void incrementErrorCount() {
@@ -264,13 +450,30 @@ public class GlobalState {
         case NTRIPLES:
             return ".nt";
         case TURTLE:
+        case TURTLE_COMPACT:
             return ".ttl";
+        case NQUADS:
+            return ".nq";
+        case TRIG:
+            return ".trig";
+        case BINARY_RDF:
+            return ".brdf";
+        case HDT:
+            return ".hdt";
+        case ID_TRIPLES:
+            return ".ids";
+        case VERTICAL_PARTITIONS:
+            return ".tsv";
         case GRAPHML:
         case GRAPHML_NODESFIRST:
         case NEO4J_GRAPHML:
             return ".graphml";
         case JSON:
             return ".json";
+        case JSON_LINES:
+            return ".jsonl";
+        case NEO4J_CSV:
+            return ".csv";
         default:
             throw new RuntimeException("Unknown writer type");
         }
@@ -297,6 +500,27 @@ public class GlobalState {
         case TURTLE:
             return new TurtleWriter(callbackTarget, this.getOntologyUrl());
 
+        case TURTLE_COMPACT:
+            return new CompactTurtleWriter(callbackTarget, this.getOntologyUrl());
+
+        case NQUADS:
+            return new NQuadsWriter(callbackTarget, this.getOntologyUrl(), this.graphMode);
+
+        case TRIG:
+            return new TrigWriter(callbackTarget, this.getOntologyUrl(), this.graphMode);
+
+        case BINARY_RDF:
+            return new BinaryRdfWriter(callbackTarget, this.getOntologyUrl());
+
+        case HDT:
+            return new HdtWriter(callbackTarget, this.getOntologyUrl());
+
+        case ID_TRIPLES:
+            return new IdTriplesWriter(callbackTarget, this.getOntologyUrl());
+
+        case VERTICAL_PARTITIONS:
+            return new VerticalPartitionWriter(callbackTarget, this.getOntologyUrl());
+
         case GRAPHML:
             return new GraphMLWriter(callbackTarget, false);
 
@@ -306,14 +530,49 @@ public class GlobalState {
         case NEO4J_GRAPHML:
             return new SegregatedGraphMLWriter(callbackTarget, true);
 
+        case NEO4J_CSV:
+            return new Neo4jCsvWriter(callbackTarget);
+
         case JSON:
             return new JsonWriter(callbackTarget);
 
+        case JSON_LINES:
+            return new JsonLinesWriter(callbackTarget);
+
         default:
             throw new RuntimeException("Invalid writer type specified");
         }
     }
 
+    /**
+     * Creates a new random source for a university in its initial state
+     * 
+     * @param univIndex
+     *            University index
+     * @return Random source
+     */
+    public RandomSource createRandomSource(int univIndex) {
+        switch (this.randomType) {
+        case Legacy:
+            return new LegacyRandom(this.getBaseSeed() * (Integer.MAX_VALUE + 1) + univIndex);
+
+        case Fast:
+            return new SplitMixRandom(this.getBaseSeed()).split(univIndex);
+
+        default:
+            throw new RuntimeException("Invalid random source type specified");
+        }
+    }
+
+    /**
+     * Gets the memory budget shared by all in-memory output buffers
+     * 
+     * @return Memory budget
+     */
+    public MemoryBudget getMemoryBudget() {
+        return this.memoryBudget;
+    }
+
     public WriterPool getWriterPool() {
         return this.writerPool;
     }
@@ -336,6 +595,12 @@ public class GlobalState {
     }
 
     public void finish() {
+        // University generators wait for their departments so once we are
+        // finishing any departments still running are no longer needed
+        if (this.departmentService != null) {
+            this.departmentService.shutdownNow();
+        }
+
         if (this.consolidationMode() == ConsolidationMode.Full) {
             // Close the writer pool
             this.writerPool.close();
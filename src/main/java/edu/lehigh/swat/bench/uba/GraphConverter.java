@@ -0,0 +1,98 @@
+package edu.lehigh.swat.bench.uba;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import com.github.rvesse.airline.HelpOption;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.help.ExitCodes;
+import com.github.rvesse.airline.annotations.restrictions.AllowedRawValues;
+import com.github.rvesse.airline.annotations.restrictions.NotBlank;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+import edu.lehigh.swat.bench.uba.writers.graphml.GraphConversion;
+import edu.lehigh.swat.bench.uba.writers.graphml.GraphFormatConverter;
+
+//@formatter:off
+@Command(name = "GraphConverter", description = "Converts property graphs generated with --format GRAPHML or JSON into the layouts expected by Neo4j and GraphX")
+@ExitCodes(codes = { 0, 1, 2, 3 },
+           descriptions = {
+             "Conversion completed successfully",
+             "Help was displayed",
+             "Invalid arguments",
+             "Error during conversion"
+           })
+//@formatter:on
+public class GraphConverter {
+
+    @Option(name = { "-c",
+            "--conversion" }, title = "Conversion", arity = 1, description = "Sets the conversion to perform.  Neo4j reorders a GRAPHML file so that all nodes precede all edges while GraphX combines the nodes and edges files of JSON output, given in that order, into a single JSON document")
+    @AllowedRawValues(allowedValues = { "Neo4j", "GraphX" })
+    @Required
+    private GraphConversion conversion;
+
+    @Option(name = { "-o",
+            "--output" }, title = "OutputFile", arity = 1, description = "Sets the file to write the converted graph to, if this ends in .gz it is compressed")
+    @NotBlank
+    @Required
+    private String outputFile;
+
+    @Arguments(title = "InputFile", description = "Files to convert, files ending in .gz are decompressed")
+    @Required
+    private List<String> inputFiles = new ArrayList<>();
+
+    @Inject
+    private HelpOption<GraphConverter> help;
+
+    public static void main(String[] args) {
+        SingleCommand<GraphConverter> parser = SingleCommand.singleCommand(GraphConverter.class);
+        try {
+            GraphConverter converter = parser.parse(args);
+
+            // Show help if requested
+            if (converter.help.showHelpIfRequested()) {
+                System.exit(1);
+            }
+
+            converter.run();
+        } catch (ParseException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (Throwable e) {
+            e.printStackTrace(System.err);
+            System.exit(3);
+        }
+
+        // If we got here everything worked OK
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        File output = new File(this.outputFile);
+        switch (this.conversion) {
+        case Neo4j:
+            if (this.inputFiles.size() != 1)
+                throw new IllegalArgumentException("Neo4j conversion requires a single GraphML file");
+            GraphFormatConverter.convertForNeo4j(new File(this.inputFiles.get(0)), output);
+            break;
+        case GraphX:
+            if (this.inputFiles.size() != 2)
+                throw new IllegalArgumentException("GraphX conversion requires a nodes file and an edges file");
+            GraphFormatConverter.convertForGraphX(new File(this.inputFiles.get(0)), new File(this.inputFiles.get(1)),
+                    output);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown conversion " + this.conversion);
+        }
+    }
+}
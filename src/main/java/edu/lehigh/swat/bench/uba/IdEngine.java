@@ -0,0 +1,216 @@
+package edu.lehigh.swat.bench.uba;
+
+import edu.lehigh.swat.bench.uba.model.Ontology;
+
+/**
+ * Builds the names, email addresses and ids of instances for a university
+ * <p>
+ * The vast majority of ids are relative to the current department so the
+ * university and department prefixes are calculated once per department and
+ * cached, each id is then built by appending the class token and index to a
+ * reusable buffer. This means building an id allocates only the resulting
+ * string rather than the many intermediate strings that building it via
+ * concatenation would.
+ * </p>
+ * <p>
+ * Not thread safe, each {@link UniversityState} has its own engine.
+ * </p>
+ */
+public class IdEngine {
+
+    private static final String HTTP_WWW = "http://www.";
+    private static final String EDU = ".edu";
+    private static final int NO_DEPARTMENT = Integer.MIN_VALUE;
+
+    private final int univIndex;
+    private final String univName, univEmailSuffix;
+    private final StringBuilder builder = new StringBuilder(128);
+
+    private int deptIndex = NO_DEPARTMENT;
+    private String deptId, deptIdPrefix, deptEmailSuffix, deptIndexSuffix, deptNameSuffix;
+
+    /**
+     * Creates a new engine
+     *
+     * @param univIndex
+     *            University index
+     */
+    public IdEngine(int univIndex) {
+        this.univIndex = univIndex;
+        this.univName = Ontology.CLASS_TOKEN[Ontology.CS_C_UNIV] + univIndex;
+        this.univEmailSuffix = "." + this.univName + EDU;
+    }
+
+    /**
+     * Sets the current department, the cached department prefixes are only
+     * recalculated if the department has changed
+     *
+     * @param deptIndex
+     *            Department index
+     */
+    public void setDepartment(int deptIndex) {
+        if (deptIndex == this.deptIndex)
+            return;
+
+        this.deptIndex = deptIndex;
+        this.deptId = buildDepartmentId(deptIndex);
+        this.deptIdPrefix = this.deptId + Generator.ID_DELIMITER;
+        this.deptEmailSuffix = "@" + Ontology.CLASS_TOKEN[Ontology.CS_C_DEPT] + deptIndex + this.univEmailSuffix;
+        this.deptIndexSuffix = Generator.INDEX_DELIMITER + Integer.toString(deptIndex);
+        this.deptNameSuffix = this.deptIndexSuffix + Generator.INDEX_DELIMITER + this.univIndex;
+    }
+
+    /**
+     * Checks that a department has been set before building something relative
+     * to it
+     *
+     * @throws IllegalStateException
+     *             Thrown if no department has been set
+     */
+    private void checkDepartment() {
+        if (this.deptIndex == NO_DEPARTMENT)
+            throw new IllegalStateException("No department has been set");
+    }
+
+    private StringBuilder start() {
+        this.builder.setLength(0);
+        return this.builder;
+    }
+
+    private String buildDepartmentId(int deptIndex) {
+        return start().append(HTTP_WWW).append(Ontology.CLASS_TOKEN[Ontology.CS_C_DEPT]).append(deptIndex)
+                .append(this.univEmailSuffix).toString();
+    }
+
+    /**
+     * Gets the name of the specified instance that is unique within a
+     * department
+     *
+     * @param classType
+     *            Type of the instance
+     * @param index
+     *            Index of the instance within its type
+     * @return Name of the instance
+     */
+    public String getRelativeName(int classType, int index) {
+        return start().append(Ontology.CLASS_TOKEN[classType]).append(index).toString();
+    }
+
+    /**
+     * Gets the globally unique name of the specified instance
+     *
+     * @param classType
+     *            Type of the instance
+     * @param index
+     *            Index of the instance within its type
+     * @return Name of the instance
+     * @throws IllegalStateException
+     *             Thrown if the instance belongs to a department and no
+     *             department has been set
+     */
+    public String getName(int classType, int index) {
+        StringBuilder name = start().append(Ontology.CLASS_TOKEN[classType]).append(index);
+        switch (classType) {
+        case Ontology.CS_C_UNIV:
+            break;
+        case Ontology.CS_C_DEPT:
+            name.append(Generator.INDEX_DELIMITER).append(this.univIndex);
+            break;
+        // NOTE: Assume departments with the same index share the same pool of
+        // courses and researches
+        case Ontology.CS_C_COURSE:
+        case Ontology.CS_C_GRADCOURSE:
+        case Ontology.CS_C_RESEARCH:
+            checkDepartment();
+            name.append(this.deptIndexSuffix);
+            break;
+        default:
+            checkDepartment();
+            name.append(this.deptNameSuffix);
+            break;
+        }
+        return name.toString();
+    }
+
+    /**
+     * Gets the email address of the specified instance
+     *
+     * @param classType
+     *            Type of the instance
+     * @param index
+     *            Index of the instance within its type
+     * @return Email address of the instance
+     * @throws IllegalStateException
+     *             Thrown if the instance belongs to a department and no
+     *             department has been set
+     */
+    public String getEmail(int classType, int index) {
+        StringBuilder email = start().append(Ontology.CLASS_TOKEN[classType]).append(index);
+        switch (classType) {
+        case Ontology.CS_C_UNIV:
+            email.append('@').append(Ontology.CLASS_TOKEN[classType]).append(index).append(EDU);
+            break;
+        case Ontology.CS_C_DEPT:
+            email.append('@').append(Ontology.CLASS_TOKEN[classType]).append(index).append(this.univEmailSuffix);
+            break;
+        default:
+            checkDepartment();
+            email.append(this.deptEmailSuffix);
+            break;
+        }
+        return email.toString();
+    }
+
+    /**
+     * Gets the id of the specified instance
+     *
+     * @param classType
+     *            Type of the instance
+     * @param index
+     *            Index of the instance within its type
+     * @return Id of the instance
+     * @throws IllegalStateException
+     *             Thrown if the instance belongs to a department and no
+     *             department has been set
+     */
+    public String getId(int classType, int index) {
+        switch (classType) {
+        case Ontology.CS_C_UNIV:
+            return start().append(HTTP_WWW).append(Ontology.CLASS_TOKEN[classType]).append(index).append(EDU)
+                    .toString();
+        case Ontology.CS_C_DEPT:
+            return index == this.deptIndex ? this.deptId : buildDepartmentId(index);
+        default:
+            checkDepartment();
+            return start().append(this.deptIdPrefix).append(Ontology.CLASS_TOKEN[classType]).append(index)
+                    .toString();
+        }
+    }
+
+    /**
+     * Gets the id of the university a department belongs to
+     * 
+     * @param deptId
+     *            Id of the department
+     * @return Id of the university
+     */
+    public static String getUniversityId(String deptId) {
+        // Department ids are the university id with the department name
+        // inserted after the www.
+        return HTTP_WWW + deptId.substring(deptId.indexOf('.', HTTP_WWW.length()) + 1);
+    }
+
+    /**
+     * Gets the id of a publication
+     *
+     * @param author
+     *            Id of the author
+     * @param index
+     *            Index of the publication
+     * @return Id of the publication
+     */
+    public String getPublicationId(String author, int index) {
+        return start().append(author).append(Generator.ID_DELIMITER)
+                .append(Ontology.CLASS_TOKEN[Ontology.CS_C_PUBLICATION]).append(index).toString();
+    }
+}
@@ -1,5 +1,6 @@
 package edu.lehigh.swat.bench.uba;
 
+import java.io.File;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
@@ -24,8 +25,13 @@ import com.github.rvesse.airline.annotations.restrictions.ranges.IntegerRange;
 import com.github.rvesse.airline.SingleCommand;
 import com.github.rvesse.airline.parser.errors.ParseException;
 
+import edu.lehigh.swat.bench.uba.model.GenerationParameters;
 import edu.lehigh.swat.bench.uba.writers.ConsolidationMode;
+import edu.lehigh.swat.bench.uba.writers.GraphMode;
 import edu.lehigh.swat.bench.uba.writers.WriterType;
+import edu.lehigh.swat.bench.uba.writers.graphml.GraphConversion;
+import edu.lehigh.swat.bench.uba.writers.graphml.GraphFormatConverter;
+import edu.lehigh.swat.bench.uba.writers.utils.MemoryBudget;
 
 //@formatter:off
 @Command(name = "generate.sh", description = "Artificial Data Generator for the Lehigh University Benchmark (LUBM) for SPARQL query engines")
@@ -42,7 +48,7 @@ public class Launcher {
     /** name of the log file */
     private static final String DEFAULT_LOG_FILE = "log.txt";
 
-    private static final String DEFAULT_ONTOLOGY_URL = "http://www.lehigh.edu/~zhp2/2004/0401/univ-bench.owl";
+    public static final String DEFAULT_ONTOLOGY_URL = "http://www.lehigh.edu/~zhp2/2004/0401/univ-bench.owl";
 
     private static final long DEFAULT_TIMEOUT = 180;
 
@@ -62,7 +68,7 @@ public class Launcher {
 
     @Option(name = { "-f",
             "--format" }, title = "OutputFormat", arity = 1, description = "Sets the desired output format (default OWL)")
-    @AllowedRawValues(allowedValues = { "OWL", "DAML", "NTRIPLES", "TURTLE", "GRAPHML", "GRAPHML_NODESFIRST", "NEO4J_GRAPHML", "JSON" })
+    @AllowedRawValues(allowedValues = { "OWL", "DAML", "NTRIPLES", "TURTLE", "TURTLE_COMPACT", "NQUADS", "TRIG", "BINARY_RDF", "HDT", "ID_TRIPLES", "VERTICAL_PARTITIONS", "GRAPHML", "GRAPHML_NODESFIRST", "NEO4J_GRAPHML", "NEO4J_CSV", "JSON", "JSON_LINES" })
     private WriterType format = WriterType.OWL;
 
     @Option(name = { "--onto",
@@ -87,18 +93,68 @@ public class Launcher {
     private String logPattern = null;
 
     @Option(name = { "-t",
-            "--threads" }, title = "NumThreads", arity = 1, description = "Sets the number of threads to use for data generation (default 1) which can speed up generating data for larger numbers of universities")
-    @IntegerRange(min = 1, max = 128)
+            "--threads" }, title = "NumThreads", arity = 1, description = "Sets the number of threads to use for data generation (default 1) which can speed up generating data for larger numbers of universities, at most "
+                    + Generator.MAX_THREADS + " threads may be used unless --virtual-threads is set")
+    @IntegerRange(min = 1, max = Generator.MAX_VIRTUAL_THREADS)
     private int threads = 1;
 
+    @Option(name = {
+            "--virtual-threads" }, description = "When set data generation and write consolidation run on virtual threads, these are not tied up while blocked on file and compression I/O so many more threads (up to "
+                    + Generator.MAX_VIRTUAL_THREADS + " rather than " + Generator.MAX_THREADS
+                    + ") may be used with --threads to generate many universities concurrently.  Requires running on Java 21 or later")
+    private boolean virtualThreads = false;
+
+    @Option(name = {
+            "--split-seeds" }, description = "When set each department is generated from its own seed derived from the seed, university and department index.  This allows the departments of a university to be generated in parallel which can substantially speed up generating data for small numbers of universities, however the data generated differs from that generated without this option")
+    private boolean splitSeeds = false;
+
+    @Option(name = {
+            "--schedule" }, title = "ScheduleMode", arity = 1, description = "Sets how the generation of universities is scheduled across threads (default InOrder).  InOrder generates universities in index order while LargestFirst estimates the cost of each university from its number of departments and generates the largest first using a work stealing thread pool, which reduces the time spent waiting for the last few universities at the end of large runs.  With --parallel-departments idle threads may also steal departments from other universities")
+    @AllowedRawValues(allowedValues = { "InOrder", "LargestFirst" })
+    private ScheduleMode schedule = ScheduleMode.InOrder;
+
+    @Option(name = {
+            "--random" }, title = "RandomType", arity = 1, description = "Sets the random number generator used for data generation (default Legacy).  Legacy generates exactly the same data as the original generator while Fast uses a faster splittable generator that derives an independent random stream for each university and department directly from the seed, this allows any university to be generated without generating those before it but generates different data to Legacy")
+    @AllowedRawValues(allowedValues = { "Legacy", "Fast" })
+    private RandomSourceType random = RandomSourceType.Legacy;
+
+    @Option(name = {
+            "--parallel-departments" }, description = "When set the departments of each university are generated in parallel while still generating exactly the same data as generating them sequentially.  This is achieved by a fast pre-pass over each university that calculates the random state at the start of each department, this can substantially speed up generating data for small numbers of universities.  This is implied by --split-seeds")
+    private boolean parallelDepartments = false;
+
+    @Option(name = {
+            "--department" }, title = "DepartmentIndex", arity = 1, description = "When set only the department with the given index is generated for each university, the data generated is exactly the same as that generated for that department when generating the whole university.  This is useful for regenerating individual departments e.g. to re-run failed shards.  Requires --consolidate None")
+    @IntegerRange(min = 0, max = GenerationParameters.DEPT_MAX - 1)
+    private int department = -1;
+
     @Option(name = { "--compress" }, description = "When set output files are automatically compressed with GZip")
     private boolean compress = false;
 
+    @Option(name = {
+            "--max-buffer-memory" }, title = "Size", arity = 1, description = "Sets the maximum amount of memory that in-memory output buffers may use in total e.g. 512m or 2g (default unlimited).  When the budget is exhausted buffers that can be written out early are flushed early, while the buffers of departments generated in parallel are spilled to temporary files in the output directory, giving bounded and predictable memory usage")
+    @NotBlank
+    private String maxBufferMemory = null;
+
     @Option(name = {
             "--consolidate" }, arity = 1, description = "When set controls how many data files are generated and what data is placed into each file.  This defaults to None which produces one file per university department, Partial produces one file per university and Full produces a file per thread.  Maximal produces as few as files as possible, the exact number of files produced will depend on the target output format.")
     @AllowedRawValues(allowedValues = { "None", "Partial", "Full", "Maximal" })
     private ConsolidationMode consolidate = ConsolidationMode.None;
 
+    @Option(name = {
+            "--graphs" }, title = "GraphMode", arity = 1, description = "Sets how triples are placed into named graphs by the NQUADS and TRIG formats (default University).  University places each university and its departments in a graph named by the university URI while Department places each department in a graph named by the department URI.  The ontology declaration is always placed in the default graph")
+    @AllowedRawValues(allowedValues = { "University", "Department" })
+    private GraphMode graphs = GraphMode.University;
+
+    @Option(name = {
+            "--convert" }, title = "Conversion", arity = 1, description = "When set the generated property graph is converted once generation completes, replacing the generated files.  Neo4j requires --format GRAPHML and reorders the graph so that all nodes precede all edges while GraphX requires --format JSON and combines the nodes and edges files into a single JSON document")
+    @AllowedRawValues(allowedValues = { "Neo4j", "GraphX" })
+    private GraphConversion convert = null;
+
+    @Option(name = {
+            "--stats" }, title = "StatsFile", arity = 1, description = "When set a machine readable JSON report of the number of departments, class instances and property instances generated, both in total and for each university, is written to the given file once generation completes")
+    @NotBlank
+    private String statsFile = null;
+
     @Option(name = {
             "--timing" }, description = "When set outputs the elapsed time at the end of the generation process")
     private boolean timing = false;
@@ -125,6 +181,9 @@ public class Launcher {
                 System.exit(1);
             }
 
+            // Check argument combinations the option restrictions can't
+            launcher.validate();
+
             // Configure logging
             BasicConfigurator.configure();
             Logger.getRootLogger().removeAllAppenders();
@@ -145,9 +204,20 @@ public class Launcher {
             long start = System.currentTimeMillis();
             generator.start(launcher.univNum, launcher.startIndex, launcher.seed, launcher.format, launcher.ontology,
                     launcher.workDir, launcher.consolidate, launcher.compress, launcher.threads, launcher.timeout,
-                    TimeUnit.MINUTES, launcher.quiet);
+                    TimeUnit.MINUTES, launcher.quiet, launcher.splitSeeds,
+                    launcher.parallelDepartments, launcher.department, launcher.random,
+                    launcher.schedule, launcher.virtualThreads, launcher.maxBufferMemory != null
+                            ? MemoryBudget.parseSize(launcher.maxBufferMemory) : 0,
+                    launcher.graphs, launcher.statsFile);
             long elapsed = System.currentTimeMillis() - start;
 
+            if (launcher.convert != null) {
+                File converted = GraphFormatConverter.convertOutput(launcher.convert,
+                        new File(launcher.workDir != null ? launcher.workDir : ".").getAbsoluteFile(),
+                        launcher.compress);
+                System.out.println("Converted to " + converted);
+            }
+
             if (launcher.timing) {
                 Duration duration = Duration.millis(elapsed);
                 System.out.print("Took ");
@@ -160,6 +230,9 @@ public class Launcher {
         } catch (ParseException e) {
             System.err.println(e.getMessage());
             System.exit(2);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
         } catch (Throwable e) {
             e.printStackTrace(System.err);
             System.exit(3);
@@ -168,4 +241,28 @@ public class Launcher {
         // If we got here everything worked OK
         System.exit(0);
     }
+
+    /**
+     * Validates combinations of arguments before any logging is configured or
+     * data generated
+     * 
+     * @throws IllegalArgumentException
+     *             Thrown if the arguments are invalid
+     */
+    private void validate() {
+        if (this.virtualThreads && !ThreadPools.supportsVirtualThreads()) {
+            throw new IllegalArgumentException("--virtual-threads requires running on Java 21 or later");
+        }
+        if (!this.virtualThreads && this.threads > Generator.MAX_THREADS) {
+            throw new IllegalArgumentException(String.format(
+                    "At most %d threads may be used unless --virtual-threads is set", Generator.MAX_THREADS));
+        }
+        if (this.department >= 0 && this.consolidate != ConsolidationMode.None) {
+            throw new IllegalArgumentException("--department requires --consolidate None");
+        }
+        if (this.convert != null && this.convert.getInputType() != this.format) {
+            throw new IllegalArgumentException(
+                    String.format("%s conversion requires --format %s", this.convert, this.convert.getInputType()));
+        }
+    }
 }
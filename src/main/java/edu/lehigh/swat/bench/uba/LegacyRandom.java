@@ -0,0 +1,95 @@
+package edu.lehigh.swat.bench.uba;
+
+import java.util.Random;
+
+/**
+ * A random number generator that produces exactly the same sequence of
+ * numbers as {@link Random}
+ * <p>
+ * This implements the same linear congruential generator as {@link Random}
+ * but exposes its internal state so that it may be checkpointed and later
+ * resumed, this is what allows the departments of a university to be
+ * generated in parallel while still producing identical data. Unlike
+ * {@link Random} it is not thread safe, which avoids the cost of updating the
+ * seed atomically on every call since each instance is only ever used by a
+ * single thread.
+ * </p>
+ */
+public class LegacyRandom implements RandomSource {
+
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private final long seed;
+    private long state;
+
+    /**
+     * Creates a new generator
+     *
+     * @param seed
+     *            Seed, produces the same sequence as
+     *            {@link Random#Random(long)} given the same seed
+     */
+    public LegacyRandom(long seed) {
+        this.seed = seed;
+        this.state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    public long getSeed() {
+        return this.seed;
+    }
+
+    @Override
+    public long getState() {
+        return this.state;
+    }
+
+    @Override
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    private int next(int bits) {
+        this.state = (this.state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (this.state >>> (48 - bits));
+    }
+
+    /**
+     * Returns a random integer between zero (inclusive) and the given bound
+     * (exclusive), see {@link Random#nextInt(int)}
+     *
+     * @param bound
+     *            Bound, must be positive
+     * @return Random integer
+     */
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0)
+            throw new IllegalArgumentException("bound must be positive");
+
+        int r = next(31);
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            // Power of two
+            return (int) ((bound * (long) r) >> 31);
+        }
+        for (int u = r; u - (r = u % bound) + m < 0; u = next(31))
+            ;
+        return r;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The seed of this source and the key are mixed using the SplitMix64
+     * finalizer so that sources split from neighbouring keys (and seeds) do
+     * not produce correlated random number streams.
+     * </p>
+     */
+    @Override
+    public RandomSource split(int key) {
+        return new LegacyRandom(SplitMixRandom.splitSeed(this.seed, key));
+    }
+}
@@ -0,0 +1,62 @@
+package edu.lehigh.swat.bench.uba;
+
+/**
+ * A source of random numbers used for data generation
+ * <p>
+ * Implementations need not be thread safe since each source is only ever used
+ * by a single thread. The state of a source can be captured and restored which
+ * allows generation to be resumed part way through a university, see
+ * {@link DepartmentCheckpoints}, and sources can be split to derive
+ * independent sources for each department of a university.
+ * </p>
+ */
+public interface RandomSource {
+
+    /**
+     * Gets the seed this source was created from
+     *
+     * @return Seed
+     */
+    public long getSeed();
+
+    /**
+     * Gets the current state of the source
+     *
+     * @return State
+     */
+    public long getState();
+
+    /**
+     * Sets the current state of the source, this should be a state previously
+     * obtained from {@link #getState()} of a source of the same type created
+     * from the same seed
+     *
+     * @param state
+     *            State
+     */
+    public void setState(long state);
+
+    /**
+     * Returns a random integer between zero (inclusive) and the given bound
+     * (exclusive)
+     *
+     * @param bound
+     *            Bound, must be positive
+     * @return Random integer
+     */
+    public int nextInt(int bound);
+
+    /**
+     * Derives a new independent source from the seed of this source and the
+     * given key
+     * <p>
+     * This is calculated in constant time purely from the seed of this source,
+     * it does not depend upon or change the current state of this source.
+     * </p>
+     *
+     * @param key
+     *            Key e.g. a university or department index
+     * @return New source
+     */
+    public RandomSource split(int key);
+}
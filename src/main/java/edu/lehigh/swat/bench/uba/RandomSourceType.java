@@ -0,0 +1,20 @@
+package edu.lehigh.swat.bench.uba;
+
+/**
+ * Possible random number generators used for data generation
+ *
+ */
+public enum RandomSourceType {
+    /**
+     * Legacy generator, generates exactly the same data as the original UBA
+     * generator
+     */
+    Legacy,
+    /**
+     * Fast splittable generator, each university is generated from its own
+     * independent stream derived directly from the seed and university index
+     * which allows any university to be generated without generating those
+     * before it, generates different data to the legacy generator
+     */
+    Fast
+}
@@ -0,0 +1,20 @@
+package edu.lehigh.swat.bench.uba;
+
+/**
+ * Possible modes for scheduling the generation of universities
+ *
+ */
+public enum ScheduleMode {
+    /**
+     * Universities are generated in index order on a fixed size thread pool
+     */
+    InOrder,
+    /**
+     * The cost of each university is estimated from its number of departments
+     * and the largest universities are generated first on a work stealing
+     * thread pool, when departments are generated in parallel idle threads may
+     * steal departments from other universities. This reduces the time spent
+     * waiting on the last few large universities at the end of a run.
+     */
+    LargestFirst
+}
@@ -0,0 +1,98 @@
+package edu.lehigh.swat.bench.uba;
+
+/**
+ * A fast splittable random number generator based on the SplitMix64 algorithm
+ * <p>
+ * This is the same algorithm that underlies {@code SplittableRandom} in newer
+ * JDKs, the state is a single 64 bit counter that is advanced by a fixed odd
+ * increment and then mixed to produce each number. This makes generating
+ * numbers very cheap and means independent sources can be derived for any
+ * university or department in constant time, so generating a university does
+ * not depend on anything generated before it.
+ * </p>
+ */
+public class SplitMixRandom implements RandomSource {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+    private long state;
+
+    /**
+     * Creates a new generator
+     *
+     * @param seed
+     *            Seed
+     */
+    public SplitMixRandom(long seed) {
+        this.seed = seed;
+        this.state = seed;
+    }
+
+    /**
+     * Mixes the bits of a value using the SplitMix64 finalizer
+     *
+     * @param z
+     *            Value
+     * @return Mixed value
+     */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Derives a seed from a seed and a key, used when splitting sources
+     *
+     * @param seed
+     *            Seed
+     * @param key
+     *            Key
+     * @return Derived seed
+     */
+    public static long splitSeed(long seed, int key) {
+        return mix64(seed + (key + 1) * GOLDEN_GAMMA);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62A9D9ED799705F5L;
+        return (int) (((z ^ (z >>> 28)) * 0xCB24D0A5C88C35B3L) >>> 32);
+    }
+
+    @Override
+    public long getSeed() {
+        return this.seed;
+    }
+
+    @Override
+    public long getState() {
+        return this.state;
+    }
+
+    @Override
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0)
+            throw new IllegalArgumentException("bound must be positive");
+
+        int r = mix32(this.state += GOLDEN_GAMMA);
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            // Power of two
+            return r & m;
+        }
+        for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = mix32(this.state += GOLDEN_GAMMA) >>> 1)
+            ;
+        return r;
+    }
+
+    @Override
+    public RandomSource split(int key) {
+        return new SplitMixRandom(splitSeed(this.seed, key));
+    }
+}
@@ -0,0 +1,43 @@
+package edu.lehigh.swat.bench.uba;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the thread pools used for data generation
+ * <p>
+ * This is the Java 7 implementation which only supports platform threads,
+ * when running on Java 21 or later the multi-release JAR provides an
+ * alternative implementation of this class that can also create pools of
+ * virtual threads.
+ * </p>
+ */
+public class ThreadPools {
+
+    private ThreadPools() {
+    }
+
+    /**
+     * Gets whether virtual threads are supported by the running JVM
+     * 
+     * @return True if virtual threads are supported
+     */
+    public static boolean supportsVirtualThreads() {
+        return false;
+    }
+
+    /**
+     * Creates a fixed size thread pool
+     * 
+     * @param threads
+     *            Number of threads
+     * @param virtual
+     *            Whether to use virtual threads
+     * @return Thread pool
+     */
+    public static ExecutorService newFixedThreadPool(int threads, boolean virtual) {
+        if (virtual)
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        return threads <= 1 ? Executors.newSingleThreadExecutor() : Executors.newFixedThreadPool(threads);
+    }
+}
@@ -3,6 +3,9 @@ package edu.lehigh.swat.bench.uba;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
@@ -15,6 +18,7 @@ import edu.lehigh.swat.bench.uba.model.PublicationInfo;
 import edu.lehigh.swat.bench.uba.model.RaInfo;
 import edu.lehigh.swat.bench.uba.model.TaInfo;
 import edu.lehigh.swat.bench.uba.writers.ConsolidationMode;
+import edu.lehigh.swat.bench.uba.writers.WriterFragment;
 
 class UniversityGenerator implements Runnable {
     private static final Logger LOGGER = LoggerFactory.getLogger(UniversityGenerator.class);
@@ -61,12 +65,153 @@ class UniversityGenerator implements Runnable {
         univState.getInstances()[Ontology.CS_C_DEPT].num = univState.getRandomFromRange(GenerationParameters.DEPT_MIN,
                 GenerationParameters.DEPT_MAX);
         univState.getInstances()[Ontology.CS_C_DEPT].count = 0;
+        if (univState.getGlobalState().getDepartment() >= 0) {
+            _generateSingleDept(univState, univState.getGlobalState().getDepartment());
+            return;
+        } else if (univState.getGlobalState().parallelDepartments()) {
+            _generateDeptsInParallel(univState);
+            return;
+        }
         // generate departments
         for (int i = 0; i < univState.getInstances()[Ontology.CS_C_DEPT].num; i++) {
             _generateDept(univState, i);
         }
     }
 
+    /**
+     * Calculates the department checkpoints for a university, unless each
+     * department has its own seed in which case none are needed.
+     * 
+     * @return Checkpoints, or {@code null} if departments have their own seeds
+     */
+    private DepartmentCheckpoints _checkpoints(UniversityState univState) {
+        if (univState.getGlobalState().splitSeeds())
+            return null;
+
+        DepartmentCheckpoints checkpoints = new DepartmentCheckpoints(
+                univState.getGlobalState().createRandomSource(univState.getUniversityIndex()));
+        if (checkpoints.getDepartmentCount() != univState.getInstances()[Ontology.CS_C_DEPT].num
+                || checkpoints.getState(0) != univState.getRandomState()) {
+            throw new IllegalStateException(
+                    String.format("Department checkpoints for University %d do not match its random state",
+                            univState.getUniversityIndex()));
+        }
+        return checkpoints;
+    }
+
+    /**
+     * Creates the state for generating a single department independently of
+     * the other departments of its university.
+     * 
+     * @param index
+     *            Index of the department.
+     * @param checkpoints
+     *            Checkpoints, {@code null} if departments have their own seeds
+     */
+    private UniversityState _deptState(UniversityState univState, int index, DepartmentCheckpoints checkpoints) {
+        return checkpoints != null ? univState.forDepartment(index, checkpoints) : univState.forDepartment(index);
+    }
+
+    /**
+     * Creates a single department of a university, used to regenerate an
+     * individual department without generating the rest of its university.
+     * 
+     * @param index
+     *            Index of the department.
+     */
+    private void _generateSingleDept(UniversityState univState, int index) {
+        int num = univState.getInstances()[Ontology.CS_C_DEPT].num;
+        if (index >= num) {
+            LOGGER.warn("University {} only has {} departments so department {} was not generated",
+                    univState.getUniversityIndex(), num, index);
+            return;
+        }
+
+        DepartmentCheckpoints checkpoints = _checkpoints(univState);
+        new DepartmentGenerator(this, _deptState(univState, index, checkpoints), index, num, null, checkpoints)
+                .call();
+    }
+
+    /**
+     * Creates the departments of a university in parallel.
+     * <p>
+     * Each department is generated from its own state by a
+     * {@link DepartmentGenerator}, the resulting fragments are then spliced
+     * into the university's output in department order. Department states
+     * either resume from the {@link DepartmentCheckpoints} of the university,
+     * producing identical data to sequential generation, or when
+     * {@link GlobalState#splitSeeds()} is enabled use their own seeds.
+     * </p>
+     */
+    private void _generateDeptsInParallel(UniversityState univState) {
+        GlobalState state = univState.getGlobalState();
+        int num = univState.getInstances()[Ontology.CS_C_DEPT].num;
+        DepartmentCheckpoints checkpoints = _checkpoints(univState);
+
+        // None consolidation generates a file per department so departments
+        // can write their files directly, otherwise we need to start the
+        // university file that the fragments will be appended to
+        String filename = null;
+        if (state.consolidationMode() != ConsolidationMode.None) {
+            filename = univState.getFilename(0);
+            univState.getWriter().startFile(filename, state);
+        }
+
+        List<Future<WriterFragment>> departments = new ArrayList<Future<WriterFragment>>();
+        for (int i = 0; i < num; i++) {
+            DepartmentGenerator deptGen = new DepartmentGenerator(this, _deptState(univState, i, checkpoints), i, num,
+                    filename, checkpoints);
+            departments.add(state.submitDepartment(deptGen));
+        }
+
+        boolean completed = false;
+        try {
+            for (int i = 0; i < num; i++) {
+                WriterFragment fragment = departments.get(i).get();
+                if (fragment != null) {
+                    univState.getWriter().appendFragment(state, fragment);
+                    fragment.discard();
+                }
+            }
+            completed = true;
+        } catch (InterruptedException e) {
+            throw new RuntimeException(String.format("Interrupted while generating departments of University %d",
+                    univState.getUniversityIndex()), e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(String.format("Error generating departments of University %d",
+                    univState.getUniversityIndex()), e.getCause());
+        } finally {
+            if (!completed) {
+                // Don't waste effort on the remaining departments and discard
+                // those already generated to release their buffers
+                for (Future<WriterFragment> department : departments) {
+                    if (!department.cancel(true)) {
+                        _discardFragment(department);
+                    }
+                }
+            }
+        }
+
+        if (filename != null) {
+            _endFile(univState, filename);
+        }
+    }
+
+    /**
+     * Discards the fragment of a department that has finished generating, if
+     * any.
+     */
+    private void _discardFragment(Future<WriterFragment> department) {
+        try {
+            WriterFragment fragment = department.get();
+            if (fragment != null) {
+                fragment.discard();
+            }
+        } catch (Throwable e) {
+            // Department failed so has no fragment to discard
+        }
+    }
+
     /**
      * Creates a department.
      * 
@@ -85,6 +230,48 @@ class UniversityGenerator implements Runnable {
             univState.getWriter().startFile(filename, univState.getGlobalState());
         }
 
+        _generateDeptContent(univState, index);
+        _logDept(univState, filename);
+
+        // End the file if we aren't consolidating or this is the last file for
+        // the university
+        if (univState.getGlobalState().consolidationMode() == ConsolidationMode.None
+                || index == univState.getInstances()[Ontology.CS_C_DEPT].num - 1) {
+            _endFile(univState, filename);
+        }
+    }
+
+    /**
+     * Creates a department as a fragment of its university's output, used
+     * when the departments of a university are generated in parallel.
+     * 
+     * @param index
+     *            Index of the department.
+     * @param filename
+     *            File the fragment will be appended to, {@code null} if the
+     *            department should be written to its own file
+     * @return Fragment, or {@code null} if the department was written to its
+     *         own file
+     */
+    WriterFragment _generateDeptFragment(UniversityState univState, int index, String filename) {
+        if (filename == null) {
+            _generateDept(univState, index);
+            return null;
+        }
+
+        univState.getWriter().startFragment(univState.getGlobalState(), index > 0);
+        _generateDeptContent(univState, index);
+        _logDept(univState, filename);
+        return univState.getWriter().endFragment(univState.getGlobalState());
+    }
+
+    /**
+     * Creates the content of a department.
+     * 
+     * @param index
+     *            Index of the department.
+     */
+    private void _generateDeptContent(UniversityState univState, int index) {
         // reset
         univState.reset();
 
@@ -102,7 +289,15 @@ class UniversityGenerator implements Runnable {
         _generatePublications(univState);
         _generateCourses(univState);
         _generateRaTa(univState);
+    }
 
+    /**
+     * Outputs log information after a department is generated.
+     * 
+     * @param filename
+     *            File the department was written to.
+     */
+    private void _logDept(UniversityState univState, String filename) {
         if (univState.getGlobalState().consolidationMode() != ConsolidationMode.None) {
             // Consolidating output so file is not yet complete
             if (!univState.getGlobalState().isQuietMode())
@@ -114,23 +309,28 @@ class UniversityGenerator implements Runnable {
         Generator.LOGGER.info(bar);
         Generator.LOGGER.info(filename);
         Generator.LOGGER.info(bar);
+        univState.getGlobalState().getStatistics().recordDepartment(univState.getUniversityIndex(),
+                univState.getInstances(), univState.getProperties());
         _generateComments(univState);
+    }
 
-        // End the file if we aren't consolidating or this is the last file for
-        // the university
-        if (univState.getGlobalState().consolidationMode() == ConsolidationMode.None
-                || index == univState.getInstances()[Ontology.CS_C_DEPT].num - 1) {
-            if (univState.getGlobalState().consolidationMode() != ConsolidationMode.Full) {
-                // None or Partial consolidation, we are done with this file
-                univState.getWriter().endFile(univState.getGlobalState());
-                System.out.println(filename + " generated");
-            } else {
-                // Full Consolidation so output file is not yet complete
-                // However we should flush what we have generated to reduce our memory usage
-                univState.getWriter().flushFile(univState.getGlobalState());
-                System.out.println(filename + " (University " + univState.getUniversityIndex() + ") in progress...");
-            }
-
+    /**
+     * Ends the current file, or just flushes it if it is shared with other
+     * universities.
+     * 
+     * @param filename
+     *            Current file.
+     */
+    private void _endFile(UniversityState univState, String filename) {
+        if (univState.getGlobalState().consolidationMode() != ConsolidationMode.Full) {
+            // None or Partial consolidation, we are done with this file
+            univState.getWriter().endFile(univState.getGlobalState());
+            System.out.println(filename + " generated");
+        } else {
+            // Full Consolidation so output file is not yet complete
+            // However we should flush what we have generated to reduce our memory usage
+            univState.getWriter().flushFile(univState.getGlobalState());
+            System.out.println(filename + " (University " + univState.getUniversityIndex() + ") in progress...");
         }
     }
 
@@ -267,12 +467,9 @@ class UniversityGenerator implements Runnable {
                     univState.getId(Ontology.CS_C_GRADCOURSE, courseIndex), true);
         }
         // person properties
-        univState.getWriter().addProperty(Ontology.CS_P_UNDERGRADFROM, Ontology.CS_C_UNIV,
-                univState.getId(Ontology.CS_C_UNIV, univState.getRandom(GenerationParameters.UNIV_NUM)));
-        univState.getWriter().addProperty(Ontology.CS_P_GRADFROM, Ontology.CS_C_UNIV,
-                univState.getId(Ontology.CS_C_UNIV, univState.getRandom(GenerationParameters.UNIV_NUM)));
-        univState.getWriter().addProperty(Ontology.CS_P_DOCFROM, Ontology.CS_C_UNIV,
-                univState.getId(Ontology.CS_C_UNIV, univState.getRandom(GenerationParameters.UNIV_NUM)));
+        _generateDegreeFrom(univState, Ontology.CS_P_UNDERGRADFROM);
+        _generateDegreeFrom(univState, Ontology.CS_P_GRADFROM);
+        _generateDegreeFrom(univState, Ontology.CS_P_DOCFROM);
         univState.getWriter().addProperty(Ontology.CS_P_WORKSFOR,
                 univState.getId(Ontology.CS_C_DEPT, univState.getInstances()[Ontology.CS_C_DEPT].count - 1), true);
         univState.getWriter().addProperty(Ontology.CS_P_EMAIL, univState.getEmail(type, index), false);
@@ -287,21 +484,16 @@ class UniversityGenerator implements Runnable {
      * @return Index of the selected course in the pool.
      */
     private int _AssignCourse(UniversityState univState, int indexInFaculty) {
-        // NOTE: this line, although overriden by the next one, is
-        // deliberately
-        // kept
+        // NOTE: this random number, although unused, is deliberately drawn
         // to guarantee identical random number generation to the previous
         // version.
-        int pos = univState.getRandomFromRange(0, univState.getRemainingUndergradCourses().size() - 1);
-        pos = 0; // fetch courses in sequence
+        univState.getRandomFromRange(0, univState.getRemainingUndergradCourses() - 1);
 
         CourseInfo course = new CourseInfo();
         course.indexInFaculty = indexInFaculty;
-        course.globalIndex = univState.getRemainingUndergradCourses().get(pos).intValue();
+        course.globalIndex = univState.nextUndergradCourse(); // fetch courses in sequence
         univState.getUndergradCourses().add(course);
 
-        univState.getRemainingUndergradCourses().remove(pos);
-
         return course.globalIndex;
     }
 
@@ -313,21 +505,16 @@ class UniversityGenerator implements Runnable {
      * @return Index of the selected course in the pool.
      */
     private int _AssignGraduateCourse(UniversityState univState, int indexInFaculty) {
-        // NOTE: this line, although overriden by the next one, is
-        // deliberately
-        // kept
+        // NOTE: this random number, although unused, is deliberately drawn
         // to guarantee identical random number generation to the previous
         // version.
-        int pos = univState.getRandomFromRange(0, univState.getRemainingGradCourses().size() - 1);
-        pos = 0; // fetch courses in sequence
+        univState.getRandomFromRange(0, univState.getRemainingGradCourses() - 1);
 
         CourseInfo course = new CourseInfo();
         course.indexInFaculty = indexInFaculty;
-        course.globalIndex = ((Integer) univState.getRemainingGradCourses().get(pos)).intValue();
+        course.globalIndex = univState.nextGradCourse(); // fetch courses in sequence
         univState.getGradCourses().add(course);
 
-        univState.getRemainingGradCourses().remove(pos);
-
         return course.globalIndex;
     }
 
@@ -463,9 +650,9 @@ class UniversityGenerator implements Runnable {
         PublicationInfo publication;
 
         num = univState.getRandomFromRange(min, max);
-        ArrayList<Integer> list = univState.getRandomList(num, 0, univState.getPublications().size() - 1);
-        for (int i = 0; i < list.size(); i++) {
-            publication = (PublicationInfo) univState.getPublications().get(list.get(i).intValue());
+        int[] list = univState.getRandomList(num, 0, univState.getPublications().size() - 1);
+        for (int i = 0; i < list.length; i++) {
+            publication = (PublicationInfo) univState.getPublications().get(list[i]);
             publication.authors.add(author);
         }
     }
@@ -520,15 +707,15 @@ class UniversityGenerator implements Runnable {
      */
     private void _generateAnUndergraduateStudent(UniversityState univState, int index) {
         int n;
-        ArrayList<Integer> list;
+        int[] list;
 
         univState.getWriter().startSection(Ontology.CS_C_UNDERSTUD, univState.getId(Ontology.CS_C_UNDERSTUD, index));
         _generateAStudent_a(univState, Ontology.CS_C_UNDERSTUD, index);
         n = univState.getRandomFromRange(GenerationParameters.UNDERSTUD_COURSE_MIN,
                 GenerationParameters.UNDERSTUD_COURSE_MAX);
         list = univState.getRandomList(n, 0, univState.getUndergradCourses().size() - 1);
-        for (int i = 0; i < list.size(); i++) {
-            CourseInfo info = (CourseInfo) univState.getUndergradCourses().get(list.get(i).intValue());
+        for (int i = 0; i < list.length; i++) {
+            CourseInfo info = (CourseInfo) univState.getUndergradCourses().get(list[i]);
             univState.getWriter().addProperty(Ontology.CS_P_TAKECOURSE,
                     univState.getId(Ontology.CS_C_COURSE, info.globalIndex), true);
         }
@@ -546,7 +733,7 @@ class UniversityGenerator implements Runnable {
      */
     private void _generateAGradudateStudent(UniversityState univState, int index) {
         int n;
-        ArrayList<Integer> list;
+        int[] list;
         String id;
 
         id = univState.getId(Ontology.CS_C_GRADSTUD, index);
@@ -555,13 +742,12 @@ class UniversityGenerator implements Runnable {
         n = univState.getRandomFromRange(GenerationParameters.GRADSTUD_COURSE_MIN,
                 GenerationParameters.GRADSTUD_COURSE_MAX);
         list = univState.getRandomList(n, 0, univState.getGradCourses().size() - 1);
-        for (int i = 0; i < list.size(); i++) {
-            CourseInfo info = (CourseInfo) univState.getGradCourses().get(list.get(i).intValue());
+        for (int i = 0; i < list.length; i++) {
+            CourseInfo info = (CourseInfo) univState.getGradCourses().get(list[i]);
             univState.getWriter().addProperty(Ontology.CS_P_TAKECOURSE,
                     univState.getId(Ontology.CS_C_GRADCOURSE, info.globalIndex), true);
         }
-        univState.getWriter().addProperty(Ontology.CS_P_UNDERGRADFROM, Ontology.CS_C_UNIV,
-                univState.getId(Ontology.CS_C_UNIV, univState.getRandom(GenerationParameters.UNIV_NUM)));
+        _generateDegreeFrom(univState, Ontology.CS_P_UNDERGRADFROM);
         if (0 == univState.getRandom(GenerationParameters.R_GRADSTUD_ADVISOR)) {
             univState.getWriter().addProperty(Ontology.CS_P_ADVISOR, _selectAdvisor(univState), true);
         }
@@ -570,6 +756,19 @@ class UniversityGenerator implements Runnable {
         univState.getWriter().endSection(Ontology.CS_C_GRADSTUD);
     }
 
+    /**
+     * Generates a degree property whose value is a randomly selected
+     * university.
+     *
+     * @param property
+     *            Type of the degree property.
+     */
+    private void _generateDegreeFrom(UniversityState univState, int property) {
+        int univIndex = univState.getRandom(GenerationParameters.UNIV_NUM);
+        univState.getWriter().addUniversityProperty(property, univIndex,
+                univState.getId(Ontology.CS_C_UNIV, univIndex));
+    }
+
     /**
      * Select an advisor from the professors.
      * 
@@ -654,7 +853,7 @@ class UniversityGenerator implements Runnable {
      * accordingly.
      */
     private void _generateRaTa(UniversityState univState) {
-        ArrayList<Integer> list, courseList;
+        int[] list, courseList;
         TaInfo ta;
         RaInfo ra;
         int i;
@@ -667,14 +866,14 @@ class UniversityGenerator implements Runnable {
 
         for (i = 0; i < univState.getInstances()[Ontology.CS_C_TA].total; i++) {
             ta = new TaInfo();
-            ta.indexInGradStud = list.get(i).intValue();
+            ta.indexInGradStud = list[i];
             ta.indexInCourse = ((CourseInfo) univState.getUndergradCourses()
-                    .get(courseList.get(i).intValue())).globalIndex;
+                    .get(courseList[i])).globalIndex;
             _generateATa(univState, ta);
         }
-        while (i < list.size()) {
+        while (i < list.length) {
             ra = new RaInfo();
-            ra.indexInGradStud = list.get(i).intValue();
+            ra.indexInGradStud = list[i];
             _generateAnRa(univState, ra);
             i++;
         }
@@ -718,46 +917,34 @@ class UniversityGenerator implements Runnable {
     /**
      * Outputs log information to both the log file and the screen after a
      * department is generated.
+     * <p>
+     * Only the counts for the department itself are logged, totals are
+     * available from the statistics report once generation completes.
+     * </p>
      */
     private void _generateComments(UniversityState univState) {
         int classInstNum = 0; // total class instance num in this department
-        long totalClassInstNum = 0l; // total class instance num so far
         int propInstNum = 0; // total property instance num in this
                              // department
-        long totalPropInstNum = 0l; // total property instance num so far
 
         Generator.LOGGER.debug("External Seed={} Interal Seed={}", univState.getGlobalState().getBaseSeed(),
                 univState.getSeed());
 
-        Generator.LOGGER.info("CLASS INSTANCE# (TOTAL-SO-FAR)");
-        Generator.LOGGER.info("----------------------------");
         for (int i = 0; i < Ontology.CLASS_NUM; i++) {
-            Generator.LOGGER.debug("{} {} ({})", Ontology.CLASS_TOKEN[i], univState.getInstances()[i].logNum,
-                    univState.getGlobalState().getTotalInstances(i));
             classInstNum += univState.getInstances()[i].logNum;
-            totalClassInstNum += univState.getGlobalState().getTotalInstances(i);
         }
+        Generator.LOGGER.info("CLASS INSTANCE #: {}", classInstNum);
 
-        Generator.LOGGER.info("TOTAL: {}", classInstNum);
-        Generator.LOGGER.info("TOTAL SO FAR: {}", totalClassInstNum);
-
-        Generator.LOGGER.info("PROPERTY INSTANCE# (TOTAL-SO-FAR)");
-        Generator.LOGGER.info("-------------------------------");
         for (int i = 0; i < Ontology.PROP_NUM; i++) {
-            Generator.LOGGER.debug("{} {} ({})", Ontology.PROP_TOKEN[i], univState.getProperties()[i].logNum,
-                    univState.getGlobalState().getTotalProperties(i));
             propInstNum += univState.getProperties()[i].logNum;
-            totalPropInstNum += univState.getGlobalState().getTotalProperties(i);
         }
-        Generator.LOGGER.info("TOTAL: {}", propInstNum);
-        Generator.LOGGER.info("TOTAL SO FAR: {}", totalPropInstNum);
+        Generator.LOGGER.info("PROPERTY INSTANCE #: {}", propInstNum);
 
         if (!univState.getGlobalState().isQuietMode()) {
-            System.out.println("CLASS INSTANCE #: " + classInstNum + ", TOTAL SO FAR: " + totalClassInstNum);
-            System.out.println("PROPERTY INSTANCE #: " + propInstNum + ", TOTAL SO FAR: " + totalPropInstNum);
+            System.out.println("CLASS INSTANCE #: " + classInstNum);
+            System.out.println("PROPERTY INSTANCE #: " + propInstNum);
             System.out.println();
         }
-
     }
 
 }
\ No newline at end of file
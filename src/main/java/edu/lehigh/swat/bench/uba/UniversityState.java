@@ -2,7 +2,6 @@ package edu.lehigh.swat.bench.uba;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Random;
 import edu.lehigh.swat.bench.uba.model.CourseInfo;
 import edu.lehigh.swat.bench.uba.model.GenerationParameters;
 import edu.lehigh.swat.bench.uba.model.InstanceCount;
@@ -17,14 +16,14 @@ public class UniversityState implements GeneratorCallbackTarget {
     private final GlobalState state;
 
     /** random number generator */
-    private final Random random;
-
-    /** seed of the random number generator for the current university */
-    private final long seed;
+    private final RandomSource random;
 
     /** index of this university */
     private final int index;
 
+    /** builds names and ids for this university */
+    private final IdEngine ids;
+
     /** (class) instance information */
     private InstanceCount[] instances;
 
@@ -39,14 +38,20 @@ public class UniversityState implements GeneratorCallbackTarget {
     /** list of graduate courses generated so far (in the current department) */
     private ArrayList<CourseInfo> gradCourses;
     /**
-     * list of remaining available undergraduate courses (in the current
-     * department)
+     * index of the next available undergraduate course in the pool (in the
+     * current department), courses are always assigned in sequence
+     */
+    private int nextUnderCourse;
+    /**
+     * index of the next available graduate course in the pool (in the current
+     * department), courses are always assigned in sequence
      */
-    private ArrayList<Integer> remainingUnderCourses;
+    private int nextGradCourse;
     /**
-     * list of remaining available graduate courses (in the current department)
+     * values already selected by the current {@link #getRandomList(int, int, int)}
+     * call in ascending order
      */
-    private ArrayList<Integer> remainingGradCourses;
+    private int[] selected = new int[16];
     /**
      * list of publication instances generated so far (in the current
      * department)
@@ -62,10 +67,45 @@ public class UniversityState implements GeneratorCallbackTarget {
     private Throwable error = null;
 
     public UniversityState(GlobalState state, int index) {
+        this(state, index, state.createRandomSource(index));
+    }
+
+    private UniversityState(GlobalState state, int index, RandomSource random) {
         this.state = state;
         this.index = index;
-        this.seed = state.getBaseSeed() * (Integer.MAX_VALUE + 1) + index;
-        this.random = new Random(seed);
+        this.random = random;
+        this.ids = new IdEngine(index);
+    }
+
+    /**
+     * Creates the state used to generate a single department of this
+     * university independently of its other departments, used when
+     * {@link GlobalState#splitSeeds()} is enabled
+     * 
+     * @param deptIndex
+     *            Department index
+     * @return Department state
+     */
+    public UniversityState forDepartment(int deptIndex) {
+        return new UniversityState(this.state, this.index, this.random.split(deptIndex));
+    }
+
+    /**
+     * Creates the state used to generate a single department of this
+     * university resuming from the random state checkpointed at the start of
+     * that department, this generates exactly the same data as generating the
+     * university sequentially
+     * 
+     * @param deptIndex
+     *            Department index
+     * @param checkpoints
+     *            Checkpoints for this university
+     * @return Department state
+     */
+    public UniversityState forDepartment(int deptIndex, DepartmentCheckpoints checkpoints) {
+        RandomSource deptRandom = this.state.createRandomSource(this.index);
+        deptRandom.setState(checkpoints.getState(deptIndex));
+        return new UniversityState(this.state, this.index, deptRandom);
     }
 
     /**
@@ -84,8 +124,6 @@ public class UniversityState implements GeneratorCallbackTarget {
 
         underCourses = new ArrayList<CourseInfo>();
         gradCourses = new ArrayList<CourseInfo>();
-        remainingUnderCourses = new ArrayList<Integer>();
-        remainingGradCourses = new ArrayList<Integer>();
         publications = new ArrayList<PublicationInfo>();
 
         writer = state.createWriter(this);
@@ -118,14 +156,10 @@ public class UniversityState implements GeneratorCallbackTarget {
         
         underCourses.clear();
         gradCourses.clear();
-        remainingUnderCourses.clear();
-        remainingGradCourses.clear();
         publications.clear();
         
         underCourses = null;
         gradCourses = null;
-        remainingUnderCourses = null;
-        remainingGradCourses = null;
         publications = null;
     }
 
@@ -149,7 +183,16 @@ public class UniversityState implements GeneratorCallbackTarget {
     }
 
     public long getSeed() {
-        return this.seed;
+        return this.random.getSeed();
+    }
+
+    /**
+     * Gets the current state of the random number generator
+     * 
+     * @return Random state
+     */
+    public long getRandomState() {
+        return this.random.getState();
     }
 
     public int getUniversityIndex() {
@@ -201,6 +244,16 @@ public class UniversityState implements GeneratorCallbackTarget {
         return fileName.toString();
     }
 
+    /**
+     * Gets the id engine positioned at the current department
+     * 
+     * @return Id engine
+     */
+    private IdEngine ids() {
+        this.ids.setDepartment(this.instances[Ontology.CS_C_DEPT].count - 1);
+        return this.ids;
+    }
+
     /**
      * Gets the globally unique name of the specified instance.
      * 
@@ -211,31 +264,7 @@ public class UniversityState implements GeneratorCallbackTarget {
      * @return Name of the instance.
      */
     public String getName(int classType, int index) {
-        String name;
-
-        switch (classType) {
-        case Ontology.CS_C_UNIV:
-            name = getRelativeName(classType, index);
-            break;
-        case Ontology.CS_C_DEPT:
-            name = getRelativeName(classType, index) + Generator.INDEX_DELIMITER + (this.getUniversityIndex());
-            break;
-        // NOTE: Assume departments with the same index share the same pool of
-        // courses and researches
-        case Ontology.CS_C_COURSE:
-        case Ontology.CS_C_GRADCOURSE:
-        case Ontology.CS_C_RESEARCH:
-            name = getRelativeName(classType, index) + Generator.INDEX_DELIMITER
-                    + (this.instances[Ontology.CS_C_DEPT].count - 1);
-            break;
-        default:
-            name = getRelativeName(classType, index) + Generator.INDEX_DELIMITER
-                    + (this.instances[Ontology.CS_C_DEPT].count - 1) + Generator.INDEX_DELIMITER
-                    + (this.getUniversityIndex());
-            break;
-        }
-
-        return name;
+        return ids().getName(classType, index);
     }
 
     /**
@@ -249,22 +278,7 @@ public class UniversityState implements GeneratorCallbackTarget {
      * @return Name of the instance.
      */
     public String getRelativeName(int classType, int index) {
-        String name;
-
-        switch (classType) {
-        case Ontology.CS_C_UNIV:
-            // should be unique too!
-            name = Ontology.CLASS_TOKEN[classType] + index;
-            break;
-        case Ontology.CS_C_DEPT:
-            name = Ontology.CLASS_TOKEN[classType] + index;
-            break;
-        default:
-            name = Ontology.CLASS_TOKEN[classType] + index;
-            break;
-        }
-
-        return name;
+        return this.ids.getRelativeName(classType, index);
     }
 
     /**
@@ -277,24 +291,7 @@ public class UniversityState implements GeneratorCallbackTarget {
      * @return The email address of the instance.
      */
     public String getEmail(int classType, int index) {
-        String email = "";
-
-        switch (classType) {
-        case Ontology.CS_C_UNIV:
-            email += getRelativeName(classType, index) + "@" + getRelativeName(classType, index) + ".edu";
-            break;
-        case Ontology.CS_C_DEPT:
-            email += getRelativeName(classType, index) + "@" + getRelativeName(classType, index) + "."
-                    + getRelativeName(Ontology.CS_C_UNIV, this.getUniversityIndex()) + ".edu";
-            break;
-        default:
-            email += getRelativeName(classType, index) + "@"
-                    + getRelativeName(Ontology.CS_C_DEPT, this.instances[Ontology.CS_C_DEPT].count - 1) + "."
-                    + getRelativeName(Ontology.CS_C_UNIV, this.getUniversityIndex()) + ".edu";
-            break;
-        }
-
-        return email;
+        return ids().getEmail(classType, index);
     }
 
     /**
@@ -307,23 +304,7 @@ public class UniversityState implements GeneratorCallbackTarget {
      * @return Id of the instance.
      */
     public String getId(int classType, int index) {
-        String id;
-
-        switch (classType) {
-        case Ontology.CS_C_UNIV:
-            id = "http://www." + getRelativeName(classType, index) + ".edu";
-            break;
-        case Ontology.CS_C_DEPT:
-            id = "http://www." + getRelativeName(classType, index) + "."
-                    + getRelativeName(Ontology.CS_C_UNIV, this.getUniversityIndex()) + ".edu";
-            break;
-        default:
-            id = getId(Ontology.CS_C_DEPT, this.instances[Ontology.CS_C_DEPT].count - 1) + Generator.ID_DELIMITER
-                    + getRelativeName(classType, index);
-            break;
-        }
-
-        return id;
+        return ids().getId(classType, index);
     }
 
     /**
@@ -338,25 +319,18 @@ public class UniversityState implements GeneratorCallbackTarget {
      * @return Id of the instance.
      */
     public String getId(int classType, int index, String param) {
-        String id;
-
         switch (classType) {
         case Ontology.CS_C_PUBLICATION:
             // NOTE: param is author id
-            id = param + Generator.ID_DELIMITER + Ontology.CLASS_TOKEN[classType] + index;
-            break;
+            return this.ids.getPublicationId(param, index);
         default:
-            id = getId(classType, index);
-            break;
+            return getId(classType, index);
         }
-
-        return id;
     }
 
     @Override
     public void startSectionCB(int classType) {
         this.instances[classType].logNum++;
-        this.state.incrementTotalInstances(classType);
     }
 
     @Override
@@ -367,18 +341,24 @@ public class UniversityState implements GeneratorCallbackTarget {
     @Override
     public void addPropertyCB(int property) {
         this.properties[property].logNum++;
-        this.state.incrementTotalProperties(property);
     }
 
     @Override
     public void addValueClassCB(int classType) {
         this.instances[classType].logNum++;
-        this.state.incrementTotalInstances(classType);
     }
 
     /**
      * Creates a list of the specified number of integers without duplication
      * which are randomly selected from the specified range.
+     * <p>
+     * Each integer is selected by drawing a position amongst the integers not
+     * yet selected, exactly as if they were held in an ordered list from
+     * which each selected integer is removed. Rather than materializing the
+     * range the position is mapped to its integer by skipping over the
+     * integers already selected, so the cost depends only on the number of
+     * integers selected and not on the size of the range.
+     * </p>
      * 
      * @param num
      *            Number of the integers.
@@ -388,17 +368,22 @@ public class UniversityState implements GeneratorCallbackTarget {
      *            Maximum value of selectable integer.
      * @return So generated list of integers.
      */
-    public ArrayList<Integer> getRandomList(int num, int min, int max) {
-        ArrayList<Integer> list = new ArrayList<Integer>();
-        ArrayList<Integer> tmp = new ArrayList<Integer>();
-        for (int i = min; i <= max; i++) {
-            tmp.add(new Integer(i));
+    public int[] getRandomList(int num, int min, int max) {
+        int[] list = new int[num];
+        if (this.selected.length < num) {
+            this.selected = new int[Math.max(num, this.selected.length * 2)];
         }
 
         for (int i = 0; i < num; i++) {
-            int pos = getRandomFromRange(0, tmp.size() - 1);
-            list.add(tmp.get(pos));
-            tmp.remove(pos);
+            int value = getRandomFromRange(0, max - min - i);
+            int j = 0;
+            while (j < i && this.selected[j] <= value) {
+                value++;
+                j++;
+            }
+            System.arraycopy(this.selected, j, this.selected, j + 1, i - j);
+            this.selected[j] = value;
+            list[i] = min + value;
         }
 
         return list;
@@ -425,14 +410,8 @@ public class UniversityState implements GeneratorCallbackTarget {
         this.resetInstanceInfo();
         underCourses.clear();
         gradCourses.clear();
-        remainingUnderCourses.clear();
-        remainingGradCourses.clear();
-        for (int i = 0; i < GenerationParameters.UNDER_COURSE_NUM; i++) {
-            remainingUnderCourses.add(new Integer(i));
-        }
-        for (int i = 0; i < GenerationParameters.GRAD_COURSE_NUM; i++) {
-            remainingGradCourses.add(new Integer(i));
-        }
+        nextUnderCourse = 0;
+        nextGradCourse = 0;
         publications.clear();
         for (int i = 0; i < Ontology.CLASS_NUM; i++) {
             this.instances[i].logNum = 0;
@@ -525,15 +504,47 @@ public class UniversityState implements GeneratorCallbackTarget {
         return this.underCourses;
     }
 
-    public ArrayList<Integer> getRemainingUndergradCourses() {
-        return this.remainingUnderCourses;
+    /**
+     * Gets the number of undergraduate courses remaining in the pool
+     * 
+     * @return Number of remaining courses
+     */
+    public int getRemainingUndergradCourses() {
+        return GenerationParameters.UNDER_COURSE_NUM - this.nextUnderCourse;
+    }
+
+    /**
+     * Takes the next undergraduate course from the pool
+     * 
+     * @return Index of the course in the pool
+     */
+    public int nextUndergradCourse() {
+        if (this.nextUnderCourse >= GenerationParameters.UNDER_COURSE_NUM)
+            throw new IllegalStateException("No undergraduate courses remaining");
+        return this.nextUnderCourse++;
     }
 
     public ArrayList<CourseInfo> getGradCourses() {
         return this.gradCourses;
     }
 
-    public ArrayList<Integer> getRemainingGradCourses() {
-        return this.remainingGradCourses;
+    /**
+     * Gets the number of graduate courses remaining in the pool
+     * 
+     * @return Number of remaining courses
+     */
+    public int getRemainingGradCourses() {
+        return GenerationParameters.GRAD_COURSE_NUM - this.nextGradCourse;
+    }
+
+    /**
+     * Takes the next graduate course from the pool
+     * 
+     * @return Index of the course in the pool
+     */
+    public int nextGradCourse() {
+        if (this.nextGradCourse >= GenerationParameters.GRAD_COURSE_NUM)
+            throw new IllegalStateException("No graduate courses remaining");
+        return this.nextGradCourse++;
     }
 }
@@ -0,0 +1,261 @@
+package edu.lehigh.swat.bench.uba.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import edu.lehigh.swat.bench.uba.writers.ConsolidationMode;
+import edu.lehigh.swat.bench.uba.writers.WriterType;
+
+/**
+ * The result of a single benchmark run
+ * <p>
+ * Results are stored as CSV, or as JSON if the file name ends with
+ * {@code .json}, in either case with one run per line so that results may be
+ * read back in to serve as a baseline.
+ * </p>
+ */
+public class BenchmarkResult {
+
+    private static final String[] FIELDS = { "format", "threads", "consolidate", "compress", "universities",
+            "wallTimeMs", "triples", "triplesPerSecond", "bytes", "bytesPerSecond", "peakRssBytes", "gcTimeMs" };
+
+    private static final Pattern JSON_FIELD = Pattern.compile("\"(\\w+)\"\\s*:\\s*(\"([^\"]*)\"|[^,}\\s]+)");
+
+    private final WriterType format;
+    private final int threads;
+    private final ConsolidationMode consolidate;
+    private final boolean compress;
+    private final int universities;
+    private final long wallTime, triples, bytes, peakRss, gcTime;
+
+    /**
+     * Creates a new result
+     * 
+     * @param format
+     *            Output format
+     * @param threads
+     *            Number of threads
+     * @param consolidate
+     *            Consolidation mode
+     * @param compress
+     *            Whether output was compressed
+     * @param universities
+     *            Number of universities generated
+     * @param wallTime
+     *            Wall time in milliseconds
+     * @param triples
+     *            Number of triples generated i.e. the total class and property
+     *            instances
+     * @param bytes
+     *            Total size of the output files in bytes
+     * @param peakRss
+     *            Peak resident set size in bytes, negative if unknown
+     * @param gcTime
+     *            Total time spent in garbage collection in milliseconds
+     */
+    public BenchmarkResult(WriterType format, int threads, ConsolidationMode consolidate, boolean compress,
+            int universities, long wallTime, long triples, long bytes, long peakRss, long gcTime) {
+        this.format = format;
+        this.threads = threads;
+        this.consolidate = consolidate;
+        this.compress = compress;
+        this.universities = universities;
+        this.wallTime = wallTime;
+        this.triples = triples;
+        this.bytes = bytes;
+        this.peakRss = peakRss;
+        this.gcTime = gcTime;
+    }
+
+    public WriterType getFormat() {
+        return this.format;
+    }
+
+    public int getThreads() {
+        return this.threads;
+    }
+
+    public ConsolidationMode getConsolidationMode() {
+        return this.consolidate;
+    }
+
+    public boolean isCompressed() {
+        return this.compress;
+    }
+
+    public int getUniversities() {
+        return this.universities;
+    }
+
+    public long getWallTime() {
+        return this.wallTime;
+    }
+
+    public long getTriples() {
+        return this.triples;
+    }
+
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    public long getPeakRss() {
+        return this.peakRss;
+    }
+
+    public long getGcTime() {
+        return this.gcTime;
+    }
+
+    public long getTriplesPerSecond() {
+        return perSecond(this.triples);
+    }
+
+    public long getBytesPerSecond() {
+        return perSecond(this.bytes);
+    }
+
+    private long perSecond(long value) {
+        return this.wallTime > 0 ? value * 1000 / this.wallTime : 0;
+    }
+
+    /**
+     * Gets the key that identifies the configuration the result was produced
+     * by, results with the same key are comparable
+     * 
+     * @return Key
+     */
+    public String getKey() {
+        return String.format("%s, %d universities, %d threads, consolidate %s%s", this.format, this.universities,
+                this.threads, this.consolidate, this.compress ? ", compressed" : "");
+    }
+
+    private Object[] values() {
+        return new Object[] { this.format, this.threads, this.consolidate, this.compress, this.universities,
+                this.wallTime, this.triples, getTriplesPerSecond(), this.bytes, getBytesPerSecond(), this.peakRss,
+                this.gcTime };
+    }
+
+    private static BenchmarkResult fromValues(Map<String, String> values) {
+        try {
+            return new BenchmarkResult(WriterType.valueOf(values.get("format")),
+                    Integer.parseInt(values.get("threads")), ConsolidationMode.valueOf(values.get("consolidate")),
+                    Boolean.parseBoolean(values.get("compress")), Integer.parseInt(values.get("universities")),
+                    Long.parseLong(values.get("wallTimeMs")), Long.parseLong(values.get("triples")),
+                    Long.parseLong(values.get("bytes")), Long.parseLong(values.get("peakRssBytes")),
+                    Long.parseLong(values.get("gcTimeMs")));
+        } catch (NullPointerException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid benchmark result " + values, e);
+        }
+    }
+
+    private static boolean isJson(File file) {
+        return file.getName().toLowerCase().endsWith(".json");
+    }
+
+    /**
+     * Writes results to a file
+     * 
+     * @param results
+     *            Results
+     * @param file
+     *            File, written as JSON if the name ends with {@code .json}
+     *            otherwise as CSV
+     */
+    public static void write(List<BenchmarkResult> results, File file) {
+        try (PrintWriter writer = new PrintWriter(
+                new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            if (isJson(file)) {
+                writer.println("[");
+                for (int i = 0; i < results.size(); i++) {
+                    Object[] values = results.get(i).values();
+                    writer.print("  {");
+                    for (int j = 0; j < FIELDS.length; j++) {
+                        if (j > 0)
+                            writer.print(", ");
+                        boolean quote = values[j] instanceof Enum;
+                        writer.print("\"" + FIELDS[j] + "\": " + (quote ? "\"" + values[j] + "\"" : values[j]));
+                    }
+                    writer.println(i < results.size() - 1 ? "}," : "}");
+                }
+                writer.println("]");
+            } else {
+                writer.println(join(FIELDS));
+                for (BenchmarkResult result : results) {
+                    writer.println(join(result.values()));
+                }
+            }
+
+            if (writer.checkError())
+                throw new IOException("Error writing benchmark results");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write benchmark results", e);
+        }
+    }
+
+    private static String join(Object[] values) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0)
+                builder.append(',');
+            builder.append(values[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Reads results previously written by {@link #write(List, File)}
+     * 
+     * @param file
+     *            File
+     * @return Results
+     */
+    public static List<BenchmarkResult> read(File file) {
+        List<BenchmarkResult> results = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            boolean json = isJson(file);
+            String[] header = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty())
+                    continue;
+
+                Map<String, String> values = new HashMap<>();
+                if (json) {
+                    Matcher m = JSON_FIELD.matcher(line);
+                    while (m.find()) {
+                        values.put(m.group(1), m.group(3) != null ? m.group(3) : m.group(2));
+                    }
+                    if (values.isEmpty())
+                        continue;
+                } else if (header == null) {
+                    header = line.split(",");
+                    continue;
+                } else {
+                    String[] row = line.split(",");
+                    for (int i = 0; i < header.length && i < row.length; i++) {
+                        values.put(header[i].trim(), row[i].trim());
+                    }
+                }
+                results.add(fromValues(values));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read benchmark results from " + file, e);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,219 @@
+package edu.lehigh.swat.bench.uba.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.BasicConfigurator;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+import edu.lehigh.swat.bench.uba.GenerationStatistics;
+import edu.lehigh.swat.bench.uba.Generator;
+import edu.lehigh.swat.bench.uba.Launcher;
+import edu.lehigh.swat.bench.uba.RandomSourceType;
+import edu.lehigh.swat.bench.uba.ScheduleMode;
+import edu.lehigh.swat.bench.uba.writers.ConsolidationMode;
+import edu.lehigh.swat.bench.uba.writers.GraphMode;
+import edu.lehigh.swat.bench.uba.writers.WriterType;
+
+/**
+ * A single benchmark run i.e. one combination of output format, threads,
+ * consolidation mode and compression
+ * <p>
+ * Each run is executed in a fresh JVM so that the peak resident set size and
+ * garbage collection time measured are those of that run alone. The child JVM
+ * runs {@link #main(String[])} which generates the data and reports its
+ * measurements on standard output.
+ * </p>
+ */
+public class BenchmarkRun {
+
+    private static final String RESULT_PREFIX = "BENCHMARK-RESULT ";
+
+    private final WriterType format;
+    private final int threads;
+    private final ConsolidationMode consolidate;
+    private final boolean compress;
+
+    /**
+     * Creates a new run
+     * 
+     * @param format
+     *            Output format
+     * @param threads
+     *            Number of threads
+     * @param consolidate
+     *            Consolidation mode
+     * @param compress
+     *            Whether to compress output
+     */
+    public BenchmarkRun(WriterType format, int threads, ConsolidationMode consolidate, boolean compress) {
+        this.format = format;
+        this.threads = threads;
+        this.consolidate = consolidate;
+        this.compress = compress;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s, %d threads, consolidate %s%s", this.format, this.threads, this.consolidate,
+                this.compress ? ", compressed" : "");
+    }
+
+    /**
+     * Executes the run in a child JVM
+     * 
+     * @param univNum
+     *            Number of universities to generate
+     * @param seed
+     *            Seed for data generation
+     * @param outputDir
+     *            Directory to generate data in, this should be empty
+     * @param timeout
+     *            Maximum time in minutes to allow data generation to run for
+     * @param jvmArgs
+     *            Additional arguments for the child JVM
+     * @param verbose
+     *            Whether to show the output of the child JVM
+     * @return Result
+     */
+    public BenchmarkResult execute(int univNum, int seed, File outputDir, long timeout, List<String> jvmArgs,
+            boolean verbose) {
+        List<String> command = new ArrayList<>();
+        command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(BenchmarkRun.class.getName());
+        command.add(this.format.name());
+        command.add(Integer.toString(this.threads));
+        command.add(this.consolidate.name());
+        command.add(Boolean.toString(this.compress));
+        command.add(Integer.toString(univNum));
+        command.add(Integer.toString(seed));
+        command.add(outputDir.getAbsolutePath());
+        command.add(Long.toString(timeout));
+
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String[] measurements = null;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(RESULT_PREFIX)) {
+                        measurements = line.substring(RESULT_PREFIX.length()).split(" ");
+                    } else if (verbose) {
+                        System.out.println(line);
+                    }
+                }
+            }
+            int exitCode = process.waitFor();
+            if (exitCode != 0 || measurements == null) {
+                throw new RuntimeException(
+                        String.format("Benchmark run (%s) failed with exit code %d, run with --verbose for details",
+                                this, exitCode));
+            }
+
+            return new BenchmarkResult(this.format, this.threads, this.consolidate, this.compress, univNum,
+                    Long.parseLong(measurements[0]), Long.parseLong(measurements[1]), Long.parseLong(measurements[2]),
+                    Long.parseLong(measurements[3]), Long.parseLong(measurements[4]));
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Failed to start benchmark run (%s)", this), e);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(String.format("Interrupted waiting for benchmark run (%s)", this), e);
+        }
+    }
+
+    /**
+     * Entry point for the child JVM, this should not be invoked directly
+     * 
+     * @param args
+     *            Arguments
+     */
+    public static void main(String[] args) {
+        try {
+            BasicConfigurator.configure();
+            Logger.getRootLogger().setLevel(Level.WARN);
+
+            WriterType format = WriterType.valueOf(args[0]);
+            int threads = Integer.parseInt(args[1]);
+            ConsolidationMode consolidate = ConsolidationMode.valueOf(args[2]);
+            boolean compress = Boolean.parseBoolean(args[3]);
+            int univNum = Integer.parseInt(args[4]);
+            int seed = Integer.parseInt(args[5]);
+            File outputDir = new File(args[6]);
+            long timeout = Long.parseLong(args[7]);
+
+            long gcTime = getGcTime();
+            long start = System.currentTimeMillis();
+            GenerationStatistics statistics = new Generator().start(univNum, 0, seed, format,
+                    Launcher.DEFAULT_ONTOLOGY_URL, outputDir.getAbsolutePath(), consolidate, compress, threads,
+                    timeout, TimeUnit.MINUTES, true, false, false, -1, RandomSourceType.Legacy, ScheduleMode.InOrder,
+                    false, 0, GraphMode.University, null);
+            long elapsed = System.currentTimeMillis() - start;
+            gcTime = getGcTime() - gcTime;
+
+            System.out.println(RESULT_PREFIX + elapsed + " "
+                    + (statistics.getTotalInstances() + statistics.getTotalProperties()) + " " + getSize(outputDir)
+                    + " " + getPeakRss() + " " + gcTime);
+        } catch (Throwable e) {
+            e.printStackTrace(System.out);
+            System.exit(3);
+        }
+        System.exit(0);
+    }
+
+    private static long getGcTime() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(gc.getCollectionTime(), 0);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the peak resident set size of this process, this is only available
+     * on Linux
+     * 
+     * @return Peak resident set size in bytes, -1 if unknown
+     */
+    private static long getPeakRss() {
+        File status = new File("/proc/self/status");
+        if (!status.exists())
+            return -1;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(status), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("VmHWM:")) {
+                    // Reported in kB
+                    return Long.parseLong(line.substring(6).trim().split("\\s+")[0]) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Treat as unknown
+        }
+        return -1;
+    }
+
+    private static long getSize(File dir) {
+        long size = 0;
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                size += f.isDirectory() ? getSize(f) : f.length();
+            }
+        }
+        return size;
+    }
+}
@@ -1,11 +1,11 @@
 package edu.lehigh.swat.bench.uba.writers;
 
-import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.zip.GZIPOutputStream;
@@ -13,20 +13,26 @@ import java.util.zip.GZIPOutputStream;
 import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
 import edu.lehigh.swat.bench.uba.GlobalState;
 import edu.lehigh.swat.bench.uba.writers.utils.BufferSizes;
+import edu.lehigh.swat.bench.uba.writers.utils.BufferedOutputSink;
+import edu.lehigh.swat.bench.uba.writers.utils.FragmentBuffer;
 import edu.lehigh.swat.bench.uba.writers.utils.MemoryBufferedOutputStream;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
 import edu.lehigh.swat.bench.uba.writers.utils.WriteConsolidator;
 
 public class AbstractWriter {
 
     /** white space string */
     protected static final String T_SPACE = " ";
-    /** output stream */
-    protected PrintStream out = null;
+    /** output sink */
+    protected OutputSink out = null;
     /** the generator */
     protected GeneratorCallbackTarget callbackTarget;
 
     protected Map<String, GlobalState> currentFiles = new HashMap<>();
 
+    /** buffers for the outputs of the current fragment */
+    private final List<FragmentBuffer> fragmentBuffers = new ArrayList<>();
+
     public AbstractWriter(GeneratorCallbackTarget callbackTarget) {
         this.callbackTarget = callbackTarget;
     }
@@ -39,7 +45,7 @@ public class AbstractWriter {
      * @param state
      *            State
      */
-    protected final PrintStream prepareOutputStream(String fileName, GlobalState state) {
+    protected final OutputSink prepareOutputStream(String fileName, GlobalState state) {
         if (state.consolidationMode() != ConsolidationMode.Full) {
             try {
                 // Track file for consolidation submission later
@@ -49,44 +55,74 @@ public class AbstractWriter {
                 OutputStream stream = new FileOutputStream(fileName);
                 if (fileName.endsWith(".gz")) {
                     stream = new GZIPOutputStream(stream, BufferSizes.GZIP_BUFFER_SIZE);
+                    return new BufferedOutputSink(stream, BufferSizes.GZIP_BUFFER_SIZE);
                 } else {
-                    stream = new BufferedOutputStream(stream, BufferSizes.OUTPUT_BUFFER_SIZE);
+                    return new BufferedOutputSink(stream, BufferSizes.OUTPUT_BUFFER_SIZE);
                 }
-                return new PrintStream(stream);
             } catch (IOException e) {
                 throw new RuntimeException("Create file failure!", e);
             }
         } else {
-            return new PrintStream(new MemoryBufferedOutputStream(state));
+            return new BufferedOutputSink(new MemoryBufferedOutputStream(state), BufferSizes.SINK_BUFFER_SIZE);
         }
     }
 
     /**
-     * Cleans up the output stream
+     * Prepares a buffered output stream for the current fragment, the buffer
+     * is held in memory unless the memory budget is exhausted
+     * 
+     * @param state
+     *            State
+     * @return Output stream
      */
-    protected final void cleanupOutputStream(PrintStream out) {
-        if (out.checkError()) {
-            // Make sure to null out the output stream when we're done because
-            // the nature of how we do multi-threading means we have lots of
-            // references to our writers each of which may be holding a
-            // reference to a buffer
-            out = null;
-            throw new RuntimeException("Error writing file");
-        }
+    protected final OutputSink prepareFragmentStream(GlobalState state) {
+        FragmentBuffer buffer = new FragmentBuffer(state.getMemoryBudget(), state.getOutputDirectory());
+        this.fragmentBuffers.add(buffer);
+        return new BufferedOutputSink(buffer, BufferSizes.SINK_BUFFER_SIZE);
+    }
 
-        out.flush();
-        out.close();
+    /**
+     * Completes the current fragment, any output streams obtained from
+     * {@link #prepareFragmentStream(GlobalState)} should already have been
+     * cleaned up
+     * 
+     * @param pending
+     *            Writer specific state that must be carried over to the writer
+     *            the fragment is appended to, may be {@code null}
+     * @return Fragment
+     */
+    protected final WriterFragment completeFragment(Object pending) {
+        WriterFragment fragment = new WriterFragment(new ArrayList<>(this.fragmentBuffers), pending);
+        this.fragmentBuffers.clear();
+        return fragment;
+    }
 
-        if (out.checkError()) {
-            // Make sure to null out the output stream when we're done because
-            // the nature of how we do multi-threading means we have lots of
-            // references to our writers each of which may be holding a
-            // reference to a buffer
-            out = null;
-            throw new RuntimeException("Error writing file");
+    /**
+     * Appends one of the outputs of a fragment to an output stream
+     * 
+     * @param fragment
+     *            Fragment
+     * @param output
+     *            Index of the fragment output
+     * @param out
+     *            Output stream to append to
+     */
+    protected final void appendFragmentOutput(WriterFragment fragment, int output, OutputSink out) {
+        try {
+            fragment.writeTo(output, out);
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing file", e);
         }
     }
 
+    /**
+     * Cleans up the output stream, any error writing the remaining output is
+     * thrown
+     */
+    protected final void cleanupOutputStream(OutputSink out) {
+        out.close();
+    }
+
     protected void submitWrites() {
         for (Entry<String, GlobalState> kvp : this.currentFiles.entrySet()) {
             WriteConsolidator consolidator = kvp.getValue().getWriteConsolidator();
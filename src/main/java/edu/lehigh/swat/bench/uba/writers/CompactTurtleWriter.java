@@ -0,0 +1,237 @@
+package edu.lehigh.swat.bench.uba.writers;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
+import edu.lehigh.swat.bench.uba.model.Ontology;
+import edu.lehigh.swat.bench.uba.writers.utils.EncodingBuffer;
+
+/**
+ * A Turtle writer that uses the known structure of the generated URIs to write
+ * prefixed names without having to search the declared prefixes
+ * <p>
+ * All generated URIs have one of the following forms:
+ * </p>
+ * <ul>
+ * <li>{@code http://www.UniversityU.edu}</li>
+ * <li>{@code http://www.DepartmentD.UniversityU.edu}</li>
+ * <li>{@code http://www.DepartmentD.UniversityU.edu/Local}</li>
+ * </ul>
+ * <p>
+ * Universities and departments are written using a fixed {@code www:} prefix
+ * while each department is given its own prefix e.g. {@code d3u17:} which is
+ * declared before the first subject from that department. Prefixes are only
+ * ever declared between statements so an object from a department whose prefix
+ * has not yet been declared is written as a full URI. Ontology properties and
+ * classes are prefixed and encoded once up front and the remaining output is
+ * encoded directly to bytes. Any other URI is handled as in
+ * {@link TurtleWriter}.
+ * </p>
+ */
+public class CompactTurtleWriter extends TurtleWriter {
+
+    private static final String WWW_NS = "www";
+    private static final String WWW_NS_URI = "http://www.";
+    private static final String DEPARTMENT = "Department";
+    private static final String UNIVERSITY = ".University";
+    private static final String DEPARTMENT_END = ".edu/";
+
+    private static final byte[] WWW_PREFIX = EncodingBuffer.encode(WWW_NS + ":");
+    private static final byte[] LIST_CONTINUE = EncodingBuffer.encode(" ;" + System.getProperty("line.separator"));
+
+    private final EncodingBuffer buffer = new EncodingBuffer();
+    /** encoded predicates, indexed by property */
+    private final byte[][] propertyNames = new byte[Ontology.PROP_NUM][];
+    /** encoded type statements, indexed by class */
+    private final byte[][] classNames = new byte[Ontology.CLASS_NUM][];
+    /** declared department prefixes, keyed by namespace URI */
+    private final Map<String, byte[]> departments = new HashMap<>();
+    private String lastNamespace;
+    private byte[] lastPrefix;
+
+    public CompactTurtleWriter(GeneratorCallbackTarget target, String ontologyUrl) {
+        super(target, ontologyUrl);
+    }
+
+    @Override
+    protected void prefixes(boolean declare) {
+        super.prefixes(declare);
+        if (declare) {
+            declarePrefix(WWW_NS, WWW_NS_URI);
+        }
+
+        // Department prefixes must be declared again in each new file or
+        // fragment
+        this.departments.clear();
+        this.lastNamespace = null;
+        this.lastPrefix = null;
+
+        if (this.propertyNames[0] == null) {
+            for (int i = 0; i < Ontology.PROP_NUM; i++) {
+                this.propertyNames[i] = EncodingBuffer.encode(" " + predicate(this.propertyUrls[i]) + " ");
+            }
+            for (int i = 0; i < Ontology.CLASS_NUM; i++) {
+                String classUrl = String.format("%s#%s", this.ontologyUrl, Ontology.CLASS_TOKEN[i]);
+                this.classNames[i] = EncodingBuffer
+                        .encode(" a " + subjectOrObjectUri(classUrl) + " ;" + System.getProperty("line.separator"));
+            }
+        }
+    }
+
+    @Override
+    protected void addPropertyTriple(int property, String object, boolean isResource) {
+        switchSubject(this.getCurrentSubject());
+        this.buffer.append(this.propertyNames[property]);
+        if (isResource) {
+            appendName(object);
+        } else {
+            this.buffer.append((byte) '"');
+            this.buffer.append(object);
+            this.buffer.append((byte) '"');
+        }
+        this.buffer.append(LIST_CONTINUE);
+        this.buffer.writeTo(out);
+    }
+
+    @Override
+    protected void addTypeTriple(String subject, int classType) {
+        switchSubject(subject);
+        this.buffer.append(this.classNames[classType]);
+        this.buffer.writeTo(out);
+    }
+
+    @Override
+    protected void startPredicateObjectList(String currSubject) {
+        // We're between statements so can declare the department prefix if
+        // this is the first subject seen from the department
+        declareDepartment(currSubject);
+        super.startPredicateObjectList(currSubject);
+    }
+
+    @Override
+    protected void writeSubject(String subject) {
+        appendName(subject);
+        this.buffer.writeTo(out);
+    }
+
+    private void declareDepartment(String uri) {
+        if (this.lastNamespace != null && uri.startsWith(this.lastNamespace))
+            return;
+        int end = departmentNamespaceEnd(uri);
+        if (end < 0)
+            return;
+
+        String ns = uri.substring(0, end);
+        byte[] prefix = this.departments.get(ns);
+        if (prefix == null) {
+            // Department D of University U gets the prefix dDuU
+            int univStart = ns.indexOf(UNIVERSITY, WWW_NS_URI.length());
+            String name = "d" + ns.substring(WWW_NS_URI.length() + DEPARTMENT.length(), univStart) + "u"
+                    + ns.substring(univStart + UNIVERSITY.length(), end - DEPARTMENT_END.length());
+            declarePrefix(name, ns);
+            prefix = EncodingBuffer.encode(name + ":");
+            this.departments.put(ns, prefix);
+        }
+        this.lastNamespace = ns;
+        this.lastPrefix = prefix;
+    }
+
+    /**
+     * Appends the name for a URI, this is a prefixed name where the structure
+     * of the URI allows otherwise it is as written by {@link TurtleWriter}
+     *
+     * @param uri
+     *            URI
+     */
+    private void appendName(String uri) {
+        int start = this.buffer.length();
+        if (uri.startsWith(WWW_NS_URI) && appendStructuralName(uri))
+            return;
+
+        this.buffer.truncate(start);
+        this.buffer.append(subjectOrObjectUri(uri));
+    }
+
+    private boolean appendStructuralName(String uri) {
+        // Usually the URI is from the same department as the last one
+        if (this.lastNamespace != null && uri.startsWith(this.lastNamespace))
+            return appendLocalName(this.lastPrefix, uri, this.lastNamespace.length());
+
+        int slash = uri.indexOf('/', WWW_NS_URI.length());
+        if (slash < 0) {
+            // A university or department
+            return appendLocalName(WWW_PREFIX, uri, WWW_NS_URI.length());
+        }
+
+        byte[] prefix = this.departments.get(uri.substring(0, slash + 1));
+        if (prefix == null)
+            return false;
+        return appendLocalName(prefix, uri, slash + 1);
+    }
+
+    /**
+     * Appends a prefixed name escaping any {@code /} characters in the local
+     * name
+     *
+     * @param prefix
+     *            Encoded prefix including the trailing {@code :}
+     * @param uri
+     *            URI
+     * @param start
+     *            Start of the local name within the URI
+     * @return True if appended, false if the local name contains characters
+     *         that can't be used in a prefixed name
+     */
+    private boolean appendLocalName(byte[] prefix, String uri, int start) {
+        int end = uri.length();
+        if (start >= end || uri.charAt(end - 1) == '.')
+            return false;
+
+        this.buffer.append(prefix);
+        for (int i = start; i < end; i++) {
+            char c = uri.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_'
+                    || (c == '.' && i > start)) {
+                this.buffer.append((byte) c);
+            } else if (c == '/') {
+                this.buffer.append((byte) '\\');
+                this.buffer.append((byte) '/');
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the end of the department namespace for a URI of the form
+     * {@code http://www.DepartmentD.UniversityU.edu/Local}
+     *
+     * @param uri
+     *            URI
+     * @return End of the namespace or -1 if the URI does not have this form
+     */
+    private static int departmentNamespaceEnd(String uri) {
+        if (!uri.startsWith(WWW_NS_URI))
+            return -1;
+        int i = WWW_NS_URI.length();
+        if (!uri.startsWith(DEPARTMENT, i))
+            return -1;
+        i = digitsEnd(uri, i + DEPARTMENT.length());
+        if (i < 0 || !uri.startsWith(UNIVERSITY, i))
+            return -1;
+        i = digitsEnd(uri, i + UNIVERSITY.length());
+        if (i < 0 || !uri.startsWith(DEPARTMENT_END, i))
+            return -1;
+        return i + DEPARTMENT_END.length();
+    }
+
+    private static int digitsEnd(String uri, int start) {
+        int i = start;
+        while (i < uri.length() && uri.charAt(i) >= '0' && uri.charAt(i) <= '9') {
+            i++;
+        }
+        return i > start ? i : -1;
+    }
+}
@@ -19,9 +19,8 @@
 
 package edu.lehigh.swat.bench.uba.writers;
 
-import java.io.PrintStream;
-
 import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
 
 public class DamlWriter extends RdfWriter {
     private final String ontology;
@@ -42,7 +41,7 @@ public class DamlWriter extends RdfWriter {
      * statements.
      */
     @Override
-    protected void writeHeader(PrintStream out) {
+    protected void writeHeader(OutputSink out) {
         String s;
         s = "xmlns:" + WriterVocabulary.T_RDF_NS + "=\"" + WriterVocabulary.T_RDF_NS_URI + "\"";
         out.println(s);
@@ -14,11 +14,16 @@ public abstract class FlatWriter extends AbstractWriter implements Writer {
     protected static final String OWL_IMPORTS = "http://www.w3.org/2002/07/owl#imports";
 
     protected final String ontologyUrl;
+    /** URLs of the properties, indexed by property */
+    protected final String[] propertyUrls = new String[Ontology.PROP_NUM];
     private final Stack<String> subjects = new Stack<String>();
 
     public FlatWriter(GeneratorCallbackTarget target, String ontologyUrl) {
         super(target);
         this.ontologyUrl = ontologyUrl;
+        for (int i = 0; i < Ontology.PROP_NUM; i++) {
+            this.propertyUrls[i] = ontologyUrl + "#" + Ontology.PROP_TOKEN[i];
+        }
     }
 
     @Override
@@ -65,6 +70,30 @@ public abstract class FlatWriter extends AbstractWriter implements Writer {
         // No-op
     }
 
+    @Override
+    public void startFragment(GlobalState state, boolean continuation) {
+        // The ontology declaration is written by the writer the fragment is
+        // appended to
+        this.out = prepareFragmentStream(state);
+    }
+
+    @Override
+    public WriterFragment endFragment(GlobalState state) {
+        if (!subjects.isEmpty())
+            throw new RuntimeException("Mismatched calls to writer in endFragment()");
+        try {
+            cleanupOutputStream(this.out);
+        } finally {
+            this.out = null;
+        }
+        return completeFragment(null);
+    }
+
+    @Override
+    public void appendFragment(GlobalState state, WriterFragment fragment) {
+        appendFragmentOutput(fragment, 0, this.out);
+    }
+
     protected String getCurrentSubject() {
         if (this.subjects.isEmpty())
             throw new RuntimeException("Mismatched calls to writer in getCurrentSubject()");
@@ -75,6 +104,21 @@ public abstract class FlatWriter extends AbstractWriter implements Writer {
 
     protected abstract void addTypeTriple(String subject, int classType);
 
+    /**
+     * Adds a triple for the given property of the current subject, writers
+     * may override this to use a pre-encoded form of the property
+     * 
+     * @param property
+     *            Property
+     * @param object
+     *            Object
+     * @param isResource
+     *            Whether the object is a resource
+     */
+    protected void addPropertyTriple(int property, String object, boolean isResource) {
+        addTriple(this.propertyUrls[property], object, isResource);
+    }
+
     @Override
     public final void startSection(int classType, String id) {
         callbackTarget.startSectionCB(classType);
@@ -117,8 +161,7 @@ public abstract class FlatWriter extends AbstractWriter implements Writer {
         if (this.subjects.isEmpty())
             throw new RuntimeException("Mismatched calls to writer in addProperty()");
 
-        String propertyUrl = String.format("%s#%s", this.ontologyUrl, Ontology.PROP_TOKEN[property]);
-        addTriple(propertyUrl, value, isResource);
+        addPropertyTriple(property, value, isResource);
     }
 
     @Override
@@ -133,4 +176,9 @@ public abstract class FlatWriter extends AbstractWriter implements Writer {
         addTypeTriple(valueId, valueClass);
     }
 
+    @Override
+    public final void addUniversityProperty(int property, int univIndex, String univId) {
+        addProperty(property, Ontology.CS_C_UNIV, univId);
+    }
+
 }
@@ -0,0 +1,46 @@
+package edu.lehigh.swat.bench.uba.writers;
+
+import edu.lehigh.swat.bench.uba.IdEngine;
+import edu.lehigh.swat.bench.uba.model.Ontology;
+
+/**
+ * Possible modes for placing triples into named graphs, used by the quad
+ * output formats
+ * <p>
+ * Graphs are named by the id of the university or department that owns the
+ * triples, the ontology declaration at the start of each file is placed in the
+ * default graph.
+ * </p>
+ */
+public enum GraphMode {
+    /**
+     * Each university and all its departments are placed in a single graph
+     */
+    University,
+    /**
+     * Each department is placed in its own graph, the university itself is
+     * placed in the graph of the university
+     */
+    Department;
+
+    /**
+     * Gets the graph that a top level section starts
+     * 
+     * @param classType
+     *            Type of the section
+     * @param id
+     *            Id of the section
+     * @return Graph, or {@code null} if the section belongs to the current
+     *         graph
+     */
+    public String getGraph(int classType, String id) {
+        switch (classType) {
+        case Ontology.CS_C_UNIV:
+            return id;
+        case Ontology.CS_C_DEPT:
+            return this == Department ? id : IdEngine.getUniversityId(id);
+        default:
+            return null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package edu.lehigh.swat.bench.uba.writers;
+
+import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
+import edu.lehigh.swat.bench.uba.GlobalState;
+import edu.lehigh.swat.bench.uba.writers.utils.NTriplesEncoder;
+
+/**
+ * A writer that produces N-Quads where each triple is placed in the named
+ * graph of the university or department that owns it, see {@link GraphMode}
+ */
+public class NQuadsWriter extends NTriplesWriter {
+
+    private final GraphMode graphMode;
+    private String graph;
+
+    public NQuadsWriter(GeneratorCallbackTarget target, String ontologyUrl, GraphMode graphMode) {
+        super(target, ontologyUrl);
+        this.graphMode = graphMode;
+    }
+
+    @Override
+    public void startFile(String fileName, GlobalState state) {
+        // Ontology declaration goes in the default graph
+        setGraph(null);
+        super.startFile(fileName, state);
+    }
+
+    @Override
+    public void startFragment(GlobalState state, boolean continuation) {
+        setGraph(null);
+        super.startFragment(state, continuation);
+    }
+
+    @Override
+    protected void newSection(int classType, String id) {
+        String sectionGraph = this.graphMode.getGraph(classType, id);
+        if (sectionGraph != null && !sectionGraph.equals(this.graph))
+            setGraph(sectionGraph);
+        super.newSection(classType, id);
+    }
+
+    private void setGraph(String graph) {
+        this.graph = graph;
+        this.encoder.setGraph(graph != null ? NTriplesEncoder.encodeIri(graph) : null);
+    }
+}
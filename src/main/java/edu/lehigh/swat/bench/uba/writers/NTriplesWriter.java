@@ -2,28 +2,41 @@ package edu.lehigh.swat.bench.uba.writers;
 
 import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
 import edu.lehigh.swat.bench.uba.model.Ontology;
+import edu.lehigh.swat.bench.uba.writers.utils.NTriplesEncoder;
 
 public class NTriplesWriter extends FlatWriter {
-    
+
+    private static final byte[] RDF_TYPE_IRI = NTriplesEncoder.encodeIri(RDF_TYPE);
+
+    protected final NTriplesEncoder encoder = new NTriplesEncoder();
+    /** encoded property IRIs, indexed by property */
+    private final byte[][] propertyIris = new byte[Ontology.PROP_NUM][];
+    /** encoded class IRIs, indexed by class */
+    private final byte[][] classIris = new byte[Ontology.CLASS_NUM][];
+
     public NTriplesWriter(GeneratorCallbackTarget target, String ontologyUrl) {
         super(target, ontologyUrl);
+        for (int i = 0; i < Ontology.PROP_NUM; i++) {
+            this.propertyIris[i] = NTriplesEncoder.encodeIri(this.propertyUrls[i]);
+        }
+        for (int i = 0; i < Ontology.CLASS_NUM; i++) {
+            this.classIris[i] = NTriplesEncoder.encodeIri(ontologyUrl + "#" + Ontology.CLASS_TOKEN[i]);
+        }
     }
 
     @Override
     protected void addTriple(String property, String object, boolean isResource) {
-        if (isResource) {
-            out.format("<%s> <%s> <%s> .", this.getCurrentSubject(), property, object);
-        } else {
-            out.format("<%s> <%s> \"%s\" .", this.getCurrentSubject(), property, object);
-        }
-        out.println();
+        this.encoder.writeTriple(out, this.getCurrentSubject(), property, object, isResource);
+    }
+
+    @Override
+    protected void addPropertyTriple(int property, String object, boolean isResource) {
+        this.encoder.writeTriple(out, this.getCurrentSubject(), this.propertyIris[property], object, isResource);
     }
 
     @Override
     protected void addTypeTriple(String subject, int classType) {
-        String classUrl = String.format("%s#%s", this.ontologyUrl, Ontology.CLASS_TOKEN[classType]);
-        out.format("<%s> <%s> <%s> .", subject, RDF_TYPE, classUrl);
-        out.println();
+        this.encoder.writeTriple(out, subject, RDF_TYPE_IRI, this.classIris[classType]);
     }
 
 }
@@ -19,9 +19,8 @@
 
 package edu.lehigh.swat.bench.uba.writers;
 
-import java.io.PrintStream;
-
 import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
 
 public class OwlWriter extends RdfWriter {
     private final String ontology;
@@ -41,7 +40,7 @@ public class OwlWriter extends RdfWriter {
      * Writes the header, including namespace declarations and ontology header.
      */
     @Override
-    protected void writeHeader(PrintStream out) {
+    protected void writeHeader(OutputSink out) {
         String s;
         // TODO Use out.format() instead
         s = "xmlns:" + WriterVocabulary.T_RDF_NS + "=\"" + WriterVocabulary.T_RDF_NS_URI + "\"";
@@ -20,13 +20,18 @@
 package edu.lehigh.swat.bench.uba.writers;
 
 import java.io.OutputStream;
-import java.io.PrintStream;
 
 import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
 import edu.lehigh.swat.bench.uba.GlobalState;
 import edu.lehigh.swat.bench.uba.model.Ontology;
+import edu.lehigh.swat.bench.uba.writers.utils.BufferSizes;
+import edu.lehigh.swat.bench.uba.writers.utils.BufferedOutputSink;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
 
 public abstract class RdfWriter extends AbstractWriter implements Writer {
+
+    private final RdfXmlEncoder encoder = new RdfXmlEncoder();
+
     /**
      * Creates a new RDF writer
      * 
@@ -51,18 +56,19 @@ public abstract class RdfWriter extends AbstractWriter implements Writer {
     
     @Override
     public void startFile(GlobalState state, OutputStream output) {
-        PrintStream print = new PrintStream(output);
-        outputXmlHeader(print);
-        print.flush();
+        OutputSink sink = new BufferedOutputSink(output, BufferSizes.SINK_BUFFER_SIZE);
+        outputXmlHeader(sink);
+        sink.flush();
     }
 
-    protected void outputXmlHeader(PrintStream out) {
+    protected void outputXmlHeader(OutputSink out) {
         // XML header
         out.println("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>");
 
         // Root rdf:RDF element
-        out.format("<%sRDF", WriterVocabulary.T_RDF_PREFIX);
-        out.println();
+        out.print("<");
+        out.print(WriterVocabulary.T_RDF_PREFIX);
+        out.println("RDF");
         writeHeader(out);
     }
 
@@ -87,68 +93,72 @@ public abstract class RdfWriter extends AbstractWriter implements Writer {
 
     @Override
     public void endFile(GlobalState state, OutputStream output) {
-        PrintStream print = new PrintStream(output);
-        print.format("</%sRDF>", WriterVocabulary.T_RDF_PREFIX);
-        print.println();
-        print.flush();
+        OutputSink sink = new BufferedOutputSink(output, BufferSizes.SINK_BUFFER_SIZE);
+        sink.print("</");
+        sink.print(WriterVocabulary.T_RDF_PREFIX);
+        sink.println("RDF>");
+        sink.flush();
+    }
+
+    @Override
+    public void startFragment(GlobalState state, boolean continuation) {
+        // The XML header and footer are written by the writer the fragment is
+        // appended to
+        this.out = prepareFragmentStream(state);
+    }
+
+    @Override
+    public WriterFragment endFragment(GlobalState state) {
+        try {
+            cleanupOutputStream(this.out);
+        } finally {
+            this.out = null;
+        }
+        return completeFragment(null);
+    }
+
+    @Override
+    public void appendFragment(GlobalState state, WriterFragment fragment) {
+        appendFragmentOutput(fragment, 0, this.out);
     }
 
     @Override
     public void startSection(int classType, String id) {
         callbackTarget.startSectionCB(classType);
-        out.println();
-        String s = "<" + WriterVocabulary.T_ONTO_PREFIX + Ontology.CLASS_TOKEN[classType] + T_SPACE
-                + WriterVocabulary.T_RDF_ABOUT + "=\"" + id + "\">";
-        out.println(s);
+        this.encoder.writeStartSection(out, classType, id);
     }
 
     @Override
     public void startAboutSection(int classType, String id) {
         callbackTarget.startAboutSectionCB(classType);
-        out.println();
-        String s = "<" + WriterVocabulary.T_ONTO_PREFIX + Ontology.CLASS_TOKEN[classType] + T_SPACE
-                + WriterVocabulary.T_RDF_ABOUT + "=\"" + id + "\">";
-        out.println(s);
+        this.encoder.writeStartSection(out, classType, id);
     }
 
     @Override
     public void endSection(int classType) {
-        String s = "</" + WriterVocabulary.T_ONTO_PREFIX + Ontology.CLASS_TOKEN[classType] + ">";
-        out.println(s);
+        this.encoder.writeEndSection(out, classType);
     }
 
     @Override
     public void addProperty(int property, String value, boolean isResource) {
         callbackTarget.addPropertyCB(property);
-
-        String s;
-        if (isResource) {
-            s = "   <" + WriterVocabulary.T_ONTO_PREFIX + Ontology.PROP_TOKEN[property] + T_SPACE
-                    + WriterVocabulary.T_RDF_RES + "=\"" + value + "\" />";
-        } else { // literal
-            s = "   <" + WriterVocabulary.T_ONTO_PREFIX + Ontology.PROP_TOKEN[property] + ">" + value + "</"
-                    + WriterVocabulary.T_ONTO_PREFIX + Ontology.PROP_TOKEN[property] + ">";
-        }
-
-        out.println(s);
+        this.encoder.writeProperty(out, property, value, isResource);
     }
 
     @Override
     public void addProperty(int property, int valueClass, String valueId) {
         callbackTarget.addPropertyCB(property);
         callbackTarget.addValueClassCB(valueClass);
+        this.encoder.writeProperty(out, property, valueClass, valueId);
+    }
 
-        String s;
-        s = "   <" + WriterVocabulary.T_ONTO_PREFIX + Ontology.PROP_TOKEN[property] + ">\n" + "      <"
-                + WriterVocabulary.T_ONTO_PREFIX + Ontology.CLASS_TOKEN[valueClass] + T_SPACE
-                + WriterVocabulary.T_RDF_ABOUT + "=\"" + valueId + "\" />" + "   </" + WriterVocabulary.T_ONTO_PREFIX
-                + Ontology.PROP_TOKEN[property] + ">";
-
-        out.println(s);
+    @Override
+    public void addUniversityProperty(int property, int univIndex, String univId) {
+        addProperty(property, Ontology.CS_C_UNIV, univId);
     }
 
     /**
      * Writes the header part.
      */
-    protected abstract void writeHeader(PrintStream output);
+    protected abstract void writeHeader(OutputSink output);
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+package edu.lehigh.swat.bench.uba.writers;
+
+import edu.lehigh.swat.bench.uba.model.Ontology;
+import edu.lehigh.swat.bench.uba.writers.utils.EncodingBuffer;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
+
+/**
+ * Encodes the RDF/XML elements written by {@link RdfWriter} directly to bytes
+ * <p>
+ * Element names only depend on the ontology prefix and not the ontology URL
+ * so the opening and closing tags for every class and property are encoded
+ * once up front. Each element is then built in a reusable buffer by copying
+ * the tags around the value and written to the output with a single call.
+ * </p>
+ */
+class RdfXmlEncoder {
+
+    private static final String LINE_END = System.getProperty("line.separator");
+
+    private static final byte[] SECTION_START = EncodingBuffer.encode(LINE_END);
+    private static final byte[] ABOUT_END = EncodingBuffer.encode("\">" + LINE_END);
+    private static final byte[] RESOURCE = EncodingBuffer
+            .encode(AbstractWriter.T_SPACE + WriterVocabulary.T_RDF_RES + "=\"");
+    private static final byte[] EMPTY_ELEMENT_END = EncodingBuffer.encode("\" />" + LINE_END);
+    private static final byte[] LITERAL = EncodingBuffer.encode(">");
+    private static final byte[] TYPED_VALUE = EncodingBuffer.encode(">\n      ");
+    private static final byte[] TYPED_VALUE_END = EncodingBuffer.encode("\" />   ");
+
+    /** {@code <ub:Class rdf:about="}, indexed by class */
+    private static final byte[][] CLASS_ABOUT = new byte[Ontology.CLASS_NUM][];
+    /** {@code </ub:Class>}, indexed by class */
+    private static final byte[][] CLASS_CLOSE = new byte[Ontology.CLASS_NUM][];
+    /** {@code    <ub:property}, indexed by property */
+    private static final byte[][] PROPERTY_OPEN = new byte[Ontology.PROP_NUM][];
+    /** {@code </ub:property>}, indexed by property */
+    private static final byte[][] PROPERTY_CLOSE = new byte[Ontology.PROP_NUM][];
+
+    static {
+        for (int i = 0; i < Ontology.CLASS_NUM; i++) {
+            String element = WriterVocabulary.T_ONTO_PREFIX + Ontology.CLASS_TOKEN[i];
+            CLASS_ABOUT[i] = EncodingBuffer
+                    .encode("<" + element + AbstractWriter.T_SPACE + WriterVocabulary.T_RDF_ABOUT + "=\"");
+            CLASS_CLOSE[i] = EncodingBuffer.encode("</" + element + ">" + LINE_END);
+        }
+        for (int i = 0; i < Ontology.PROP_NUM; i++) {
+            String element = WriterVocabulary.T_ONTO_PREFIX + Ontology.PROP_TOKEN[i];
+            PROPERTY_OPEN[i] = EncodingBuffer.encode("   <" + element);
+            PROPERTY_CLOSE[i] = EncodingBuffer.encode("</" + element + ">" + LINE_END);
+        }
+    }
+
+    private final EncodingBuffer buffer = new EncodingBuffer();
+
+    /**
+     * Writes the start of a section
+     *
+     * @param out
+     *            Output sink
+     * @param classType
+     *            Class
+     * @param id
+     *            ID of the instance
+     */
+    public void writeStartSection(OutputSink out, int classType, String id) {
+        this.buffer.append(SECTION_START);
+        this.buffer.append(CLASS_ABOUT[classType]);
+        this.buffer.append(id);
+        this.buffer.append(ABOUT_END);
+        this.buffer.writeTo(out);
+    }
+
+    /**
+     * Writes the end of a section
+     *
+     * @param out
+     *            Output sink
+     * @param classType
+     *            Class
+     */
+    public void writeEndSection(OutputSink out, int classType) {
+        out.write(CLASS_CLOSE[classType]);
+    }
+
+    /**
+     * Writes a property
+     *
+     * @param out
+     *            Output sink
+     * @param property
+     *            Property
+     * @param value
+     *            Value
+     * @param isResource
+     *            Whether the value is a resource (True) or a literal (False)
+     */
+    public void writeProperty(OutputSink out, int property, String value, boolean isResource) {
+        this.buffer.append(PROPERTY_OPEN[property]);
+        if (isResource) {
+            this.buffer.append(RESOURCE);
+            this.buffer.append(value);
+            this.buffer.append(EMPTY_ELEMENT_END);
+        } else {
+            this.buffer.append(LITERAL);
+            this.buffer.append(value);
+            this.buffer.append(PROPERTY_CLOSE[property]);
+        }
+        this.buffer.writeTo(out);
+    }
+
+    /**
+     * Writes a property whose value is a typed resource
+     *
+     * @param out
+     *            Output sink
+     * @param property
+     *            Property
+     * @param valueClass
+     *            Class of the value
+     * @param valueId
+     *            ID of the value
+     */
+    public void writeProperty(OutputSink out, int property, int valueClass, String valueId) {
+        this.buffer.append(PROPERTY_OPEN[property]);
+        this.buffer.append(TYPED_VALUE);
+        this.buffer.append(CLASS_ABOUT[valueClass]);
+        this.buffer.append(valueId);
+        this.buffer.append(TYPED_VALUE_END);
+        this.buffer.append(PROPERTY_CLOSE[property]);
+        this.buffer.writeTo(out);
+    }
+}
@@ -0,0 +1,71 @@
+package edu.lehigh.swat.bench.uba.writers;
+
+import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
+import edu.lehigh.swat.bench.uba.GlobalState;
+
+/**
+ * A writer that produces TriG where each triple is placed in the named graph
+ * of the university or department that owns it, see {@link GraphMode}
+ * <p>
+ * Statements are written as for Turtle with a graph block for each university
+ * and department section, the ontology declaration is written outside of any
+ * graph block so belongs to the default graph.
+ * </p>
+ */
+public class TrigWriter extends TurtleWriter {
+
+    private final GraphMode graphMode;
+    /** graph of the current section and graph of the open graph block */
+    private String graph, openGraph;
+
+    public TrigWriter(GeneratorCallbackTarget target, String ontologyUrl, GraphMode graphMode) {
+        super(target, ontologyUrl);
+        this.graphMode = graphMode;
+    }
+
+    @Override
+    public void startFile(String fileName, GlobalState state) {
+        this.graph = null;
+        super.startFile(fileName, state);
+    }
+
+    @Override
+    public void startFragment(GlobalState state, boolean continuation) {
+        this.graph = null;
+        super.startFragment(state, continuation);
+    }
+
+    @Override
+    protected void newSection(int classType, String id) {
+        String sectionGraph = this.graphMode.getGraph(classType, id);
+        if (sectionGraph != null) {
+            // Departments generated in parallel are written in their own graph
+            // blocks so always start a new block to produce the same output
+            endStatements();
+            this.graph = sectionGraph;
+        }
+        super.newSection(classType, id);
+    }
+
+    @Override
+    protected void switchSubject(String subject) {
+        if (this.graph != null ? !this.graph.equals(this.openGraph) : this.openGraph != null) {
+            endStatements();
+            if (this.graph != null) {
+                out.print(subjectOrObjectUri(this.graph));
+                out.println(" {");
+                this.openGraph = this.graph;
+            }
+        }
+        super.switchSubject(subject);
+    }
+
+    @Override
+    protected void endStatements() {
+        super.endStatements();
+        if (this.openGraph != null) {
+            out.println('}');
+            this.openGraph = null;
+        }
+    }
+}
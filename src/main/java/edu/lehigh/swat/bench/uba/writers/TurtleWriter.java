@@ -1,13 +1,15 @@
 package edu.lehigh.swat.bench.uba.writers;
 
 import java.io.OutputStream;
-import java.io.PrintStream;
 import java.util.HashMap;
 import java.util.Map;
 
 import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
 import edu.lehigh.swat.bench.uba.GlobalState;
 import edu.lehigh.swat.bench.uba.model.Ontology;
+import edu.lehigh.swat.bench.uba.writers.utils.BufferSizes;
+import edu.lehigh.swat.bench.uba.writers.utils.BufferedOutputSink;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
 
 public class TurtleWriter extends FlatWriter {
 
@@ -23,25 +25,51 @@ public class TurtleWriter extends FlatWriter {
         this.out = prepareOutputStream(fileName, state);
 
         // Add prefix declarations
-        prefix(WriterVocabulary.T_RDF_NS, WriterVocabulary.T_RDF_NS_URI);
-        prefix(WriterVocabulary.T_RDFS_NS, WriterVocabulary.T_RDFS_NS_URI);
-        prefix(WriterVocabulary.T_OWL_NS, WriterVocabulary.T_OWL_NS_URI);
-        if (this.ontologyUrl.endsWith("#") || this.ontologyUrl.endsWith("/")) {
-            prefix(WriterVocabulary.T_ONTO_NS, this.ontologyUrl);
-        } else {
-            prefix(WriterVocabulary.T_ONTO_NS, this.ontologyUrl + "#");
-        }
+        prefixes(true);
 
         addOntologyDeclaration();
     }
+
+    @Override
+    public void startFragment(GlobalState state, boolean continuation) {
+        super.startFragment(state, continuation);
+
+        // Prefixes are declared by the writer the fragment is appended to but
+        // we still need to know them in order to use prefixed names
+        prefixes(false);
+    }
+
+    @Override
+    public WriterFragment endFragment(GlobalState state) {
+        endStatements();
+
+        return super.endFragment(state);
+    }
+
+    @Override
+    public void appendFragment(GlobalState state, WriterFragment fragment) {
+        // Fragments always start a new subject
+        endStatements();
+
+        super.appendFragment(state, fragment);
+    }
     
+    @Override
+    public void flushFile(GlobalState state) {
+        // With Full consolidation the next university follows on from here
+        // starting with its prefix declarations
+        endStatements();
+
+        super.flushFile(state);
+    }
+
     @Override
     public void endFile(GlobalState state, OutputStream output) {
         if (lastSubject != null) {
-            PrintStream print = new PrintStream(output);
-            print.println('.');
+            OutputSink sink = new BufferedOutputSink(output, BufferSizes.SINK_BUFFER_SIZE);
+            sink.println('.');
             lastSubject = null;
-            print.flush();
+            sink.flush();
         }
         
         super.endFile(state, output);
@@ -49,41 +77,90 @@ public class TurtleWriter extends FlatWriter {
 
     @Override
     public void endFile(GlobalState state) {
-        if (lastSubject != null) {
-            endPredicateObjectList();
-        }
+        endStatements();
 
         super.endFile(state);
     }
 
-    protected void prefix(String prefix, String uri) {
-        out.format("@prefix %s: <%s> .", prefix, uri);
+    protected void prefixes(boolean declare) {
+        prefix(WriterVocabulary.T_RDF_NS, WriterVocabulary.T_RDF_NS_URI, declare);
+        prefix(WriterVocabulary.T_RDFS_NS, WriterVocabulary.T_RDFS_NS_URI, declare);
+        prefix(WriterVocabulary.T_OWL_NS, WriterVocabulary.T_OWL_NS_URI, declare);
+        if (this.ontologyUrl.endsWith("#") || this.ontologyUrl.endsWith("/")) {
+            prefix(WriterVocabulary.T_ONTO_NS, this.ontologyUrl, declare);
+        } else {
+            prefix(WriterVocabulary.T_ONTO_NS, this.ontologyUrl + "#", declare);
+        }
+    }
+
+    protected void prefix(String prefix, String uri, boolean declare) {
+        if (declare) {
+            declarePrefix(prefix, uri);
+        }
         prefixes.put(uri, prefix);
-        out.println();
+    }
+
+    protected void declarePrefix(String prefix, String uri) {
+        out.print("@prefix ");
+        out.print(prefix);
+        out.print(": <");
+        out.print(uri);
+        out.println("> .");
     }
 
     @Override
     protected void addTriple(String property, String object, boolean isResource) {
-        String currSubject = this.getCurrentSubject();
+        addPredicateObject(this.getCurrentSubject(), predicate(property),
+                isResource ? subjectOrObjectUri(object) : literal(object));
+    }
+
+    /**
+     * Adds a predicate and object to the predicate object list for the given
+     * subject, starting a new list if the subject has changed
+     * 
+     * @param subject
+     *            Subject URI
+     * @param predicate
+     *            Predicate as it should be written
+     * @param object
+     *            Object as it should be written
+     */
+    protected void addPredicateObject(String subject, String predicate, String object) {
+        switchSubject(subject);
+        out.print(' ');
+        out.print(predicate);
+        out.print(' ');
+        out.print(object);
+        out.println(" ;");
+    }
 
+    /**
+     * Ensures the current predicate object list is for the given subject,
+     * ending the current list and starting a new one if necessary
+     * 
+     * @param subject
+     *            Subject URI
+     */
+    protected void switchSubject(String subject) {
         if (lastSubject != null) {
-            if (!lastSubject.equals(currSubject)) {
+            if (!lastSubject.equals(subject)) {
                 // Start new predicate object list
                 endPredicateObjectList();
-                startPredicateObjectList(currSubject);
+                startPredicateObjectList(subject);
             }
         } else {
-            startPredicateObjectList(currSubject);
+            startPredicateObjectList(subject);
         }
-        out.print(' ');
-        out.print(predicate(property));
-        out.print(' ');
-        if (isResource) {
-            out.print(subjectOrObjectUri(object));
-        } else {
-            out.format("\"%s\"", object);
+    }
+
+    /**
+     * Ends any statements that are in progress so that the output may be ended
+     * or have other output appended to it
+     */
+    protected void endStatements() {
+        if (lastSubject != null) {
+            endPredicateObjectList();
         }
-        out.println(" ;");
     }
 
     protected void endPredicateObjectList() {
@@ -92,24 +169,18 @@ public class TurtleWriter extends FlatWriter {
     }
 
     protected void startPredicateObjectList(String currSubject) {
-        out.print(subjectOrObjectUri(currSubject));
+        writeSubject(currSubject);
         lastSubject = currSubject;
     }
 
+    protected void writeSubject(String subject) {
+        out.print(subjectOrObjectUri(subject));
+    }
+
     @Override
     protected void addTypeTriple(String subject, int classType) {
         String classUrl = String.format("%s#%s", this.ontologyUrl, Ontology.CLASS_TOKEN[classType]);
-        if (lastSubject != null) {
-            if (!lastSubject.equals(subject)) {
-                endPredicateObjectList();
-                startPredicateObjectList(subject);
-            }
-        } else {
-            startPredicateObjectList(subject);
-        }
-        out.print(" a ");
-        out.print(subjectOrObjectUri(classUrl));
-        out.println(" ;");
+        addPredicateObject(subject, "a", subjectOrObjectUri(classUrl));
     }
 
     private String shorten(String uri, boolean predicate) {
@@ -124,7 +195,11 @@ public class TurtleWriter extends FlatWriter {
         return null;
     }
 
-    private String subjectOrObjectUri(String uri) {
+    protected String literal(String value) {
+        return "\"" + value + "\"";
+    }
+
+    protected String subjectOrObjectUri(String uri) {
         String pname = shorten(uri, false);
         if (pname != null) {
             return pname;
@@ -133,7 +208,7 @@ public class TurtleWriter extends FlatWriter {
         }
     }
 
-    private String predicate(String uri) {
+    protected String predicate(String uri) {
         String pname = shorten(uri, true);
         if (pname != null) {
             return pname;
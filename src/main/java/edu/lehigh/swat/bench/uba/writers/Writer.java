@@ -73,6 +73,44 @@ public interface Writer {
      */
     public void endFile(GlobalState state, OutputStream output);
 
+    /**
+     * Starts a fragment, fragments are used when the departments of a
+     * university are generated in parallel and hold the output of a single
+     * department in memory until it can be appended to the university's file
+     * by {@link #appendFragment(GlobalState, WriterFragment)}
+     * <p>
+     * A fragment contains only the department's data, any file level headers
+     * and footers are written by the writer the fragment is appended to.
+     * </p>
+     * 
+     * @param state
+     *            Global state
+     * @param continuation
+     *            Whether the fragment continues a file that will already have
+     *            had data appended to it
+     */
+    public void startFragment(GlobalState state, boolean continuation);
+
+    /**
+     * Ends the current fragment
+     * 
+     * @param state
+     *            Global state
+     * @return Fragment
+     */
+    public WriterFragment endFragment(GlobalState state);
+
+    /**
+     * Appends a fragment produced by another writer of the same type to the
+     * current file
+     * 
+     * @param state
+     *            Global state
+     * @param fragment
+     *            Fragment
+     */
+    public void appendFragment(GlobalState state, WriterFragment fragment);
+
     /**
      * Starts a section for the specified instance.
      * 
@@ -127,4 +165,20 @@ public interface Writer {
      *            Id of the individual.
      */
     public void addProperty(int property, int valueClass, String valueId);
+
+    /**
+     * Adds a property statement for the current element whose value is a
+     * university, this is equivalent to
+     * {@link #addProperty(int, int, String)} with a value class of
+     * {@link edu.lehigh.swat.bench.uba.model.Ontology#CS_C_UNIV} except that
+     * the index of the university is also given.
+     * 
+     * @param property
+     *            Type of the property.
+     * @param univIndex
+     *            Index of the university.
+     * @param univId
+     *            Id of the university.
+     */
+    public void addUniversityProperty(int property, int univIndex, String univId);
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package edu.lehigh.swat.bench.uba.writers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import edu.lehigh.swat.bench.uba.GlobalState;
+import edu.lehigh.swat.bench.uba.writers.utils.FragmentBuffer;
+
+/**
+ * The output of a single department that was generated independently of the
+ * rest of its university
+ * <p>
+ * Fragments are produced by {@link Writer#endFragment(GlobalState)} and later
+ * spliced into the output of the university by
+ * {@link Writer#appendFragment(GlobalState, WriterFragment)}
+ * </p>
+ */
+public class WriterFragment {
+
+    private final List<FragmentBuffer> outputs;
+    private final Object pending;
+
+    /**
+     * Creates a new fragment
+     * 
+     * @param outputs
+     *            Buffered outputs, one for each output stream of the writer
+     * @param pending
+     *            Writer specific state that must be carried over to the writer
+     *            the fragment is appended to, may be {@code null}
+     */
+    public WriterFragment(List<FragmentBuffer> outputs, Object pending) {
+        this.outputs = outputs;
+        this.pending = pending;
+    }
+
+    /**
+     * Gets the number of outputs in the fragment
+     * 
+     * @return Number of outputs
+     */
+    public int getOutputCount() {
+        return this.outputs.size();
+    }
+
+    /**
+     * Writes one of the outputs of the fragment to the given stream
+     * 
+     * @param output
+     *            Output index
+     * @param stream
+     *            Stream to write to
+     * @throws IOException
+     */
+    public void writeTo(int output, OutputStream stream) throws IOException {
+        this.outputs.get(output).writeTo(stream);
+    }
+
+    /**
+     * Discards the outputs of the fragment, this should be called once the
+     * fragment has been appended or is no longer needed
+     */
+    public void discard() {
+        for (FragmentBuffer output : this.outputs) {
+            output.discard();
+        }
+    }
+
+    /**
+     * Gets the writer specific state that must be carried over to the writer
+     * the fragment is appended to
+     * 
+     * @return Pending state, may be {@code null}
+     */
+    public Object getPending() {
+        return this.pending;
+    }
+}
@@ -5,8 +5,17 @@ public enum WriterType {
  DAML,
  NTRIPLES,
  TURTLE,
+ TURTLE_COMPACT,
+ NQUADS,
+ TRIG,
+ BINARY_RDF,
+ HDT,
+ ID_TRIPLES,
+ VERTICAL_PARTITIONS,
  GRAPHML,
  GRAPHML_NODESFIRST,
  NEO4J_GRAPHML,
- JSON
+ NEO4J_CSV,
+ JSON,
+ JSON_LINES
 }
@@ -0,0 +1,84 @@
+package edu.lehigh.swat.bench.uba.writers.binary;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants for the binary RDF format
+ * <p>
+ * A file consists of one or more segments, each of which starts with a header
+ * followed by any number of triple records. Segments are self contained so
+ * files may be concatenated, a new segment starts at each university and
+ * wherever the output of a department generated in parallel is appended.
+ * </p>
+ * <p>
+ * The header is the {@link #MAGIC} bytes, the {@link #VERSION} byte, the size
+ * of the term table, the number of vocabulary terms and then the vocabulary
+ * terms themselves as strings. A triple record is the {@link #TRIPLE} byte
+ * followed by the subject, predicate and object terms.
+ * </p>
+ * <p>
+ * Each term is an unsigned variable length integer code:
+ * </p>
+ * <ul>
+ * <li>{@link #NEW_IRI} - An IRI string follows, the IRI is stored in the next
+ * slot of the term table replacing any IRI previously stored there</li>
+ * <li>{@link #LITERAL} - A literal string follows</li>
+ * <li>{@link #VOCABULARY} plus N - The Nth vocabulary term</li>
+ * <li>{@link #VOCABULARY} plus the number of vocabulary terms plus N - The IRI
+ * in the Nth slot of the term table</li>
+ * </ul>
+ * <p>
+ * The slots of the term table are used in order wrapping around to the first
+ * slot once the table is full, so a reader always knows where a new IRI is
+ * stored without it being written. Strings are the variable length integer
+ * number of bytes followed by the UTF-8 encoded bytes. Variable length
+ * integers are encoded 7 bits at a time, least significant first, with the high
+ * bit set on all bytes but the last.
+ * </p>
+ */
+public class BinaryRdfFormat {
+
+    private BinaryRdfFormat() {
+    }
+
+    /**
+     * Magic bytes that start each segment
+     */
+    public static final byte[] MAGIC = { 'U', 'B', 'A', 'R' };
+
+    /**
+     * Format version
+     */
+    public static final byte VERSION = 1;
+
+    /**
+     * Record type for a triple
+     */
+    public static final byte TRIPLE = 1;
+
+    /**
+     * Term code for a new IRI
+     */
+    public static final int NEW_IRI = 0;
+
+    /**
+     * Term code for a literal
+     */
+    public static final int LITERAL = 1;
+
+    /**
+     * Term code of the first vocabulary term
+     */
+    public static final int VOCABULARY = 2;
+
+    /**
+     * Default size of the term table
+     */
+    public static final int DEFAULT_TABLE_SIZE = 16 * 1024;
+
+    /**
+     * Character set for strings
+     */
+    public static final Charset CHARSET = StandardCharsets.UTF_8;
+}
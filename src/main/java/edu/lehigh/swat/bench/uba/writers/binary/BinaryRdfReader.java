@@ -0,0 +1,182 @@
+package edu.lehigh.swat.bench.uba.writers.binary;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import edu.lehigh.swat.bench.uba.writers.utils.BufferSizes;
+
+/**
+ * Reads the binary RDF format described in {@link BinaryRdfFormat}
+ * <p>
+ * Call {@link #next()} to advance to each triple in turn and then use the
+ * getters to access the current triple. IRIs that are repeated are returned
+ * as the same string instance so a reader does no work for a repeated IRI
+ * beyond looking it up in the term table.
+ * </p>
+ */
+public class BinaryRdfReader implements Closeable {
+
+    private final InputStream input;
+    private String[] vocabulary = new String[0];
+    private String[] table = new String[0];
+    private int nextSlot = 0;
+    private byte[] bytes = new byte[256];
+
+    private String subject, predicate, object;
+    private boolean literal;
+
+    /**
+     * Creates a new reader
+     *
+     * @param input
+     *            Input stream
+     */
+    public BinaryRdfReader(InputStream input) {
+        this.input = new BufferedInputStream(input, BufferSizes.OUTPUT_BUFFER_SIZE);
+    }
+
+    /**
+     * Advances to the next triple
+     *
+     * @return True if there was another triple, false if the end of the input
+     *         was reached
+     * @throws IOException
+     *             Thrown if the input can't be read or is not valid
+     */
+    public boolean next() throws IOException {
+        int type = this.input.read();
+        while (type == BinaryRdfFormat.MAGIC[0]) {
+            readHeader();
+            type = this.input.read();
+        }
+        if (type == -1)
+            return false;
+        if (type != BinaryRdfFormat.TRIPLE)
+            throw new IOException("Unexpected record type " + type);
+        if (this.table.length == 0)
+            throw new IOException("Triple found before any segment header");
+
+        this.subject = readTerm();
+        this.predicate = readTerm();
+        this.object = readTerm();
+        return true;
+    }
+
+    /**
+     * Gets the subject IRI of the current triple
+     *
+     * @return Subject
+     */
+    public String getSubject() {
+        return this.subject;
+    }
+
+    /**
+     * Gets the predicate IRI of the current triple
+     *
+     * @return Predicate
+     */
+    public String getPredicate() {
+        return this.predicate;
+    }
+
+    /**
+     * Gets the object of the current triple
+     *
+     * @return Object, an IRI unless {@link #isObjectLiteral()} is true
+     */
+    public String getObject() {
+        return this.object;
+    }
+
+    /**
+     * Gets whether the object of the current triple is a literal
+     *
+     * @return True if a literal, false if an IRI
+     */
+    public boolean isObjectLiteral() {
+        return this.literal;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.input.close();
+    }
+
+    private void readHeader() throws IOException {
+        for (int i = 1; i < BinaryRdfFormat.MAGIC.length; i++) {
+            if (readByte() != BinaryRdfFormat.MAGIC[i])
+                throw new IOException("Invalid segment header");
+        }
+        int version = readByte();
+        if (version != BinaryRdfFormat.VERSION)
+            throw new IOException("Unsupported format version " + version);
+
+        this.table = new String[readInt()];
+        this.nextSlot = 0;
+        if (this.table.length == 0)
+            throw new IOException("Invalid term table size");
+        this.vocabulary = new String[readInt()];
+        for (int i = 0; i < this.vocabulary.length; i++) {
+            this.vocabulary[i] = readString();
+        }
+    }
+
+    private String readTerm() throws IOException {
+        int code = readInt();
+        this.literal = false;
+        switch (code) {
+        case BinaryRdfFormat.NEW_IRI:
+            String iri = readString();
+            this.table[this.nextSlot] = iri;
+            this.nextSlot = (this.nextSlot + 1) % this.table.length;
+            return iri;
+        case BinaryRdfFormat.LITERAL:
+            this.literal = true;
+            return readString();
+        default:
+            code -= BinaryRdfFormat.VOCABULARY;
+            if (code < this.vocabulary.length)
+                return this.vocabulary[code];
+            code -= this.vocabulary.length;
+            if (code >= this.table.length || this.table[code] == null)
+                throw new IOException("Invalid term table reference " + code);
+            return this.table[code];
+        }
+    }
+
+    private String readString() throws IOException {
+        int len = readInt();
+        if (len > this.bytes.length)
+            this.bytes = new byte[Math.max(len, this.bytes.length * 2)];
+        int read = 0;
+        while (read < len) {
+            int n = this.input.read(this.bytes, read, len - read);
+            if (n < 0)
+                throw new EOFException();
+            read += n;
+        }
+        return new String(this.bytes, 0, len, BinaryRdfFormat.CHARSET);
+    }
+
+    private int readInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Invalid variable length integer");
+    }
+
+    private int readByte() throws IOException {
+        int b = this.input.read();
+        if (b < 0)
+            throw new EOFException();
+        return b;
+    }
+}
@@ -0,0 +1,182 @@
+package edu.lehigh.swat.bench.uba.writers.binary;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
+import edu.lehigh.swat.bench.uba.GlobalState;
+import edu.lehigh.swat.bench.uba.model.Ontology;
+import edu.lehigh.swat.bench.uba.writers.FlatWriter;
+import edu.lehigh.swat.bench.uba.writers.WriterFragment;
+import edu.lehigh.swat.bench.uba.writers.utils.EncodingBuffer;
+
+/**
+ * A writer that produces the binary RDF format described in
+ * {@link BinaryRdfFormat}
+ * <p>
+ * The ontology properties and classes form the vocabulary so are always
+ * written as small fixed codes. Any other IRI is written out in full the first
+ * time it is used and then referred to by its slot in the term table until it
+ * is replaced by a newer IRI. Literals are always written out in full.
+ * </p>
+ */
+public class BinaryRdfWriter extends FlatWriter {
+
+    private final EncodingBuffer buffer = new EncodingBuffer();
+    private final String[] vocabulary;
+    private final Map<String, Integer> vocabularyCodes = new HashMap<>();
+    private final int propertyCodes, classCodes, tableCodes;
+    private final String[] table = new String[BinaryRdfFormat.DEFAULT_TABLE_SIZE];
+    private final Map<String, Integer> slots = new HashMap<>();
+    private int nextSlot = 0;
+
+    public BinaryRdfWriter(GeneratorCallbackTarget target, String ontologyUrl) {
+        super(target, ontologyUrl);
+
+        this.vocabulary = new String[4 + Ontology.PROP_NUM + Ontology.CLASS_NUM];
+        this.vocabulary[0] = RDF_TYPE;
+        this.vocabulary[1] = OWL_ONTOLOGY;
+        this.vocabulary[2] = OWL_IMPORTS;
+        this.vocabulary[3] = ontologyUrl;
+        this.propertyCodes = BinaryRdfFormat.VOCABULARY + 4;
+        System.arraycopy(this.propertyUrls, 0, this.vocabulary, 4, Ontology.PROP_NUM);
+        this.classCodes = this.propertyCodes + Ontology.PROP_NUM;
+        for (int i = 0; i < Ontology.CLASS_NUM; i++) {
+            this.vocabulary[4 + Ontology.PROP_NUM + i] = ontologyUrl + "#" + Ontology.CLASS_TOKEN[i];
+        }
+        this.tableCodes = BinaryRdfFormat.VOCABULARY + this.vocabulary.length;
+
+        for (int i = 0; i < this.vocabulary.length; i++) {
+            if (!this.vocabularyCodes.containsKey(this.vocabulary[i]))
+                this.vocabularyCodes.put(this.vocabulary[i], BinaryRdfFormat.VOCABULARY + i);
+        }
+    }
+
+    @Override
+    public void startFile(String fileName, GlobalState state) {
+        this.out = prepareOutputStream(fileName, state);
+        startSegment();
+        addOntologyDeclaration();
+    }
+
+    @Override
+    public void startFragment(GlobalState state, boolean continuation) {
+        super.startFragment(state, continuation);
+
+        // Each fragment has its own term table so is a segment in its own
+        // right
+        startSegment();
+    }
+
+    @Override
+    public void appendFragment(GlobalState state, WriterFragment fragment) {
+        super.appendFragment(state, fragment);
+
+        // The reader is now using the fragment's term table
+        startSegment();
+    }
+
+    private void startSegment() {
+        Arrays.fill(this.table, null);
+        this.slots.clear();
+        this.nextSlot = 0;
+
+        this.buffer.append(BinaryRdfFormat.MAGIC);
+        this.buffer.append(BinaryRdfFormat.VERSION);
+        appendInt(this.table.length);
+        appendInt(this.vocabulary.length);
+        for (String term : this.vocabulary) {
+            appendString(term);
+        }
+        this.buffer.writeTo(out);
+    }
+
+    @Override
+    protected void addTriple(String property, String object, boolean isResource) {
+        this.buffer.append(BinaryRdfFormat.TRIPLE);
+        appendIri(this.getCurrentSubject());
+        appendTerm(property, true);
+        appendTerm(object, isResource);
+        this.buffer.writeTo(out);
+    }
+
+    @Override
+    protected void addPropertyTriple(int property, String object, boolean isResource) {
+        this.buffer.append(BinaryRdfFormat.TRIPLE);
+        appendIri(this.getCurrentSubject());
+        appendInt(this.propertyCodes + property);
+        if (isResource) {
+            appendIri(object);
+        } else {
+            appendInt(BinaryRdfFormat.LITERAL);
+            appendString(object);
+        }
+        this.buffer.writeTo(out);
+    }
+
+    @Override
+    protected void addTypeTriple(String subject, int classType) {
+        this.buffer.append(BinaryRdfFormat.TRIPLE);
+        appendIri(subject);
+        appendInt(BinaryRdfFormat.VOCABULARY);
+        appendInt(this.classCodes + classType);
+        this.buffer.writeTo(out);
+    }
+
+    private void appendTerm(String term, boolean isResource) {
+        if (!isResource) {
+            appendInt(BinaryRdfFormat.LITERAL);
+            appendString(term);
+            return;
+        }
+        Integer code = this.vocabularyCodes.get(term);
+        if (code != null) {
+            appendInt(code);
+        } else {
+            appendIri(term);
+        }
+    }
+
+    private void appendIri(String iri) {
+        Integer slot = this.slots.get(iri);
+        if (slot != null) {
+            appendInt(this.tableCodes + slot);
+            return;
+        }
+
+        appendInt(BinaryRdfFormat.NEW_IRI);
+        appendString(iri);
+
+        // Store in the next slot replacing the previous IRI
+        String previous = this.table[this.nextSlot];
+        if (previous != null)
+            this.slots.remove(previous);
+        this.table[this.nextSlot] = iri;
+        this.slots.put(iri, this.nextSlot);
+        this.nextSlot = (this.nextSlot + 1) % this.table.length;
+    }
+
+    private void appendString(String value) {
+        int len = value.length();
+        for (int i = 0; i < len; i++) {
+            if (value.charAt(i) >= 0x80) {
+                byte[] bytes = value.getBytes(BinaryRdfFormat.CHARSET);
+                appendInt(bytes.length);
+                this.buffer.append(bytes);
+                return;
+            }
+        }
+        // ASCII so the number of bytes is the number of characters
+        appendInt(len);
+        this.buffer.append(value);
+    }
+
+    private void appendInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            this.buffer.append((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        this.buffer.append((byte) value);
+    }
+}
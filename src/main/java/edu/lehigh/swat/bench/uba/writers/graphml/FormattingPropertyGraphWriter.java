@@ -1,9 +1,9 @@
 package edu.lehigh.swat.bench.uba.writers.graphml;
 
-import java.io.PrintStream;
-
 import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
 import edu.lehigh.swat.bench.uba.GlobalState;
+import edu.lehigh.swat.bench.uba.writers.WriterFragment;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
 
 public abstract class FormattingPropertyGraphWriter extends PropertyGraphWriter {
 
@@ -22,6 +22,22 @@ public abstract class FormattingPropertyGraphWriter extends PropertyGraphWriter
         this.formatter.newFile();
     }
     
+    @Override
+    public void startFragment(GlobalState state, boolean continuation) {
+        super.startFragment(state, continuation);
+        this.formatter.newFile();
+        if (continuation)
+            this.formatter.continueFile();
+    }
+
+    @Override
+    public void appendFragment(GlobalState state, WriterFragment fragment) {
+        super.appendFragment(state, fragment);
+
+        // Anything we subsequently write follows the fragment's data
+        this.formatter.continueFile();
+    }
+
     @Override
     public void flushFile(GlobalState state) {
         if (this.getNodeOutput() != null)
@@ -36,11 +52,11 @@ public abstract class FormattingPropertyGraphWriter extends PropertyGraphWriter
         this.formatter.formatNode(n, getNodeOutput());
     }
 
-    protected PrintStream getNodeOutput() {
+    protected OutputSink getNodeOutput() {
         return this.out;
     }
     
-    protected PrintStream getEdgeOutput() {
+    protected OutputSink getEdgeOutput() {
         return this.out;
     }
 
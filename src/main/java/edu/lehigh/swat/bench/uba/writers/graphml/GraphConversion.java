@@ -0,0 +1,35 @@
+package edu.lehigh.swat.bench.uba.writers.graphml;
+
+import edu.lehigh.swat.bench.uba.writers.WriterType;
+
+/**
+ * Possible conversions of generated property graphs, see
+ * {@link GraphFormatConverter}
+ */
+public enum GraphConversion {
+    /**
+     * Reorders {@link WriterType#GRAPHML} output so that all nodes precede all
+     * edges, as required for importing into Neo4j
+     */
+    Neo4j(WriterType.GRAPHML),
+    /**
+     * Combines the separate nodes and edges files of {@link WriterType#JSON}
+     * output into a single JSON document, as used for loading into GraphX
+     */
+    GraphX(WriterType.JSON);
+
+    private final WriterType input;
+
+    private GraphConversion(WriterType input) {
+        this.input = input;
+    }
+
+    /**
+     * Gets the output format the conversion applies to
+     * 
+     * @return Writer type
+     */
+    public WriterType getInputType() {
+        return this.input;
+    }
+}
@@ -1,125 +1,380 @@
 package edu.lehigh.swat.bench.uba.writers.graphml;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
-
-public class GraphFormatConverter { 
-	private static final int TYPE_NULL = 0;
-	private static final int TYPE_NODE = 1;
-	private static final int TYPE_EDGE = 2;
-	
-	public static void convertForNeo4j(String workingDirectory, String inputFile) throws IOException {
-		BufferedReader reader = new BufferedReader(new FileReader(workingDirectory + System.getProperty("file.separator") + inputFile));
-		PrintWriter nodeWriter = new PrintWriter(new FileWriter(workingDirectory + System.getProperty("file.separator") + "node.graphml"));
-		PrintWriter edgeWriter = new PrintWriter(new FileWriter(workingDirectory + System.getProperty("file.separator") + "edge.graphml"));
-		String line = null;
-		
-		while((line = reader.readLine()) != null) {
-			nodeWriter.println(line);
-			if(line.startsWith("<graph id"))
-				break;
-		}
-		
-		int type = TYPE_NULL;
-		while((line = reader.readLine()) != null) {
-			if(line.startsWith("<node"))
-				type = TYPE_NODE;
-			else if(line.startsWith("<edge") || line.startsWith("</graph>") || line.startsWith("</graphml>"))
-				type = TYPE_EDGE;
-			
-			if(type == TYPE_NODE)
-				nodeWriter.println(line);
-			else if(type == TYPE_EDGE)
-				edgeWriter.println(line);
-		}
-		
-		reader.close();
-		nodeWriter.close();
-		edgeWriter.close();
-		
-		reader = new BufferedReader(new FileReader(workingDirectory + System.getProperty("file.separator") + "node.graphml"));
-		PrintWriter writer = new PrintWriter(new FileWriter(workingDirectory + System.getProperty("file.separator") + "neo4j.graphml"));
-		while((line = reader.readLine()) != null) {
-			writer.println(line);
-		}
-		reader.close();
-		reader = new BufferedReader(new FileReader(workingDirectory + System.getProperty("file.separator") + "edge.graphml"));
-		while((line = reader.readLine()) != null) {
-			writer.println(line);
-		}
-		reader.close();
-		writer.close();
-		
-		File file = new File(workingDirectory + System.getProperty("file.separator") + "node.graphml");
-		if(file.exists())
-			file.delete();
-		
-		file = new File(workingDirectory + System.getProperty("file.separator") + "edge.graphml");
-		if(file.exists())
-			file.delete();
-		
-		file = new File(workingDirectory + System.getProperty("file.separator") + inputFile);
-		if(file.exists())
-			file.delete();
-		
-		file = new File(workingDirectory + System.getProperty("file.separator") + "neo4j.graphml");
-		if(file.exists())
-			file.renameTo(new File(workingDirectory + System.getProperty("file.separator") + inputFile));
-	}
-	
-	public static void convertForGraphX(String nodeFile, String edgeFile, String outputFile) throws IOException {
-		PrintWriter writer = new PrintWriter(new FileWriter(outputFile));
-		BufferedReader reader = new BufferedReader(new FileReader(nodeFile));
-		String previousLine = null, line = null;
-		
-		previousLine = reader.readLine();
-		while(true) {
-			line = reader.readLine().trim();
-			if(line.equals(""))continue;
-			
-			if(line.startsWith("]")) {
-				String tempLine = previousLine.trim();
-				writer.print(tempLine.substring(0, tempLine.length() - 1) + "]");
-				break;
-			}
-			else {
-				writer.print(previousLine.trim());
-			}
-			previousLine = line;
-		}
-		reader.close();
-		reader = new BufferedReader(new FileReader(edgeFile));
-		reader.readLine();
-		writer.print(",");
-		
-		previousLine = reader.readLine();
-		while(true) {
-			line = reader.readLine().trim();
-			if(line.equals(""))continue;
-			
-			if(line.startsWith("]")) {
-				String tempLine = previousLine.trim();
-				writer.print(tempLine.substring(0, tempLine.length() - 1) + "]}");
-				break;
-			}
-			else {
-				writer.print(previousLine.trim());
-			}
-			previousLine = line;
-		}
-		reader.close();
-		writer.close();
-		
-		File file = new File(nodeFile);
-		if(file.exists()) 
-			file.delete();
-		
-		file = new File(edgeFile);
-		if(file.exists())
-			file.delete();
-	}
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import edu.lehigh.swat.bench.uba.writers.utils.BufferSizes;
+
+/**
+ * Converts generated property graphs into the layouts expected by other tools
+ * <p>
+ * Conversions stream their inputs in a single pass, any segment that is
+ * copied unchanged is transferred directly between file channels where
+ * neither side is compressed. Files whose names end in {@code .gz} are
+ * decompressed or compressed as appropriate.
+ * </p>
+ */
+public class GraphFormatConverter {
+
+    private static final byte[] NODE = "<node".getBytes(), EDGE = "<edge".getBytes(),
+            GRAPH_END = "</graph".getBytes();
+
+    private GraphFormatConverter() {
+    }
+
+    /**
+     * Runs a conversion on the output of the generator, the converted files
+     * replace the generated files
+     * 
+     * @param conversion
+     *            Conversion
+     * @param outputDir
+     *            Output directory of the generator
+     * @param compress
+     *            Whether the output was compressed
+     * @return Converted file
+     * @throws IOException
+     *             Thrown if the conversion fails
+     */
+    public static File convertOutput(GraphConversion conversion, File outputDir, boolean compress)
+            throws IOException {
+        String suffix = compress ? ".gz" : "";
+        File output;
+        switch (conversion) {
+        case Neo4j:
+            File graph = new File(outputDir, "Universities.graphml" + suffix);
+            output = new File(outputDir, "Universities-neo4j.graphml" + suffix);
+            convertForNeo4j(graph, output);
+            graph.delete();
+            break;
+        case GraphX:
+            File nodes = new File(outputDir, "Universities-nodes.json" + suffix);
+            File edges = new File(outputDir, "Universities-edges.json" + suffix);
+            output = new File(outputDir, "Universities-graphx.json" + suffix);
+            convertForGraphX(nodes, edges, output);
+            nodes.delete();
+            edges.delete();
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown conversion " + conversion);
+        }
+        return output;
+    }
+
+    /**
+     * Converts GraphML so that all the nodes precede all the edges
+     * <p>
+     * Nodes are written to the output as they are read while edges are
+     * written to a temporary file alongside the output, which is then
+     * appended to the output together with the end of the graph.
+     * </p>
+     * 
+     * @param input
+     *            GraphML file
+     * @param output
+     *            Converted file
+     * @throws IOException
+     *             Thrown if the conversion fails
+     */
+    public static void convertForNeo4j(File input, File output) throws IOException {
+        File edges = File.createTempFile("edges", ".graphml", output.getAbsoluteFile().getParentFile());
+        try {
+            try (FileOutputStream file = new FileOutputStream(output)) {
+                OutputStream out = openOutput(output, file);
+                try {
+                    try (InputStream in = openInput(input);
+                            OutputStream edgeOut = new BufferedOutputStream(new FileOutputStream(edges),
+                                    BufferSizes.OUTPUT_BUFFER_SIZE)) {
+                        LineReader reader = new LineReader(in);
+                        // Everything before the first edge is the header and
+                        // nodes while the end of the graph follows the edges
+                        OutputStream target = out;
+                        while (reader.next()) {
+                            if (reader.startsWith(NODE)) {
+                                target = out;
+                            } else if (reader.startsWith(EDGE) || reader.startsWith(GRAPH_END)) {
+                                target = edgeOut;
+                            }
+                            reader.writeTo(target);
+                        }
+                    }
+
+                    transfer(edges, 0, edges.length(), out, file, isCompressed(output));
+                } finally {
+                    out.close();
+                }
+            }
+        } finally {
+            edges.delete();
+        }
+    }
+
+    /**
+     * Combines the nodes and edges JSON files into a single JSON document with
+     * both a {@code nodes} and an {@code edges} array
+     * 
+     * @param nodes
+     *            Nodes file
+     * @param edges
+     *            Edges file
+     * @param output
+     *            Combined file
+     * @throws IOException
+     *             Thrown if the conversion fails
+     */
+    public static void convertForGraphX(File nodes, File edges, File output) throws IOException {
+        try (FileOutputStream file = new FileOutputStream(output)) {
+            OutputStream out = openOutput(output, file);
+            try {
+                // Each file is a JSON object with a single member so the
+                // members are copied into a single object
+                out.write('{');
+                copyMembers(nodes, out, file, isCompressed(output));
+                out.write(',');
+                copyMembers(edges, out, file, isCompressed(output));
+                out.write('}');
+                out.write('\n');
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Copies the content of a JSON object i.e. everything between its outer
+     * braces
+     */
+    private static void copyMembers(File json, OutputStream out, FileOutputStream file, boolean compressed)
+            throws IOException {
+        if (isCompressed(json)) {
+            try (InputStream in = openInput(json)) {
+                copyMembers(json, in, out);
+            }
+            return;
+        }
+
+        long start, end;
+        try (FileInputStream in = new FileInputStream(json)) {
+            FileChannel channel = in.getChannel();
+            start = find(channel, (byte) '{', true);
+            end = find(channel, (byte) '}', false);
+        }
+        if (start < 0 || end < start)
+            throw new IOException(json + " does not contain a JSON object");
+        transfer(json, start + 1, end - start - 1, out, file, compressed);
+    }
+
+    /**
+     * Copies the content of a compressed JSON object, as it can't be searched
+     * from the end anything after the latest closing brace is held back until
+     * more content is read
+     */
+    private static void copyMembers(File json, InputStream in, OutputStream out) throws IOException {
+        int b;
+        while ((b = in.read()) != '{') {
+            if (b < 0)
+                throw new IOException(json + " does not contain a JSON object");
+        }
+
+        byte[] buffer = new byte[BufferSizes.OUTPUT_BUFFER_SIZE];
+        ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            int close = lastIndexOf(buffer, read, (byte) '}');
+            if (close >= 0) {
+                pending.writeTo(out);
+                pending.reset();
+                out.write(buffer, 0, close);
+                pending.write(buffer, close, read - close);
+            } else {
+                pending.write(buffer, 0, read);
+            }
+        }
+
+        byte[] rest = pending.toByteArray();
+        if (rest.length == 0 || rest[0] != '}')
+            throw new IOException(json + " does not contain a JSON object");
+        for (int i = 1; i < rest.length; i++) {
+            if (!Character.isWhitespace(rest[i]))
+                throw new IOException(json + " has content after its JSON object");
+        }
+    }
+
+    private static int lastIndexOf(byte[] buffer, int length, byte b) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == b)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first or last occurrence of a byte in a file
+     * 
+     * @return Position, or -1 if not found
+     */
+    private static long find(FileChannel channel, byte b, boolean first) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BufferSizes.SINK_BUFFER_SIZE);
+        long size = channel.size();
+        long position = first ? 0 : size;
+        while (first ? position < size : position > 0) {
+            int length = (int) Math.min(buffer.capacity(), first ? size - position : position);
+            long start = first ? position : position - length;
+            buffer.clear();
+            buffer.limit(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0)
+                    throw new IOException("Unexpected end of file");
+            }
+            if (first) {
+                for (int i = 0; i < length; i++) {
+                    if (buffer.get(i) == b)
+                        return start + i;
+                }
+                position += length;
+            } else {
+                for (int i = length - 1; i >= 0; i--) {
+                    if (buffer.get(i) == b)
+                        return start + i;
+                }
+                position -= length;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Appends a segment of a file to the output, transferring it directly
+     * between the file channels where the output is not compressed
+     */
+    private static void transfer(File source, long position, long count, OutputStream out, FileOutputStream file,
+            boolean compressed) throws IOException {
+        try (FileInputStream in = new FileInputStream(source)) {
+            FileChannel channel = in.getChannel();
+            if (!compressed) {
+                // Anything already buffered must precede the segment
+                out.flush();
+                FileChannel target = file.getChannel();
+                long end = position + count;
+                while (position < end) {
+                    position += channel.transferTo(position, end - position, target);
+                }
+            } else {
+                ByteBuffer buffer = ByteBuffer.allocate(BufferSizes.OUTPUT_BUFFER_SIZE);
+                long end = position + count;
+                while (position < end) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                    int read = channel.read(buffer, position);
+                    if (read < 0)
+                        throw new IOException("Unexpected end of file " + source);
+                    out.write(buffer.array(), 0, read);
+                    position += read;
+                }
+            }
+        }
+    }
+
+    private static boolean isCompressed(File file) {
+        return file.getName().endsWith(".gz");
+    }
+
+    private static InputStream openInput(File file) throws IOException {
+        InputStream input = new FileInputStream(file);
+        if (isCompressed(file))
+            return new GZIPInputStream(input, BufferSizes.GZIP_BUFFER_SIZE);
+        return new BufferedInputStream(input, BufferSizes.OUTPUT_BUFFER_SIZE);
+    }
+
+    private static OutputStream openOutput(File file, FileOutputStream output) throws IOException {
+        if (isCompressed(file))
+            return new GZIPOutputStream(output, BufferSizes.GZIP_BUFFER_SIZE);
+        return new BufferedOutputStream(output, BufferSizes.OUTPUT_BUFFER_SIZE);
+    }
+
+    /**
+     * Reads the lines of a stream as bytes, avoiding decoding lines that are
+     * copied unchanged
+     */
+    private static final class LineReader {
+        private final InputStream input;
+        private byte[] buffer = new byte[BufferSizes.OUTPUT_BUFFER_SIZE];
+        /** current line is start to end, buffer holds data up to limit */
+        private int start, end, limit;
+
+        LineReader(InputStream input) {
+            this.input = input;
+        }
+
+        /**
+         * Moves to the next line
+         * 
+         * @return True if there is a line, false at the end of the stream
+         */
+        boolean next() throws IOException {
+            this.start = this.end;
+            int scan = this.start;
+            while (true) {
+                for (; scan < this.limit; scan++) {
+                    if (this.buffer[scan] == '\n') {
+                        this.end = scan + 1;
+                        return true;
+                    }
+                }
+
+                // Need more data, make room for it first
+                if (this.start > 0) {
+                    System.arraycopy(this.buffer, this.start, this.buffer, 0, this.limit - this.start);
+                    this.limit -= this.start;
+                    scan -= this.start;
+                    this.start = 0;
+                }
+                if (this.limit == this.buffer.length) {
+                    byte[] larger = new byte[this.buffer.length * 2];
+                    System.arraycopy(this.buffer, 0, larger, 0, this.limit);
+                    this.buffer = larger;
+                }
+                int read = this.input.read(this.buffer, this.limit, this.buffer.length - this.limit);
+                if (read < 0) {
+                    // Final line may have no new line
+                    this.end = this.limit;
+                    return this.end > this.start;
+                }
+                this.limit += read;
+            }
+        }
+
+        /**
+         * Gets whether the current line starts with the given bytes ignoring
+         * any leading whitespace
+         */
+        boolean startsWith(byte[] prefix) {
+            int i = this.start;
+            while (i < this.end && (this.buffer[i] == ' ' || this.buffer[i] == '\t')) {
+                i++;
+            }
+            if (this.end - i < prefix.length)
+                return false;
+            for (int j = 0; j < prefix.length; j++) {
+                if (this.buffer[i + j] != prefix[j])
+                    return false;
+            }
+            return true;
+        }
+
+        void writeTo(OutputStream output) throws IOException {
+            output.write(this.buffer, this.start, this.end - this.start);
+        }
+    }
 }
@@ -1,38 +1,106 @@
 package edu.lehigh.swat.bench.uba.writers.graphml;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import edu.lehigh.swat.bench.uba.model.Ontology;
 
+/**
+ * A node of the property graph
+ * <p>
+ * Properties are held in a fixed array of slots rather than a map, ontology
+ * properties use their {@link Ontology} property ID as their slot while the
+ * other properties a node may have use the {@link #URI}, {@link #TYPE} and
+ * {@link #RESEARCH_ASSISTANT} slots.
+ * </p>
+ */
 public class Node {
 
+    /**
+     * Slots of the properties that are not ontology properties
+     */
+    public static final int URI = Ontology.PROP_NUM, TYPE = URI + 1, RESEARCH_ASSISTANT = TYPE + 1;
+
+    /**
+     * Number of property slots
+     */
+    public static final int SLOT_NUM = RESEARCH_ASSISTANT + 1;
+
+    private static final String[] SLOT_NAMES = new String[SLOT_NUM];
+
+    static {
+        System.arraycopy(Ontology.PROP_TOKEN, 0, SLOT_NAMES, 0, Ontology.PROP_NUM);
+        SLOT_NAMES[URI] = "uri";
+        SLOT_NAMES[TYPE] = "type";
+        SLOT_NAMES[RESEARCH_ASSISTANT] = "researchAssistant";
+    }
+
     private final String id;
-    private final List<String> labels = new ArrayList<>();
-    private final Map<String, String> properties = new HashMap<String, String>();
+    private final String label;
+    private final String[] properties = new String[SLOT_NUM];
+    private int size;
 
     public Node(String id) {
-        this(id, (String[])null);
+        this(id, null);
     }
 
-    public Node(String id, String... labels) {
+    public Node(String id, String label) {
         this.id = id;
-        if (labels != null) {
-            for (String l : labels) {
-                this.labels.add(l);
-            }
-        }
+        this.label = label;
+    }
+
+    /**
+     * Gets the name of a property slot
+     *
+     * @param slot
+     *            Slot
+     * @return Property name
+     */
+    public static String getPropertyName(int slot) {
+        return SLOT_NAMES[slot];
     }
 
     public String getId() {
         return this.id;
     }
 
-    public List<String> getLabels() {
-        return this.labels;
+    /**
+     * Gets the label of the node
+     *
+     * @return Label, or {@code null} if the node has no label
+     */
+    public String getLabel() {
+        return this.label;
+    }
+
+    /**
+     * Gets the value of a property
+     *
+     * @param slot
+     *            Slot
+     * @return Value, or {@code null} if not set
+     */
+    public String getProperty(int slot) {
+        return this.properties[slot];
+    }
+
+    /**
+     * Sets the value of a property
+     *
+     * @param slot
+     *            Slot
+     * @param value
+     *            Value
+     */
+    public void setProperty(int slot, String value) {
+        if (this.properties[slot] == null)
+            this.size++;
+        this.properties[slot] = value;
     }
 
-    public Map<String, String> getProperties() {
-        return this.properties;
+    /**
+     * Gets the number of properties that are set
+     *
+     * @return Number of properties
+     */
+    public int getPropertyCount() {
+        return this.size;
     }
 }
@@ -1,15 +1,22 @@
 package edu.lehigh.swat.bench.uba.writers.graphml;
 
-import java.io.PrintStream;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
 
 public interface PropertyGraphFormatter {
 
-    public void formatNode(Node n, PrintStream output);
+    public void formatNode(Node n, OutputSink output);
 
-    public void formatEdge(Edge e, PrintStream output);
+    public void formatEdge(Edge e, OutputSink output);
 
     /**
      * Called when a new file is started so any state tracking can be reset
      */
     public void newFile();
+
+    /**
+     * Called when formatting continues a file that already contains data, for
+     * example when a fragment for a department other than the first is
+     * started, so any state tracking can be updated
+     */
+    public void continueFile();
 }
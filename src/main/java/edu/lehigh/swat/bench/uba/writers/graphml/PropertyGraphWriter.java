@@ -26,11 +26,8 @@
 package edu.lehigh.swat.bench.uba.writers.graphml;
 
 import java.io.OutputStream;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
 import java.util.Stack;
 
 import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
@@ -38,15 +35,19 @@ import edu.lehigh.swat.bench.uba.GlobalState;
 import edu.lehigh.swat.bench.uba.model.Ontology;
 import edu.lehigh.swat.bench.uba.writers.AbstractWriter;
 import edu.lehigh.swat.bench.uba.writers.Writer;
+import edu.lehigh.swat.bench.uba.writers.WriterFragment;
 
 public abstract class PropertyGraphWriter extends AbstractWriter implements Writer {
 
-    private static Set<String> requiredUniversities = new HashSet<>();
-
     protected GlobalState state;
     private Stack<Node> subjects = new Stack<>();
     private boolean isAboutSection;
-    private Map<String, Node> graduateStudents = new HashMap<>();
+    /**
+     * Graduate students of the current department, these may be given
+     * additional properties by research assistant sections so are written once
+     * the department is complete
+     */
+    private final Map<String, Node> graduateStudents = new LinkedHashMap<>();
     private boolean isGraduateStudent;
 
     public PropertyGraphWriter(GeneratorCallbackTarget callbackTarget) {
@@ -83,6 +84,31 @@ public abstract class PropertyGraphWriter extends AbstractWriter implements Writ
                 "Full consolidation is not directly supported by property graph writers");
     }
 
+    @Override
+    public void startFragment(GlobalState state, boolean continuation) {
+        this.out = prepareFragmentStream(state);
+        this.state = state;
+    }
+
+    @Override
+    public WriterFragment endFragment(GlobalState state) {
+        // A fragment is a single department so its graduate students are
+        // complete
+        storeGraduateStudents();
+
+        try {
+            cleanupOutputStream(this.out);
+        } finally {
+            this.out = null;
+        }
+        return completeFragment(null);
+    }
+
+    @Override
+    public void appendFragment(GlobalState state, WriterFragment fragment) {
+        appendFragmentOutput(fragment, 0, this.out);
+    }
+
     protected abstract void writeNode(Node n);
 
     protected abstract void writeEdge(Edge e);
@@ -91,9 +117,14 @@ public abstract class PropertyGraphWriter extends AbstractWriter implements Writ
     public void startSection(int classType, String id) {
         callbackTarget.startSectionCB(classType);
 
+        // Research assistant sections come at the end of a department so the
+        // graduate students of the previous department are now complete
+        if (classType == Ontology.CS_C_DEPT)
+            storeGraduateStudents();
+
         Node n = new Node(id, Ontology.CLASS_TOKEN[classType]);
-        n.getProperties().put("uri", id);
-        n.getProperties().put("type", Ontology.CLASS_TOKEN[classType]);
+        n.setProperty(Node.URI, id);
+        n.setProperty(Node.TYPE, Ontology.CLASS_TOKEN[classType]);
         subjects.push(n);
 
         if (classType == Ontology.CS_C_GRADSTUD) {
@@ -107,7 +138,7 @@ public abstract class PropertyGraphWriter extends AbstractWriter implements Writ
         callbackTarget.startAboutSectionCB(classType);
 
         Node n = new Node(id);
-        n.getProperties().put("type", Ontology.CLASS_TOKEN[classType]);
+        n.setProperty(Node.TYPE, Ontology.CLASS_TOKEN[classType]);
         isAboutSection = true;
         if (classType == Ontology.CS_C_RA) {
             Node temp = graduateStudents.get(id);
@@ -116,7 +147,7 @@ public abstract class PropertyGraphWriter extends AbstractWriter implements Writ
             } else {
                 graduateStudents.put(id, n);
             }
-            n.getProperties().put("researchAssistant", "true");
+            n.setProperty(Node.RESEARCH_ASSISTANT, "true");
         }
         subjects.push(n);
     }
@@ -144,7 +175,7 @@ public abstract class PropertyGraphWriter extends AbstractWriter implements Writ
             Edge e = new Edge(Ontology.PROP_TOKEN[property], n.getId(), value);
             writeEdge(e);
         } else {
-            n.getProperties().put(Ontology.PROP_TOKEN[property], value);
+            n.setProperty(property, value);
         }
     }
 
@@ -155,37 +186,30 @@ public abstract class PropertyGraphWriter extends AbstractWriter implements Writ
         Node n = subjects.peek();
         Edge e = new Edge(Ontology.PROP_TOKEN[property], n.getId(), valueId);
         writeEdge(e);
-        if (property == Ontology.CS_P_UNDERGRADFROM || property == Ontology.CS_P_GRADFROM
-                || property == Ontology.CS_P_DOCFROM) {
-
-            // Is this a university that won't be generated?
-            // i.e. is it's numeric ID outside the range startIndex to
-            // (startIndex + numUniversites - 1)
-            int idStartPos = valueId.lastIndexOf('y') + 1;
-            int idEndPos = valueId.lastIndexOf('.');
-            int univId = Integer.parseInt(valueId.substring(idStartPos, idEndPos));
-            if (univId < this.state.getStartIndex()
-                    || univId >= this.state.getStartIndex() + this.state.getNumberUniversities()) {
-                synchronized (requiredUniversities) {
-                    if (!requiredUniversities.contains(valueId)) {
-                        // Generate university now
-                        Node u = new Node(valueId, Ontology.CLASS_TOKEN[Ontology.CS_C_UNIV]);
-                        u.getProperties().put("uri", valueId);
-                        u.getProperties().put("type", Ontology.CLASS_TOKEN[Ontology.CS_C_UNIV]);
-                        writeNode(u);
-
-                        // Remember we've generated it
-                        requiredUniversities.add(valueId);
-                    }
-                }
-            }
+    }
 
+    @Override
+    public void addUniversityProperty(int property, int univIndex, String univId) {
+        addProperty(property, Ontology.CS_C_UNIV, univId);
+
+        // Is this a university that won't be generated?
+        // i.e. is it's index outside the range startIndex to
+        // (startIndex + numUniversites - 1)
+        if (univIndex < this.state.getStartIndex()
+                || univIndex >= this.state.getStartIndex() + this.state.getNumberUniversities()) {
+            // Only the first writer to need the university generates it
+            if (this.state.getRequiredUniversities().set(univIndex)) {
+                Node u = new Node(univId, Ontology.CLASS_TOKEN[Ontology.CS_C_UNIV]);
+                u.setProperty(Node.URI, univId);
+                u.setProperty(Node.TYPE, Ontology.CLASS_TOKEN[Ontology.CS_C_UNIV]);
+                writeNode(u);
+            }
         }
     }
 
-    private void storeGraduateStudents() {
-        for (Entry<String, Node> gradStudent : graduateStudents.entrySet()) {
-            writeNode(gradStudent.getValue());
+    protected void storeGraduateStudents() {
+        for (Node gradStudent : graduateStudents.values()) {
+            writeNode(gradStudent);
         }
         graduateStudents.clear();
     }
@@ -1,13 +1,13 @@
 package edu.lehigh.swat.bench.uba.writers.graphml;
 
-import java.io.PrintStream;
-
 import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
 import edu.lehigh.swat.bench.uba.GlobalState;
+import edu.lehigh.swat.bench.uba.writers.WriterFragment;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
 
 public class SegregatedFormattingPropertyGraphWriter extends FormattingPropertyGraphWriter {
 
-    protected PrintStream edgeOut;
+    protected OutputSink edgeOut;
 
     public SegregatedFormattingPropertyGraphWriter(GeneratorCallbackTarget callbackTarget,
             PropertyGraphFormatter formatter) {
@@ -28,7 +28,29 @@ public class SegregatedFormattingPropertyGraphWriter extends FormattingPropertyG
     }
         
     @Override
-    protected PrintStream getEdgeOutput() {
+    public void startFragment(GlobalState state, boolean continuation) {
+        super.startFragment(state, continuation);
+        this.edgeOut = prepareFragmentStream(state);
+    }
+
+    @Override
+    public WriterFragment endFragment(GlobalState state) {
+        try {
+            this.cleanupOutputStream(this.edgeOut);
+        } finally {
+            this.edgeOut = null;
+        }
+        return super.endFragment(state);
+    }
+
+    @Override
+    public void appendFragment(GlobalState state, WriterFragment fragment) {
+        super.appendFragment(state, fragment);
+        appendFragmentOutput(fragment, 1, this.edgeOut);
+    }
+
+    @Override
+    protected OutputSink getEdgeOutput() {
         return this.edgeOut;
     }
 
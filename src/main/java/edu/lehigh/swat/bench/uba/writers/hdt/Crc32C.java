@@ -0,0 +1,47 @@
+package edu.lehigh.swat.bench.uba.writers.hdt;
+
+import java.util.zip.Checksum;
+
+/**
+ * CRC-32C (Castagnoli) as used by HDT for section data
+ */
+public class Crc32C implements Checksum {
+
+    private static final int[] TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i;
+            for (int j = 0; j < 8; j++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0x82F63B78 : crc >>> 1;
+            }
+            TABLE[i] = crc;
+        }
+    }
+
+    private int crc = 0xFFFFFFFF;
+
+    @Override
+    public void update(int b) {
+        this.crc = (this.crc >>> 8) ^ TABLE[(this.crc ^ b) & 0xFF];
+    }
+
+    @Override
+    public void update(byte[] b, int off, int len) {
+        int crc = this.crc;
+        for (int i = off; i < off + len; i++) {
+            crc = (crc >>> 8) ^ TABLE[(crc ^ b[i]) & 0xFF];
+        }
+        this.crc = crc;
+    }
+
+    @Override
+    public long getValue() {
+        return (~this.crc) & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public void reset() {
+        this.crc = 0xFFFFFFFF;
+    }
+}
@@ -0,0 +1,45 @@
+package edu.lehigh.swat.bench.uba.writers.hdt;
+
+import java.util.zip.Checksum;
+
+/**
+ * CRC-8 (polynomial 0x07) as used by HDT for section headers
+ */
+public class Crc8 implements Checksum {
+
+    private static final int[] TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i;
+            for (int j = 0; j < 8; j++) {
+                crc = (crc & 0x80) != 0 ? (crc << 1) ^ 0x07 : crc << 1;
+            }
+            TABLE[i] = crc & 0xFF;
+        }
+    }
+
+    private int crc = 0;
+
+    @Override
+    public void update(int b) {
+        this.crc = TABLE[(this.crc ^ b) & 0xFF];
+    }
+
+    @Override
+    public void update(byte[] b, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            this.crc = TABLE[(this.crc ^ b[i]) & 0xFF];
+        }
+    }
+
+    @Override
+    public long getValue() {
+        return this.crc;
+    }
+
+    @Override
+    public void reset() {
+        this.crc = 0;
+    }
+}
@@ -0,0 +1,167 @@
+package edu.lehigh.swat.bench.uba.writers.hdt;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import edu.lehigh.swat.bench.uba.writers.utils.BufferSizes;
+import edu.lehigh.swat.bench.uba.writers.utils.MemoryBudget;
+import edu.lehigh.swat.bench.uba.writers.utils.WriteConsolidator;
+
+/**
+ * A write consolidator that merges the HDT files of the universities into a
+ * single HDT file
+ * <p>
+ * Unlike other formats HDT files can't be concatenated, since the merged file
+ * has a single dictionary and set of triples, so the files are only merged by
+ * a {@link HdtMerger} once all of them have been written.
+ * </p>
+ */
+public class HdtConsolidator implements WriteConsolidator {
+
+    /**
+     * Memory used by each external sort of the merge when the memory budget
+     * is unlimited
+     */
+    public static final long DEFAULT_SORT_MEMORY = 256 * 1024 * 1024;
+
+    private final List<String> files = new ArrayList<>();
+    private final String finalFilename;
+    private final MemoryBudget budget;
+    private final File directory;
+    private volatile boolean finished = false, cancelled = false, started = false;
+
+    /**
+     * Creates a new consolidator
+     *
+     * @param targetFilename
+     *            File name of the merged file
+     * @param budget
+     *            Memory budget
+     * @param directory
+     *            Directory for temporary files
+     */
+    public HdtConsolidator(String targetFilename, MemoryBudget budget, File directory) {
+        this.finalFilename = targetFilename;
+        this.budget = budget;
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the base URI of the merged file which the universities must also
+     * use
+     *
+     * @return Base URI
+     */
+    public String getBaseUri() {
+        return HdtWriter.baseUri(this.finalFilename);
+    }
+
+    @Override
+    public void addFile(String file) {
+        synchronized (this.files) {
+            this.files.add(file);
+        }
+    }
+
+    @Override
+    public Long call() {
+        this.started = true;
+        while (!this.finished && !this.cancelled) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                // Ignore and continue, if we've been told to cancel we'll see
+                // this soon enough
+            }
+        }
+        if (this.cancelled)
+            return 0l;
+
+        List<String> inputs;
+        synchronized (this.files) {
+            inputs = new ArrayList<>(this.files);
+        }
+        List<File> decompressed = new ArrayList<>();
+        try {
+            // The merge needs to read the inputs from several places at once
+            // so compressed inputs must be decompressed first
+            List<File> inputFiles = new ArrayList<>();
+            for (String input : inputs) {
+                if (input.endsWith(".gz")) {
+                    File file = File.createTempFile("hdt", ".tmp", this.directory);
+                    decompressed.add(file);
+                    decompress(input, file);
+                    inputFiles.add(file);
+                } else {
+                    inputFiles.add(new File(input));
+                }
+            }
+
+            long sortMemory = this.budget.isLimited() ? this.budget.getLimit() / 4 : DEFAULT_SORT_MEMORY;
+            try (OutputStream output = openOutput()) {
+                new HdtMerger(this.budget, this.directory, sortMemory).merge(inputFiles, output, getBaseUri());
+            } catch (IOException | RuntimeException e) {
+                new File(this.finalFilename).delete();
+                throw e;
+            }
+
+            for (String input : inputs) {
+                new File(input).delete();
+            }
+            System.out.println(String.format("Finished write consolidation (%d/%d files)", inputs.size(),
+                    inputs.size()));
+            return (long) inputs.size();
+        } catch (IOException e) {
+            throw new RuntimeException("Write consolidation failed", e);
+        } finally {
+            for (File file : decompressed) {
+                file.delete();
+            }
+        }
+    }
+
+    private OutputStream openOutput() throws IOException {
+        if (this.finalFilename.endsWith(".gz")) {
+            return new GZIPOutputStream(new FileOutputStream(this.finalFilename), BufferSizes.GZIP_BUFFER_SIZE);
+        } else {
+            return new BufferedOutputStream(new FileOutputStream(this.finalFilename),
+                    BufferSizes.OUTPUT_BUFFER_SIZE);
+        }
+    }
+
+    private static void decompress(String input, File output) throws IOException {
+        try (InputStream in = new GZIPInputStream(new FileInputStream(input), BufferSizes.GZIP_BUFFER_SIZE);
+                OutputStream out = new BufferedOutputStream(new FileOutputStream(output),
+                        BufferSizes.OUTPUT_BUFFER_SIZE)) {
+            byte[] buffer = new byte[BufferSizes.OUTPUT_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    @Override
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    @Override
+    public void finish() {
+        this.finished = true;
+    }
+
+    @Override
+    public boolean wasStarted() {
+        return this.started;
+    }
+}
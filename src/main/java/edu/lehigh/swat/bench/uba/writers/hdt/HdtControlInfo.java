@@ -0,0 +1,138 @@
+package edu.lehigh.swat.bench.uba.writers.hdt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The control information that precedes each part of a HDT file
+ */
+public class HdtControlInfo {
+
+    private final int type;
+    private final String format;
+    private final Map<String, String> properties = new LinkedHashMap<>();
+
+    /**
+     * Creates new control information
+     * 
+     * @param type
+     *            Type, one of the {@code TYPE_} constants of
+     *            {@link HdtVocabulary}
+     * @param format
+     *            Format
+     */
+    public HdtControlInfo(int type, String format) {
+        this.type = type;
+        this.format = format;
+    }
+
+    public int getType() {
+        return this.type;
+    }
+
+    public String getFormat() {
+        return this.format;
+    }
+
+    public HdtControlInfo set(String key, long value) {
+        this.properties.put(key, Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Gets a numeric property
+     * 
+     * @param key
+     *            Key
+     * @return Value
+     * @throws IOException
+     *             Thrown if the property is missing or not numeric
+     */
+    public long getLong(String key) throws IOException {
+        String value = this.properties.get(key);
+        if (value == null)
+            throw new IOException("Missing required HDT property " + key);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid value for HDT property " + key, e);
+        }
+    }
+
+    /**
+     * Writes the control information
+     * 
+     * @param output
+     *            Output stream
+     * @throws IOException
+     */
+    public void write(OutputStream output) throws IOException {
+        CheckedOutputStream out = new CheckedOutputStream(output, new Crc16());
+        out.write(HdtVocabulary.COOKIE.getBytes(HdtVocabulary.CHARSET));
+        out.write(this.type);
+        out.write(this.format.getBytes(HdtVocabulary.CHARSET));
+        out.write(0);
+        for (Entry<String, String> property : this.properties.entrySet()) {
+            out.write((property.getKey() + "=" + property.getValue() + ";").getBytes(HdtVocabulary.CHARSET));
+        }
+        out.write(0);
+        HdtEncoding.writeChecksum(output, out.getChecksum(), 2);
+    }
+
+    /**
+     * Reads control information
+     * 
+     * @param input
+     *            Input stream
+     * @return Control information
+     * @throws IOException
+     *             Thrown if the control information is not valid
+     */
+    public static HdtControlInfo read(InputStream input) throws IOException {
+        CheckedInputStream in = new CheckedInputStream(input, new Crc16());
+        for (byte b : HdtVocabulary.COOKIE.getBytes(HdtVocabulary.CHARSET)) {
+            if (HdtEncoding.readByte(in) != b)
+                throw new IOException("Not a HDT file");
+        }
+        int type = HdtEncoding.readByte(in);
+        HdtControlInfo info = new HdtControlInfo(type, readString(in));
+        for (String property : readString(in).split(";")) {
+            int split = property.indexOf('=');
+            if (split > 0)
+                info.properties.put(property.substring(0, split), property.substring(split + 1));
+        }
+        HdtEncoding.verifyChecksum(in, input, 2);
+        return info;
+    }
+
+    private static String readString(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int b;
+        while ((b = HdtEncoding.readByte(in)) != 0) {
+            bytes.write(b);
+        }
+        return new String(bytes.toByteArray(), HdtVocabulary.CHARSET);
+    }
+
+    /**
+     * Checks the control information has the expected type and format
+     * 
+     * @param type
+     *            Expected type
+     * @param format
+     *            Expected format
+     * @throws IOException
+     *             Thrown if the type or format differs
+     */
+    public void expect(int type, String format) throws IOException {
+        if (this.type != type || !this.format.equals(format))
+            throw new IOException(String.format("Unsupported HDT part %s, expected %s", this.format, format));
+    }
+}
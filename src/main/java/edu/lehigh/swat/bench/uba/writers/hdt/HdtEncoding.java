@@ -0,0 +1,142 @@
+package edu.lehigh.swat.bench.uba.writers.hdt;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Checksum;
+
+/**
+ * Encoding of the primitive values used throughout the HDT format
+ */
+public class HdtEncoding {
+
+    private HdtEncoding() {
+    }
+
+    /**
+     * Writes a variable length integer, HDT encodes these 7 bits at a time
+     * least significant first with the high bit set on the last byte
+     * 
+     * @param out
+     *            Output stream
+     * @param value
+     *            Value, must not be negative
+     * @return Number of bytes written
+     * @throws IOException
+     */
+    public static int writeVByte(OutputStream out, long value) throws IOException {
+        if (value < 0)
+            throw new IllegalArgumentException("Negative values cannot be encoded");
+        int bytes = 1;
+        while (value > 0x7F) {
+            out.write((int) (value & 0x7F));
+            value >>>= 7;
+            bytes++;
+        }
+        out.write((int) (value | 0x80));
+        return bytes;
+    }
+
+    /**
+     * Reads a variable length integer
+     * 
+     * @param in
+     *            Input stream
+     * @return Value
+     * @throws IOException
+     */
+    public static long readVByte(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte(in);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) != 0)
+                return value;
+        }
+        throw new IOException("Invalid variable length integer");
+    }
+
+    /**
+     * Reads a single byte
+     * 
+     * @param in
+     *            Input stream
+     * @return Byte
+     * @throws IOException
+     *             Thrown if the end of the stream is reached
+     */
+    public static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0)
+            throw new EOFException();
+        return b;
+    }
+
+    /**
+     * Writes the value of a checksum, least significant byte first
+     * 
+     * @param out
+     *            Output stream
+     * @param checksum
+     *            Checksum
+     * @param bytes
+     *            Size of the checksum in bytes
+     * @throws IOException
+     */
+    public static void writeChecksum(OutputStream out, Checksum checksum, int bytes) throws IOException {
+        long value = checksum.getValue();
+        for (int i = 0; i < bytes; i++) {
+            out.write((int) (value >>> (8 * i)) & 0xFF);
+        }
+    }
+
+    /**
+     * Reads a checksum and verifies that it matches the data read so far
+     * 
+     * @param in
+     *            Checked input stream, the checksum is read from the
+     *            underlying stream
+     * @param bytes
+     *            Size of the checksum in bytes
+     * @param underlying
+     *            Underlying stream
+     * @throws IOException
+     *             Thrown if the checksum does not match
+     */
+    public static void verifyChecksum(CheckedInputStream in, InputStream underlying, int bytes) throws IOException {
+        long expected = in.getChecksum().getValue();
+        long actual = 0;
+        for (int i = 0; i < bytes; i++) {
+            actual |= (long) readByte(underlying) << (8 * i);
+        }
+        if (actual != expected)
+            throw new IOException("Checksum mismatch, the HDT file is corrupt");
+    }
+
+    /**
+     * Gets the number of bits needed to encode the given value, this is always
+     * at least one
+     * 
+     * @param max
+     *            Maximum value to be encoded
+     * @return Number of bits
+     */
+    public static int bitsFor(long max) {
+        return Math.max(1, 64 - Long.numberOfLeadingZeros(max));
+    }
+
+    /**
+     * Gets the number of bytes needed for a packed array
+     * 
+     * @param numbits
+     *            Bits per entry
+     * @param count
+     *            Number of entries
+     * @return Number of bytes
+     */
+    public static long packedBytes(int numbits, long count) {
+        return (numbits * count + 7) / 8;
+    }
+}
@@ -0,0 +1,253 @@
+package edu.lehigh.swat.bench.uba.writers.hdt;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import edu.lehigh.swat.bench.uba.writers.utils.FragmentBuffer;
+import edu.lehigh.swat.bench.uba.writers.utils.MemoryBudget;
+
+/**
+ * Assembles a HDT file using a four section dictionary and bitmap triples
+ * <p>
+ * The terms of each dictionary section must be added in sorted order, then
+ * once {@link #startTriples()} has been called the triples must be added in
+ * ascending order of their subject, predicate and object IDs. Everything added
+ * is packed into buffers as it arrives, these are held in memory while the
+ * memory budget allows and otherwise spilled to disk, and the file is only
+ * written by {@link #write(OutputStream, String)} once all the statistics for
+ * the header are known.
+ * </p>
+ */
+public class HdtFileBuilder {
+
+    /**
+     * Dictionary sections, in the order they appear in the file
+     */
+    public static final int SHARED = 0, SUBJECTS = 1, PREDICATES = 2, OBJECTS = 3;
+
+    private static final String RDF_TYPE = "<http://www.w3.org/1999/02/22-rdf-syntax-ns#type>";
+    private static final String VOID = "http://rdfs.org/ns/void#";
+    private static final String DC_FORMAT = "<http://purl.org/dc/terms/format>";
+
+    private final MemoryBudget budget;
+    private final File directory;
+    private final PfcSectionBuilder[] sections = new PfcSectionBuilder[4];
+    private PackedArrayBuilder bitmapY, bitmapZ, seqY, seqZ;
+    private long maxObject, triples = 0, lastS, lastP, lastO;
+
+    /**
+     * Creates a new builder
+     *
+     * @param budget
+     *            Memory budget for the buffers
+     * @param directory
+     *            Directory for buffers spilled to disk
+     * @param maxDictionarySize
+     *            Upper bound on the encoded size of any dictionary section
+     */
+    public HdtFileBuilder(MemoryBudget budget, File directory, long maxDictionarySize) {
+        this.budget = budget;
+        this.directory = directory;
+        for (int i = 0; i < this.sections.length; i++) {
+            this.sections[i] = new PfcSectionBuilder(newBuffer(), newBuffer(), maxDictionarySize);
+        }
+    }
+
+    private FragmentBuffer newBuffer() {
+        return new FragmentBuffer(this.budget, this.directory);
+    }
+
+    /**
+     * Adds a term to a dictionary section
+     *
+     * @param section
+     *            Section
+     * @param term
+     *            UTF-8 encoded term, literals include their quotes
+     * @param length
+     *            Length of the term
+     * @throws IOException
+     */
+    public void addTerm(int section, byte[] term, int length) throws IOException {
+        if (this.seqZ != null)
+            throw new IllegalStateException("Terms cannot be added once triples have been started");
+        this.sections[section].add(term, length);
+    }
+
+    /**
+     * Gets the number of terms added to a section
+     *
+     * @param section
+     *            Section
+     * @return Number of terms
+     */
+    public long count(int section) {
+        return this.sections[section].count();
+    }
+
+    /**
+     * Finishes the dictionary and starts the triples
+     *
+     * @throws IOException
+     */
+    public void startTriples() throws IOException {
+        for (PfcSectionBuilder section : this.sections) {
+            section.finish();
+        }
+        this.maxObject = count(SHARED) + count(OBJECTS);
+        this.bitmapY = new PackedArrayBuilder(1, newBuffer());
+        this.bitmapZ = new PackedArrayBuilder(1, newBuffer());
+        this.seqY = new PackedArrayBuilder(HdtEncoding.bitsFor(count(PREDICATES)), newBuffer());
+        this.seqZ = new PackedArrayBuilder(HdtEncoding.bitsFor(this.maxObject), newBuffer());
+    }
+
+    /**
+     * Adds a triple, triples must be added in ascending order with no
+     * duplicates and every subject must have at least one triple
+     *
+     * @param s
+     *            Subject ID
+     * @param p
+     *            Predicate ID
+     * @param o
+     *            Object ID
+     * @throws IOException
+     */
+    public void addTriple(long s, long p, long o) throws IOException {
+        if (p < 1 || p > count(PREDICATES) || o < 1 || o > this.maxObject)
+            throw new IllegalArgumentException(String.format("Triple (%d, %d, %d) is out of range", s, p, o));
+
+        if (this.triples == 0) {
+            if (s != 1)
+                throw new IllegalArgumentException("Triples must start with the first subject");
+            this.seqY.add(p);
+        } else if (s != this.lastS) {
+            if (s != this.lastS + 1)
+                throw new IllegalArgumentException("Triples must be added in order and every subject used");
+            this.bitmapZ.add(1);
+            this.bitmapY.add(1);
+            this.seqY.add(p);
+        } else if (p != this.lastP) {
+            if (p < this.lastP)
+                throw new IllegalArgumentException("Triples must be added in order");
+            this.bitmapZ.add(1);
+            this.bitmapY.add(0);
+            this.seqY.add(p);
+        } else {
+            if (o <= this.lastO)
+                throw new IllegalArgumentException("Triples must be added in order with no duplicates");
+            this.bitmapZ.add(0);
+        }
+        this.seqZ.add(o);
+
+        this.lastS = s;
+        this.lastP = p;
+        this.lastO = o;
+        this.triples++;
+    }
+
+    /**
+     * Writes the HDT file, this may only be called once
+     *
+     * @param out
+     *            Output stream
+     * @param baseUri
+     *            Base URI of the dataset
+     * @throws IOException
+     */
+    public void write(OutputStream out, String baseUri) throws IOException {
+        if (this.seqZ == null)
+            startTriples();
+        if (this.triples > 0) {
+            // Close off the last subject
+            this.bitmapZ.add(1);
+            this.bitmapY.add(1);
+        }
+        if (this.lastS != count(SHARED) + count(SUBJECTS))
+            throw new IllegalStateException("Every subject in the dictionary must have at least one triple");
+        this.bitmapY.finish();
+        this.bitmapZ.finish();
+        this.seqY.finish();
+        this.seqZ.finish();
+
+        new HdtControlInfo(HdtVocabulary.TYPE_GLOBAL, HdtVocabulary.HDT_CONTAINER).write(out);
+
+        byte[] header = header(baseUri).getBytes(HdtVocabulary.CHARSET);
+        new HdtControlInfo(HdtVocabulary.TYPE_HEADER, HdtVocabulary.HEADER_NTRIPLES)
+                .set(HdtVocabulary.PROPERTY_LENGTH, header.length).write(out);
+        out.write(header);
+
+        long elements = 0;
+        for (PfcSectionBuilder section : this.sections) {
+            elements += section.count();
+        }
+        new HdtControlInfo(HdtVocabulary.TYPE_DICTIONARY, HdtVocabulary.DICTIONARY_FOUR)
+                .set(HdtVocabulary.PROPERTY_ELEMENTS, elements).write(out);
+        for (PfcSectionBuilder section : this.sections) {
+            section.writeTo(out);
+        }
+
+        new HdtControlInfo(HdtVocabulary.TYPE_TRIPLES, HdtVocabulary.TRIPLES_BITMAP)
+                .set(HdtVocabulary.PROPERTY_ORDER, HdtVocabulary.ORDER_SPO).write(out);
+        this.bitmapY.writeBitmapTo(out);
+        this.bitmapZ.writeBitmapTo(out);
+        this.seqY.writeSequenceTo(out);
+        this.seqZ.writeSequenceTo(out);
+    }
+
+    private String header(String baseUri) {
+        long dictionarySize = 0;
+        for (PfcSectionBuilder section : this.sections) {
+            dictionarySize += section.size();
+        }
+
+        StringBuilder header = new StringBuilder();
+        String base = "<" + baseUri + ">";
+        addHeaderTriple(header, base, RDF_TYPE, "<" + HdtVocabulary.HDT_BASE + "Dataset>");
+        addHeaderTriple(header, base, RDF_TYPE, "<" + VOID + "Dataset>");
+        addHeaderTriple(header, base, "<" + VOID + "triples>", this.triples);
+        addHeaderTriple(header, base, "<" + VOID + "properties>", count(PREDICATES));
+        addHeaderTriple(header, base, "<" + VOID + "distinctSubjects>", count(SHARED) + count(SUBJECTS));
+        addHeaderTriple(header, base, "<" + VOID + "distinctObjects>", this.maxObject);
+        addHeaderTriple(header, base, hdt("formatInformation"), "_:format");
+        addHeaderTriple(header, "_:format", hdt("dictionary"), "_:dictionary");
+        addHeaderTriple(header, "_:format", hdt("triples"), "_:triples");
+        addHeaderTriple(header, "_:dictionary", DC_FORMAT, HdtVocabulary.DICTIONARY_FOUR);
+        addHeaderTriple(header, "_:dictionary", hdt("dictionarynumSharedSubjectObject"), count(SHARED));
+        addHeaderTriple(header, "_:dictionary", hdt("dictionarysizeStrings"), dictionarySize);
+        addHeaderTriple(header, "_:dictionary", hdt("dictionaryblockSize"), HdtVocabulary.PFC_BLOCK_SIZE);
+        addHeaderTriple(header, "_:triples", DC_FORMAT, HdtVocabulary.TRIPLES_BITMAP);
+        addHeaderTriple(header, "_:triples", hdt("triplesnumTriples"), this.triples);
+        addHeaderTriple(header, "_:triples", hdt("triplesOrder"), "\"SPO\"");
+        return header.toString();
+    }
+
+    private static String hdt(String name) {
+        return "<" + HdtVocabulary.HDT_BASE + name + ">";
+    }
+
+    private static void addHeaderTriple(StringBuilder header, String subject, String predicate, long value) {
+        addHeaderTriple(header, subject, predicate, "\"" + value + "\"");
+    }
+
+    private static void addHeaderTriple(StringBuilder header, String subject, String predicate, String object) {
+        header.append(subject).append(' ').append(predicate).append(' ').append(object).append(" .\n");
+    }
+
+    /**
+     * Discards all the buffers, this should be called if the file won't be
+     * written
+     */
+    public void discard() {
+        for (PfcSectionBuilder section : this.sections) {
+            section.discard();
+        }
+        if (this.seqZ != null) {
+            this.bitmapY.discard();
+            this.bitmapZ.discard();
+            this.seqY.discard();
+            this.seqZ.discard();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package edu.lehigh.swat.bench.uba.writers.hdt;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CheckedInputStream;
+
+import edu.lehigh.swat.bench.uba.writers.utils.BufferSizes;
+
+/**
+ * An existing HDT file whose dictionary sections and triples can be read
+ * <p>
+ * Only the layout of the file is read up front, the sections and triples are
+ * then read in order by opening a new stream positioned at their start so a
+ * file can be read from several places at once. Only HDT files with a four
+ * section plain front coding dictionary and bitmap triples in subject,
+ * predicate, object order can be read, which is what {@link HdtFileBuilder}
+ * produces.
+ * </p>
+ */
+class HdtInput {
+
+    private static final int BITMAP_Y = 0, BITMAP_Z = 1, SEQ_Y = 2, SEQ_Z = 3;
+
+    private final File file;
+    private final long[] sectionCounts = new long[4], sectionSizes = new long[4], sectionBlockSizes = new long[4],
+            sectionOffsets = new long[4];
+    private final long[] arrayCounts = new long[4], arrayOffsets = new long[4];
+    private final int[] arrayBits = new int[4];
+
+    /**
+     * Reads the layout of a HDT file
+     *
+     * @param file
+     *            File
+     * @throws IOException
+     *             Thrown if the file can't be read or is not a supported HDT
+     *             file
+     */
+    HdtInput(File file) throws IOException {
+        this.file = file;
+        try (PositionInputStream in = new PositionInputStream(
+                new BufferedInputStream(new FileInputStream(file), BufferSizes.OUTPUT_BUFFER_SIZE))) {
+            HdtControlInfo.read(in).expect(HdtVocabulary.TYPE_GLOBAL, HdtVocabulary.HDT_CONTAINER);
+            HdtControlInfo header = HdtControlInfo.read(in);
+            if (header.getType() != HdtVocabulary.TYPE_HEADER)
+                throw new IOException("Expected the HDT header");
+            in.skipFully(header.getLong(HdtVocabulary.PROPERTY_LENGTH));
+
+            HdtControlInfo.read(in).expect(HdtVocabulary.TYPE_DICTIONARY, HdtVocabulary.DICTIONARY_FOUR);
+            for (int section = 0; section < 4; section++) {
+                readSection(in, section);
+            }
+
+            HdtControlInfo triples = HdtControlInfo.read(in);
+            triples.expect(HdtVocabulary.TYPE_TRIPLES, HdtVocabulary.TRIPLES_BITMAP);
+            if (triples.getLong(HdtVocabulary.PROPERTY_ORDER) != HdtVocabulary.ORDER_SPO)
+                throw new IOException("Only HDT triples in SPO order are supported");
+            readArray(in, BITMAP_Y, true);
+            readArray(in, BITMAP_Z, true);
+            readArray(in, SEQ_Y, false);
+            readArray(in, SEQ_Z, false);
+        } catch (EOFException e) {
+            throw new IOException("Unexpected end of HDT file " + file, e);
+        }
+    }
+
+    private void readSection(PositionInputStream in, int section) throws IOException {
+        CheckedInputStream header = new CheckedInputStream(in, new Crc8());
+        if (HdtEncoding.readByte(header) != HdtVocabulary.SECTION_PFC)
+            throw new IOException("Only plain front coding dictionary sections are supported");
+        this.sectionCounts[section] = HdtEncoding.readVByte(header);
+        this.sectionSizes[section] = HdtEncoding.readVByte(header);
+        this.sectionBlockSizes[section] = HdtEncoding.readVByte(header);
+        HdtEncoding.verifyChecksum(header, in, 1);
+
+        // Skip the block offsets, terms are only ever read in order
+        CheckedInputStream blocks = new CheckedInputStream(in, new Crc8());
+        if (HdtEncoding.readByte(blocks) != HdtVocabulary.SEQUENCE_LOG)
+            throw new IOException("Unsupported sequence type for dictionary blocks");
+        int numbits = HdtEncoding.readByte(blocks);
+        long count = HdtEncoding.readVByte(blocks);
+        HdtEncoding.verifyChecksum(blocks, in, 1);
+        in.skipFully(HdtEncoding.packedBytes(numbits, count) + 4);
+
+        this.sectionOffsets[section] = in.position();
+        in.skipFully(this.sectionSizes[section] + 4);
+    }
+
+    private void readArray(PositionInputStream in, int array, boolean bitmap) throws IOException {
+        CheckedInputStream header = new CheckedInputStream(in, new Crc8());
+        int type = HdtEncoding.readByte(header);
+        if (bitmap) {
+            if (type != HdtVocabulary.BITMAP_PLAIN)
+                throw new IOException("Unsupported bitmap type");
+            this.arrayBits[array] = 1;
+        } else {
+            if (type != HdtVocabulary.SEQUENCE_LOG)
+                throw new IOException("Unsupported sequence type");
+            this.arrayBits[array] = HdtEncoding.readByte(header);
+        }
+        this.arrayCounts[array] = HdtEncoding.readVByte(header);
+        HdtEncoding.verifyChecksum(header, in, 1);
+
+        this.arrayOffsets[array] = in.position();
+        in.skipFully(HdtEncoding.packedBytes(this.arrayBits[array], this.arrayCounts[array]) + 4);
+    }
+
+    /**
+     * Gets the number of terms in a dictionary section
+     *
+     * @param section
+     *            Section
+     * @return Number of terms
+     */
+    long count(int section) {
+        return this.sectionCounts[section];
+    }
+
+    /**
+     * Gets the encoded size of a dictionary section
+     *
+     * @param section
+     *            Section
+     * @return Size in bytes
+     */
+    long size(int section) {
+        return this.sectionSizes[section];
+    }
+
+    /**
+     * Gets the number of terms per block of a dictionary section
+     *
+     * @param section
+     *            Section
+     * @return Block size
+     */
+    long blockSize(int section) {
+        return this.sectionBlockSizes[section];
+    }
+
+    /**
+     * Opens a stream positioned at the given offset
+     *
+     * @param offset
+     *            Offset
+     * @return Input stream
+     * @throws IOException
+     */
+    InputStream open(long offset) throws IOException {
+        FileInputStream input = new FileInputStream(this.file);
+        try {
+            input.getChannel().position(offset);
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+        return new BufferedInputStream(input, BufferSizes.OUTPUT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a reader for the terms of a dictionary section
+     *
+     * @param in
+     *            Stream opened at {@link #sectionOffset(int)}
+     * @param section
+     *            Section
+     * @return Reader
+     */
+    PfcSectionReader sectionReader(InputStream in, int section) {
+        return new PfcSectionReader(in, this.sectionCounts[section], this.sectionBlockSizes[section]);
+    }
+
+    /**
+     * Gets the offset of the terms of a dictionary section
+     *
+     * @param section
+     *            Section
+     * @return Offset
+     */
+    long sectionOffset(int section) {
+        return this.sectionOffsets[section];
+    }
+
+    /**
+     * Opens a reader for the triples
+     *
+     * @return Triple reader
+     * @throws IOException
+     */
+    TripleReader openTriples() throws IOException {
+        return new TripleReader();
+    }
+
+    /**
+     * Reads the triples of a HDT file in order
+     */
+    class TripleReader implements Closeable {
+
+        private final InputStream[] streams = new InputStream[4];
+        private final PackedArrayReader[] arrays = new PackedArrayReader[4];
+        private long remaining = arrayCounts[SEQ_Z];
+        private long s, p, o, nextS = 1;
+        private boolean newPair = true;
+
+        private TripleReader() throws IOException {
+            try {
+                for (int i = 0; i < 4; i++) {
+                    this.streams[i] = open(arrayOffsets[i]);
+                    this.arrays[i] = new PackedArrayReader(this.streams[i], arrayBits[i], arrayCounts[i]);
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        /**
+         * Advances to the next triple
+         *
+         * @return True if there was another triple, false if all triples have
+         *         been read
+         * @throws IOException
+         */
+        boolean next() throws IOException {
+            if (this.remaining == 0)
+                return false;
+            this.remaining--;
+
+            this.s = this.nextS;
+            if (this.newPair)
+                this.p = this.arrays[SEQ_Y].next();
+            this.o = this.arrays[SEQ_Z].next();
+            this.newPair = this.arrays[BITMAP_Z].next() == 1;
+            if (this.newPair && this.arrays[BITMAP_Y].next() == 1)
+                this.nextS++;
+            return true;
+        }
+
+        long subject() {
+            return this.s;
+        }
+
+        long predicate() {
+            return this.p;
+        }
+
+        long object() {
+            return this.o;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (InputStream stream : this.streams) {
+                if (stream != null)
+                    stream.close();
+            }
+        }
+    }
+
+    /**
+     * An input stream that tracks its position
+     */
+    private static class PositionInputStream extends FilterInputStream {
+
+        private long position = 0;
+
+        PositionInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0)
+                this.position++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0)
+                this.position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            this.position += skipped;
+            return skipped;
+        }
+
+        void skipFully(long n) throws IOException {
+            while (n > 0) {
+                long skipped = skip(n);
+                if (skipped <= 0) {
+                    if (read() < 0)
+                        throw new EOFException();
+                    skipped = 1;
+                }
+                n -= skipped;
+            }
+        }
+
+        long position() {
+            return this.position;
+        }
+    }
+}
@@ -0,0 +1,467 @@
+package edu.lehigh.swat.bench.uba.writers.hdt;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import edu.lehigh.swat.bench.uba.writers.utils.BufferSizes;
+import edu.lehigh.swat.bench.uba.writers.utils.LongRecordSorter;
+import edu.lehigh.swat.bench.uba.writers.utils.LongRecordSorter.RecordIterator;
+import edu.lehigh.swat.bench.uba.writers.utils.MemoryBudget;
+
+/**
+ * Merges several HDT files into a single HDT file
+ * <p>
+ * The merge never holds more than a single input file's worth of IDs in
+ * memory so it scales to any number of inputs. First the dictionary sections of
+ * all the inputs are merged, since each is already sorted this only needs a
+ * priority queue over them, and equal terms are combined to decide which
+ * section of the merged dictionary they belong in. As each term is placed a
+ * record mapping its ID in the input to its merged ID is produced, these are
+ * sorted by input so that the triples of each input can then be translated in
+ * turn. Finally the translated triples are sorted and added to the merged
+ * file. Both sorts are external sorts so only their chunks need fit in memory.
+ * </p>
+ */
+public class HdtMerger {
+
+    private static final int INPUT_SHIFT = 36, SECTION_SHIFT = 34;
+    private static final long INDEX_MASK = (1L << SECTION_SHIFT) - 1;
+    private static final int ROLE_SUBJECT = 1, ROLE_OBJECT = 2, ROLE_PREDICATE = 4;
+    private static final int GLOBAL_SECTION_SHIFT = 62;
+    private static final long RANK_MASK = (1L << GLOBAL_SECTION_SHIFT) - 1;
+
+    private final MemoryBudget budget;
+    private final File directory;
+    private final int mappingChunk, tripleChunk;
+
+    /**
+     * Creates a new merger
+     *
+     * @param budget
+     *            Memory budget for the buffers of the merged file
+     * @param directory
+     *            Directory for temporary files
+     * @param sortMemory
+     *            Memory in bytes that each external sort may use
+     */
+    public HdtMerger(MemoryBudget budget, File directory, long sortMemory) {
+        this.budget = budget;
+        this.directory = directory;
+        this.mappingChunk = chunkRecords(sortMemory, 2);
+        this.tripleChunk = chunkRecords(sortMemory, 3);
+    }
+
+    private static int chunkRecords(long memory, int width) {
+        return (int) Math.max(1, Math.min(memory / (8 * width), Integer.MAX_VALUE / width));
+    }
+
+    /**
+     * Merges the given HDT files
+     *
+     * @param files
+     *            Input files, these must be uncompressed
+     * @param out
+     *            Output stream for the merged file
+     * @param baseUri
+     *            Base URI of the merged dataset
+     * @throws IOException
+     */
+    public void merge(List<File> files, OutputStream out, String baseUri) throws IOException {
+        List<HdtInput> inputs = new ArrayList<>();
+        long maxDictionarySize = 0;
+        for (File file : files) {
+            HdtInput input = new HdtInput(file);
+            inputs.add(input);
+            for (int section = 0; section < 4; section++) {
+                // The encoded size of each term is bounded by the size of its
+                // block, plus the prefix length and terminator it may gain
+                // in the merged dictionary
+                maxDictionarySize += input.size(section) * input.blockSize(section) + 2 * input.count(section);
+            }
+        }
+
+        HdtFileBuilder builder = new HdtFileBuilder(this.budget, this.directory, maxDictionarySize);
+        try (LongRecordSorter mappings = new LongRecordSorter(2, this.mappingChunk, this.directory);
+                LongRecordSorter triples = new LongRecordSorter(3, this.tripleChunk, this.directory)) {
+            mergeDictionaries(inputs, builder, mappings);
+            builder.startTriples();
+            translateTriples(inputs, builder.count(HdtFileBuilder.SHARED), mappings, triples);
+
+            try (RecordIterator sorted = triples.sort()) {
+                long s = 0, p = 0, o = 0;
+                boolean first = true;
+                while (sorted.next()) {
+                    if (!first && sorted.get(0) == s && sorted.get(1) == p && sorted.get(2) == o)
+                        continue;
+                    first = false;
+                    s = sorted.get(0);
+                    p = sorted.get(1);
+                    o = sorted.get(2);
+                    builder.addTriple(s, p, o);
+                }
+            }
+            builder.write(out, baseUri);
+        } finally {
+            builder.discard();
+        }
+    }
+
+    private void mergeDictionaries(List<HdtInput> inputs, HdtFileBuilder builder, LongRecordSorter mappings)
+            throws IOException {
+        List<TermSource> sources = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            for (int section = 0; section < 4; section++) {
+                if (inputs.get(i).count(section) > 0)
+                    sources.add(new SectionTermSource(inputs.get(i), i, section));
+            }
+        }
+
+        // Only merge a limited number of sources at once, so if there are
+        // more than that merge them in groups into temporary runs first
+        while (sources.size() > LongRecordSorter.MERGE_FACTOR) {
+            List<TermSource> group = new ArrayList<>(sources.subList(0, LongRecordSorter.MERGE_FACTOR));
+            sources.subList(0, LongRecordSorter.MERGE_FACTOR).clear();
+            File run = File.createTempFile("terms", ".tmp", this.directory);
+            long count = 0;
+            try (TermMerge merge = new TermMerge(group);
+                    DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                            new FileOutputStream(run), BufferSizes.OUTPUT_BUFFER_SIZE))) {
+                while (merge.next()) {
+                    TermSource source = merge.current();
+                    output.writeInt(source.length());
+                    output.write(source.term(), 0, source.length());
+                    output.writeLong(source.key());
+                    count++;
+                }
+            } catch (IOException | RuntimeException e) {
+                run.delete();
+                throw e;
+            }
+            sources.add(new RunTermSource(run, count));
+        }
+
+        long[] ranks = new long[4];
+        byte[] term = new byte[256];
+        int length = 0;
+        long[] keys = new long[16];
+        int numKeys = 0;
+        try (TermMerge merge = new TermMerge(sources)) {
+            while (merge.next()) {
+                TermSource source = merge.current();
+                if (numKeys > 0 && InMemoryHdtBuilder.compareTerms(term, length, source.term(), source.length()) != 0) {
+                    placeTerm(term, length, keys, numKeys, ranks, builder, mappings);
+                    numKeys = 0;
+                }
+                if (numKeys == 0) {
+                    if (source.length() > term.length)
+                        term = new byte[Math.max(source.length(), term.length * 2)];
+                    System.arraycopy(source.term(), 0, term, 0, source.length());
+                    length = source.length();
+                }
+                if (numKeys == keys.length)
+                    keys = Arrays.copyOf(keys, keys.length * 2);
+                keys[numKeys++] = source.key();
+            }
+            if (numKeys > 0)
+                placeTerm(term, length, keys, numKeys, ranks, builder, mappings);
+        }
+    }
+
+    /**
+     * Places a term in the merged dictionary, recording the merged IDs of all
+     * its occurrences in the inputs
+     */
+    private static void placeTerm(byte[] term, int length, long[] keys, int numKeys, long[] ranks,
+            HdtFileBuilder builder, LongRecordSorter mappings) throws IOException {
+        int roles = 0;
+        for (int i = 0; i < numKeys; i++) {
+            switch (section(keys[i])) {
+            case HdtFileBuilder.SHARED:
+                roles |= ROLE_SUBJECT | ROLE_OBJECT;
+                break;
+            case HdtFileBuilder.SUBJECTS:
+                roles |= ROLE_SUBJECT;
+                break;
+            case HdtFileBuilder.PREDICATES:
+                roles |= ROLE_PREDICATE;
+                break;
+            default:
+                roles |= ROLE_OBJECT;
+                break;
+            }
+        }
+
+        // Predicates have their own IDs so a term may be both a predicate and
+        // a subject or object
+        if ((roles & ROLE_PREDICATE) != 0) {
+            builder.addTerm(HdtFileBuilder.PREDICATES, term, length);
+            long id = ++ranks[HdtFileBuilder.PREDICATES];
+            for (int i = 0; i < numKeys; i++) {
+                if (section(keys[i]) == HdtFileBuilder.PREDICATES)
+                    mappings.add(keys[i], id);
+            }
+        }
+
+        int section;
+        switch (roles & (ROLE_SUBJECT | ROLE_OBJECT)) {
+        case ROLE_SUBJECT | ROLE_OBJECT:
+            section = HdtFileBuilder.SHARED;
+            break;
+        case ROLE_SUBJECT:
+            section = HdtFileBuilder.SUBJECTS;
+            break;
+        case ROLE_OBJECT:
+            section = HdtFileBuilder.OBJECTS;
+            break;
+        default:
+            return;
+        }
+        builder.addTerm(section, term, length);
+        long value = (long) section << GLOBAL_SECTION_SHIFT | ranks[section]++;
+        for (int i = 0; i < numKeys; i++) {
+            if (section(keys[i]) != HdtFileBuilder.PREDICATES)
+                mappings.add(keys[i], value);
+        }
+    }
+
+    private static int section(long key) {
+        return (int) (key >>> SECTION_SHIFT) & 3;
+    }
+
+    private void translateTriples(List<HdtInput> inputs, long shared, LongRecordSorter mappings,
+            LongRecordSorter triples) throws IOException {
+        try (RecordIterator sorted = mappings.sort()) {
+            boolean more = sorted.next();
+            for (int i = 0; i < inputs.size(); i++) {
+                HdtInput input = inputs.get(i);
+                long localShared = input.count(HdtFileBuilder.SHARED);
+                long[] subjects = new long[(int) (localShared + input.count(HdtFileBuilder.SUBJECTS))];
+                long[] objects = new long[(int) (localShared + input.count(HdtFileBuilder.OBJECTS))];
+                long[] predicates = new long[(int) input.count(HdtFileBuilder.PREDICATES)];
+
+                // Fill in the merged IDs of this input's terms
+                while (more && (sorted.get(0) >>> INPUT_SHIFT) == i) {
+                    long key = sorted.get(0), value = sorted.get(1);
+                    int index = (int) (key & INDEX_MASK);
+                    int section = section(key);
+                    if (section == HdtFileBuilder.PREDICATES) {
+                        predicates[index] = value;
+                    } else {
+                        long id = (value >>> GLOBAL_SECTION_SHIFT) == HdtFileBuilder.SHARED
+                                ? (value & RANK_MASK) + 1 : shared + (value & RANK_MASK) + 1;
+                        switch (section) {
+                        case HdtFileBuilder.SHARED:
+                            subjects[index] = id;
+                            objects[index] = id;
+                            break;
+                        case HdtFileBuilder.SUBJECTS:
+                            subjects[(int) localShared + index] = id;
+                            break;
+                        default:
+                            objects[(int) localShared + index] = id;
+                            break;
+                        }
+                    }
+                    more = sorted.next();
+                }
+
+                try (HdtInput.TripleReader reader = input.openTriples()) {
+                    while (reader.next()) {
+                        triples.add(subjects[(int) reader.subject() - 1], predicates[(int) reader.predicate() - 1],
+                                objects[(int) reader.object() - 1]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A sorted source of terms, each with the key identifying its occurrence
+     * in an input
+     */
+    private interface TermSource {
+
+        boolean next() throws IOException;
+
+        byte[] term();
+
+        int length();
+
+        long key();
+
+        void close() throws IOException;
+    }
+
+    /**
+     * The terms of a dictionary section of an input, the section is only
+     * opened once the first term is requested
+     */
+    private static class SectionTermSource implements TermSource {
+
+        private final HdtInput input;
+        private final long keyBase;
+        private final int section;
+        private InputStream stream;
+        private PfcSectionReader reader;
+
+        SectionTermSource(HdtInput input, int index, int section) {
+            this.input = input;
+            this.keyBase = (long) index << INPUT_SHIFT | (long) section << SECTION_SHIFT;
+            this.section = section;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            if (this.reader == null) {
+                this.stream = this.input.open(this.input.sectionOffset(this.section));
+                this.reader = this.input.sectionReader(this.stream, this.section);
+            }
+            return this.reader.next();
+        }
+
+        @Override
+        public byte[] term() {
+            return this.reader.term();
+        }
+
+        @Override
+        public int length() {
+            return this.reader.length();
+        }
+
+        @Override
+        public long key() {
+            return this.keyBase | this.reader.index();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.stream != null)
+                this.stream.close();
+        }
+    }
+
+    /**
+     * The terms of a temporary run, the run is deleted once closed
+     */
+    private static class RunTermSource implements TermSource {
+
+        private final File run;
+        private long remaining;
+        private DataInputStream input;
+        private byte[] term = new byte[256];
+        private int length;
+        private long key;
+
+        RunTermSource(File run, long count) {
+            this.run = run;
+            this.remaining = count;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            if (this.remaining == 0)
+                return false;
+            if (this.input == null)
+                this.input = new DataInputStream(
+                        new BufferedInputStream(new FileInputStream(this.run), BufferSizes.OUTPUT_BUFFER_SIZE));
+            this.remaining--;
+            this.length = this.input.readInt();
+            if (this.length > this.term.length)
+                this.term = new byte[Math.max(this.length, this.term.length * 2)];
+            this.input.readFully(this.term, 0, this.length);
+            this.key = this.input.readLong();
+            return true;
+        }
+
+        @Override
+        public byte[] term() {
+            return this.term;
+        }
+
+        @Override
+        public int length() {
+            return this.length;
+        }
+
+        @Override
+        public long key() {
+            return this.key;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.input != null)
+                this.input.close();
+            this.run.delete();
+        }
+    }
+
+    /**
+     * Merges term sources in order, ties are broken by key so the merge is
+     * deterministic
+     */
+    private static class TermMerge implements AutoCloseable {
+
+        private final List<TermSource> sources;
+        private final PriorityQueue<TermSource> queue;
+        private TermSource current;
+        private boolean started = false;
+
+        TermMerge(List<TermSource> sources) {
+            this.sources = sources;
+            this.queue = new PriorityQueue<>(Math.max(1, sources.size()), new Comparator<TermSource>() {
+                @Override
+                public int compare(TermSource a, TermSource b) {
+                    int c = InMemoryHdtBuilder.compareTerms(a.term(), a.length(), b.term(), b.length());
+                    return c != 0 ? c : Long.compare(a.key(), b.key());
+                }
+            });
+        }
+
+        boolean next() throws IOException {
+            if (!this.started) {
+                this.started = true;
+                for (TermSource source : this.sources) {
+                    if (source.next())
+                        this.queue.add(source);
+                }
+            } else if (this.current != null && this.current.next()) {
+                this.queue.add(this.current);
+            }
+            this.current = this.queue.poll();
+            return this.current != null;
+        }
+
+        TermSource current() {
+            return this.current;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException error = null;
+            for (TermSource source : this.sources) {
+                try {
+                    source.close();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+            if (error != null)
+                throw error;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package edu.lehigh.swat.bench.uba.writers.hdt;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants for the HDT (Header-Dictionary-Triples) format, see
+ * <a href="http://www.rdfhdt.org/hdt-binary-format/">the HDT binary format</a>
+ */
+public class HdtVocabulary {
+
+    private HdtVocabulary() {
+    }
+
+    /**
+     * Cookie that starts each control information block
+     */
+    public static final String COOKIE = "$HDT";
+
+    /**
+     * Control information types
+     */
+    public static final int TYPE_GLOBAL = 1, TYPE_HEADER = 2, TYPE_DICTIONARY = 3, TYPE_TRIPLES = 4;
+
+    public static final String HDT_BASE = "http://purl.org/HDT/hdt#";
+    public static final String HDT_CONTAINER = "<" + HDT_BASE + "HDTv1>";
+    public static final String HEADER_NTRIPLES = "ntriples";
+    public static final String DICTIONARY_FOUR = "<" + HDT_BASE + "dictionaryFour>";
+    public static final String TRIPLES_BITMAP = "<" + HDT_BASE + "triplesBitmap>";
+
+    /**
+     * Dictionary section type for plain front coding
+     */
+    public static final int SECTION_PFC = 2;
+
+    /**
+     * Number of strings in each block of a plain front coding section
+     */
+    public static final int PFC_BLOCK_SIZE = 16;
+
+    /**
+     * Sequence type for a log array
+     */
+    public static final int SEQUENCE_LOG = 1;
+
+    /**
+     * Bitmap type for a plain bitmap
+     */
+    public static final int BITMAP_PLAIN = 1;
+
+    /**
+     * Triple order value for subject, predicate, object
+     */
+    public static final int ORDER_SPO = 1;
+
+    public static final String PROPERTY_LENGTH = "length";
+    public static final String PROPERTY_ELEMENTS = "elements";
+    public static final String PROPERTY_ORDER = "order";
+
+    /**
+     * Character set for all strings
+     */
+    public static final Charset CHARSET = StandardCharsets.UTF_8;
+}
@@ -0,0 +1,117 @@
+package edu.lehigh.swat.bench.uba.writers.hdt;
+
+import java.io.File;
+import java.io.IOException;
+
+import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
+import edu.lehigh.swat.bench.uba.GlobalState;
+import edu.lehigh.swat.bench.uba.model.Ontology;
+import edu.lehigh.swat.bench.uba.writers.FlatWriter;
+import edu.lehigh.swat.bench.uba.writers.WriterFragment;
+import edu.lehigh.swat.bench.uba.writers.utils.WriteConsolidator;
+
+/**
+ * A writer that produces HDT files directly from the generator
+ * <p>
+ * The triples of each file are collected in memory by an
+ * {@link InMemoryHdtBuilder} which builds the HDT file when the file ends.
+ * Fragments collect their own triples which are added to those of the
+ * university when the fragment is appended. When consolidating the
+ * university files are merged into a single HDT file by a
+ * {@link HdtConsolidator}.
+ * </p>
+ * <p>
+ * HDT has no notion of relative URIs so the ontology declaration, whose
+ * subject is the empty relative URI in other formats, uses the base URI of the
+ * file instead.
+ * </p>
+ */
+public class HdtWriter extends FlatWriter {
+
+    /** URLs of the classes, indexed by class */
+    private final String[] classUrls = new String[Ontology.CLASS_NUM];
+    private InMemoryHdtBuilder builder;
+    private String baseUri;
+
+    public HdtWriter(GeneratorCallbackTarget target, String ontologyUrl) {
+        super(target, ontologyUrl);
+        for (int i = 0; i < Ontology.CLASS_NUM; i++) {
+            this.classUrls[i] = ontologyUrl + "#" + Ontology.CLASS_TOKEN[i];
+        }
+    }
+
+    /**
+     * Gets the base URI for a HDT file
+     *
+     * @param fileName
+     *            File name
+     * @return Base URI
+     */
+    static String baseUri(String fileName) {
+        if (fileName.endsWith(".gz"))
+            fileName = fileName.substring(0, fileName.length() - 3);
+        return new File(fileName).getAbsoluteFile().toURI().toString();
+    }
+
+    @Override
+    public void startFile(String fileName, GlobalState state) {
+        this.out = prepareOutputStream(fileName, state);
+        this.builder = new InMemoryHdtBuilder();
+
+        // When consolidating all the universities share the base URI of the
+        // consolidated file
+        WriteConsolidator consolidator = state.getWriteConsolidator();
+        if (consolidator instanceof HdtConsolidator) {
+            this.baseUri = ((HdtConsolidator) consolidator).getBaseUri();
+        } else {
+            this.baseUri = baseUri(fileName);
+        }
+        addOntologyDeclaration();
+    }
+
+    @Override
+    public void endFile(GlobalState state) {
+        try {
+            this.builder.write(this.out, this.baseUri, state.getMemoryBudget(), state.getOutputDirectory());
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing file", e);
+        } finally {
+            this.builder = null;
+        }
+        super.endFile(state);
+    }
+
+    @Override
+    public void startFragment(GlobalState state, boolean continuation) {
+        // Triples are collected in memory so there is no fragment output
+        this.builder = new InMemoryHdtBuilder();
+    }
+
+    @Override
+    public WriterFragment endFragment(GlobalState state) {
+        InMemoryHdtBuilder fragment = this.builder;
+        this.builder = null;
+        return completeFragment(fragment);
+    }
+
+    @Override
+    public void appendFragment(GlobalState state, WriterFragment fragment) {
+        this.builder.addAll((InMemoryHdtBuilder) fragment.getPending());
+    }
+
+    @Override
+    protected void addTriple(String property, String object, boolean isResource) {
+        String subject = this.getCurrentSubject();
+        this.builder.add(subject.isEmpty() ? this.baseUri : subject, property, object, isResource);
+    }
+
+    @Override
+    protected void addPropertyTriple(int property, String object, boolean isResource) {
+        this.builder.add(this.getCurrentSubject(), this.propertyUrls[property], object, isResource);
+    }
+
+    @Override
+    protected void addTypeTriple(String subject, int classType) {
+        this.builder.add(subject, RDF_TYPE, this.classUrls[classType], true);
+    }
+}
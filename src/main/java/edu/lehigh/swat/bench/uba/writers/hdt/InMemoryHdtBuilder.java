@@ -0,0 +1,246 @@
+package edu.lehigh.swat.bench.uba.writers.hdt;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.lehigh.swat.bench.uba.writers.utils.MemoryBudget;
+
+/**
+ * Collects the triples of a single output file in memory and builds a HDT
+ * file from them
+ * <p>
+ * Terms are dictionary encoded as triples are added so each distinct term is
+ * held only once, since a file holds at most a single university this easily
+ * fits in memory. When the file is built the terms are sorted into their
+ * dictionary sections and the triples are sorted by bucketing them by subject
+ * and then sorting the predicate and object pairs of each subject.
+ * </p>
+ */
+public class InMemoryHdtBuilder {
+
+    private static final int SUBJECT = 1, OBJECT = 2;
+
+    private final Map<String, Integer> terms = new HashMap<>();
+    private final List<String> termList = new ArrayList<>();
+    private byte[] roles = new byte[1024];
+    private final Map<String, Integer> predicates = new HashMap<>();
+    private final List<String> predicateList = new ArrayList<>();
+    private int[] triples = new int[3 * 1024];
+    private int size = 0;
+
+    /**
+     * Adds a triple
+     *
+     * @param subject
+     *            Subject URI
+     * @param predicate
+     *            Predicate URI
+     * @param object
+     *            Object
+     * @param isResource
+     *            Whether the object is a URI, otherwise it is a literal
+     */
+    public void add(String subject, String predicate, String object, boolean isResource) {
+        if (this.size == this.triples.length)
+            this.triples = Arrays.copyOf(this.triples, this.triples.length * 2);
+        this.triples[this.size++] = term(subject, SUBJECT);
+        this.triples[this.size++] = predicate(predicate);
+        this.triples[this.size++] = term(isResource ? object : "\"" + object + "\"", OBJECT);
+    }
+
+    /**
+     * Adds all the triples collected by another builder
+     *
+     * @param other
+     *            Builder
+     */
+    public void addAll(InMemoryHdtBuilder other) {
+        for (int i = 0; i < other.size; i += 3) {
+            if (this.size == this.triples.length)
+                this.triples = Arrays.copyOf(this.triples, this.triples.length * 2);
+            this.triples[this.size++] = term(other.termList.get(other.triples[i]), SUBJECT);
+            this.triples[this.size++] = predicate(other.predicateList.get(other.triples[i + 1]));
+            this.triples[this.size++] = term(other.termList.get(other.triples[i + 2]), OBJECT);
+        }
+    }
+
+    private int term(String term, int role) {
+        Integer id = this.terms.get(term);
+        if (id == null) {
+            id = this.termList.size();
+            this.terms.put(term, id);
+            this.termList.add(term);
+            if (id == this.roles.length)
+                this.roles = Arrays.copyOf(this.roles, this.roles.length * 2);
+        }
+        this.roles[id] |= role;
+        return id;
+    }
+
+    private int predicate(String predicate) {
+        Integer id = this.predicates.get(predicate);
+        if (id == null) {
+            id = this.predicateList.size();
+            this.predicates.put(predicate, id);
+            this.predicateList.add(predicate);
+        }
+        return id;
+    }
+
+    /**
+     * Builds the HDT file and writes it
+     *
+     * @param out
+     *            Output stream
+     * @param baseUri
+     *            Base URI of the dataset
+     * @param budget
+     *            Memory budget for the buffers used while building
+     * @param directory
+     *            Directory for buffers spilled to disk
+     * @throws IOException
+     */
+    public void write(OutputStream out, String baseUri, MemoryBudget budget, File directory) throws IOException {
+        // Encode the terms and place them in their sections
+        byte[][] encoded = new byte[this.termList.size()][];
+        long maxSize = 0;
+        List<List<Integer>> sections = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            sections.add(new ArrayList<Integer>());
+        }
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = this.termList.get(i).getBytes(HdtVocabulary.CHARSET);
+            maxSize += encoded[i].length + 1;
+            switch (this.roles[i]) {
+            case SUBJECT | OBJECT:
+                sections.get(HdtFileBuilder.SHARED).add(i);
+                break;
+            case SUBJECT:
+                sections.get(HdtFileBuilder.SUBJECTS).add(i);
+                break;
+            default:
+                sections.get(HdtFileBuilder.OBJECTS).add(i);
+                break;
+            }
+        }
+        byte[][] encodedPredicates = new byte[this.predicateList.size()][];
+        for (int i = 0; i < encodedPredicates.length; i++) {
+            encodedPredicates[i] = this.predicateList.get(i).getBytes(HdtVocabulary.CHARSET);
+            maxSize += encodedPredicates[i].length + 1;
+            sections.get(HdtFileBuilder.PREDICATES).add(i);
+        }
+
+        // Sort the sections and assign IDs
+        HdtFileBuilder builder = new HdtFileBuilder(budget, directory, maxSize);
+        try {
+            int[] subjectIds = new int[encoded.length];
+            int[] objectIds = new int[encoded.length];
+            int[] predicateIds = new int[encodedPredicates.length];
+            int shared = sections.get(HdtFileBuilder.SHARED).size();
+            for (int section = 0; section < 4; section++) {
+                byte[][] sectionTerms = section == HdtFileBuilder.PREDICATES ? encodedPredicates : encoded;
+                Integer[] order = sections.get(section).toArray(new Integer[0]);
+                Arrays.sort(order, new TermComparator(sectionTerms));
+                for (int i = 0; i < order.length; i++) {
+                    byte[] term = sectionTerms[order[i]];
+                    builder.addTerm(section, term, term.length);
+                    switch (section) {
+                    case HdtFileBuilder.SHARED:
+                        subjectIds[order[i]] = i + 1;
+                        objectIds[order[i]] = i + 1;
+                        break;
+                    case HdtFileBuilder.SUBJECTS:
+                        subjectIds[order[i]] = shared + i + 1;
+                        break;
+                    case HdtFileBuilder.PREDICATES:
+                        predicateIds[order[i]] = i + 1;
+                        break;
+                    default:
+                        objectIds[order[i]] = shared + i + 1;
+                        break;
+                    }
+                }
+            }
+            builder.startTriples();
+
+            // Bucket the triples by subject
+            int numSubjects = shared + sections.get(HdtFileBuilder.SUBJECTS).size();
+            int[] offsets = new int[numSubjects + 2];
+            for (int i = 0; i < this.size; i += 3) {
+                offsets[subjectIds[this.triples[i]] + 1]++;
+            }
+            for (int s = 1; s < offsets.length; s++) {
+                offsets[s] += offsets[s - 1];
+            }
+            long[] pairs = new long[this.size / 3];
+            int[] next = Arrays.copyOf(offsets, offsets.length);
+            for (int i = 0; i < this.size; i += 3) {
+                pairs[next[subjectIds[this.triples[i]]]++] = (long) predicateIds[this.triples[i + 1]] << 32
+                        | objectIds[this.triples[i + 2]];
+            }
+
+            // Then sort the pairs of each subject, ignoring any duplicates
+            for (int s = 1; s <= numSubjects; s++) {
+                Arrays.sort(pairs, offsets[s], offsets[s + 1]);
+                for (int i = offsets[s]; i < offsets[s + 1]; i++) {
+                    if (i > offsets[s] && pairs[i] == pairs[i - 1])
+                        continue;
+                    builder.addTriple(s, pairs[i] >>> 32, pairs[i] & 0xFFFFFFFFL);
+                }
+            }
+
+            builder.write(out, baseUri);
+        } finally {
+            builder.discard();
+        }
+    }
+
+    /**
+     * Compares the indices of encoded terms by the unsigned order of their
+     * bytes
+     */
+    private static class TermComparator implements Comparator<Integer> {
+
+        private final byte[][] terms;
+
+        TermComparator(byte[][] terms) {
+            this.terms = terms;
+        }
+
+        @Override
+        public int compare(Integer a, Integer b) {
+            return compareTerms(this.terms[a], this.terms[a].length, this.terms[b], this.terms[b].length);
+        }
+    }
+
+    /**
+     * Compares two encoded terms by the unsigned order of their bytes, this is
+     * the order of the terms within a dictionary section
+     *
+     * @param a
+     *            First term
+     * @param aLength
+     *            Length of the first term
+     * @param b
+     *            Second term
+     * @param bLength
+     *            Length of the second term
+     * @return Comparison result
+     */
+    static int compareTerms(byte[] a, int aLength, byte[] b, int bLength) {
+        int max = Math.min(aLength, bLength);
+        for (int i = 0; i < max; i++) {
+            int c = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (c != 0)
+                return c;
+        }
+        return aLength - bLength;
+    }
+}
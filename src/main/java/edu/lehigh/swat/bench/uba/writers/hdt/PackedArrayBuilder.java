@@ -0,0 +1,140 @@
+package edu.lehigh.swat.bench.uba.writers.hdt;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CheckedOutputStream;
+
+import edu.lehigh.swat.bench.uba.writers.utils.BufferSizes;
+import edu.lehigh.swat.bench.uba.writers.utils.FragmentBuffer;
+
+/**
+ * Builds a HDT packed array, either a sequence of fixed width integers or a
+ * bitmap
+ * <p>
+ * Values are packed least significant bit first as they are added and the
+ * packed data is held in a buffer until the array is written, so the number
+ * of entries need not be known up front.
+ * </p>
+ */
+class PackedArrayBuilder {
+
+    private final int numbits;
+    private final FragmentBuffer buffer;
+    private final CheckedOutputStream data;
+    private long count = 0;
+    private int pending = 0, pendingBits = 0;
+
+    /**
+     * Creates a new builder
+     * 
+     * @param numbits
+     *            Bits per entry
+     * @param buffer
+     *            Buffer for the packed data
+     */
+    PackedArrayBuilder(int numbits, FragmentBuffer buffer) {
+        if (numbits < 1 || numbits > 64)
+            throw new IllegalArgumentException("Bits per entry must be in the range 1 to 64");
+        this.numbits = numbits;
+        this.buffer = buffer;
+        this.data = new CheckedOutputStream(new BufferedOutputStream(buffer, BufferSizes.SINK_BUFFER_SIZE),
+                new Crc32C());
+    }
+
+    /**
+     * Adds an entry
+     * 
+     * @param value
+     *            Value, must fit in the bits per entry
+     * @throws IOException
+     */
+    void add(long value) throws IOException {
+        if (this.numbits < 64 && (value >>> this.numbits) != 0)
+            throw new IllegalArgumentException(
+                    String.format("Value %d does not fit in %d bits", value, this.numbits));
+        int bits = this.numbits;
+        while (bits > 0) {
+            int take = Math.min(8 - this.pendingBits, bits);
+            this.pending |= ((int) value & ((1 << take) - 1)) << this.pendingBits;
+            value >>>= take;
+            bits -= take;
+            this.pendingBits += take;
+            if (this.pendingBits == 8) {
+                this.data.write(this.pending);
+                this.pending = 0;
+                this.pendingBits = 0;
+            }
+        }
+        this.count++;
+    }
+
+    /**
+     * Gets the number of entries added
+     * 
+     * @return Number of entries
+     */
+    long size() {
+        return this.count;
+    }
+
+    /**
+     * Finishes the array, no further entries may be added
+     * 
+     * @throws IOException
+     */
+    void finish() throws IOException {
+        if (this.pendingBits > 0) {
+            this.data.write(this.pending);
+            this.pending = 0;
+            this.pendingBits = 0;
+        }
+        this.data.flush();
+    }
+
+    /**
+     * Writes the array as a log sequence
+     * 
+     * @param out
+     *            Output stream
+     * @throws IOException
+     */
+    void writeSequenceTo(OutputStream out) throws IOException {
+        CheckedOutputStream header = new CheckedOutputStream(out, new Crc8());
+        header.write(HdtVocabulary.SEQUENCE_LOG);
+        header.write(this.numbits);
+        HdtEncoding.writeVByte(header, this.count);
+        HdtEncoding.writeChecksum(out, header.getChecksum(), 1);
+        writeDataTo(out);
+    }
+
+    /**
+     * Writes the array as a bitmap, the bits per entry must be one
+     * 
+     * @param out
+     *            Output stream
+     * @throws IOException
+     */
+    void writeBitmapTo(OutputStream out) throws IOException {
+        if (this.numbits != 1)
+            throw new IllegalStateException("Only an array with one bit per entry can be written as a bitmap");
+        CheckedOutputStream header = new CheckedOutputStream(out, new Crc8());
+        header.write(HdtVocabulary.BITMAP_PLAIN);
+        HdtEncoding.writeVByte(header, this.count);
+        HdtEncoding.writeChecksum(out, header.getChecksum(), 1);
+        writeDataTo(out);
+    }
+
+    private void writeDataTo(OutputStream out) throws IOException {
+        this.buffer.writeTo(out);
+        HdtEncoding.writeChecksum(out, this.data.getChecksum(), 4);
+        this.buffer.discard();
+    }
+
+    /**
+     * Discards the packed data
+     */
+    void discard() {
+        this.buffer.discard();
+    }
+}
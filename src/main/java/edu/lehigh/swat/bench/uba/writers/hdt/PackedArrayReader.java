@@ -0,0 +1,59 @@
+package edu.lehigh.swat.bench.uba.writers.hdt;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the entries of a HDT packed array in order
+ */
+class PackedArrayReader {
+
+    private final InputStream in;
+    private final int numbits;
+    private long remaining;
+    private int current = 0, available = 0;
+
+    /**
+     * Creates a new reader
+     * 
+     * @param in
+     *            Input stream positioned at the start of the packed data
+     * @param numbits
+     *            Bits per entry
+     * @param count
+     *            Number of entries
+     */
+    PackedArrayReader(InputStream in, int numbits, long count) {
+        this.in = in;
+        this.numbits = numbits;
+        this.remaining = count;
+    }
+
+    /**
+     * Reads the next entry
+     * 
+     * @return Value
+     * @throws IOException
+     *             Thrown if there are no further entries
+     */
+    long next() throws IOException {
+        if (this.remaining == 0)
+            throw new IOException("Read past the end of a packed array");
+        this.remaining--;
+
+        long value = 0;
+        int bits = 0;
+        while (bits < this.numbits) {
+            if (this.available == 0) {
+                this.current = HdtEncoding.readByte(this.in);
+                this.available = 8;
+            }
+            int take = Math.min(this.available, this.numbits - bits);
+            long part = (this.current >>> (8 - this.available)) & ((1 << take) - 1);
+            value |= part << bits;
+            bits += take;
+            this.available -= take;
+        }
+        return value;
+    }
+}
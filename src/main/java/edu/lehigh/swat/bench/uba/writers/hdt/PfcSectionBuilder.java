@@ -0,0 +1,142 @@
+package edu.lehigh.swat.bench.uba.writers.hdt;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CheckedOutputStream;
+
+import edu.lehigh.swat.bench.uba.writers.utils.BufferSizes;
+import edu.lehigh.swat.bench.uba.writers.utils.FragmentBuffer;
+
+/**
+ * Builds a plain front coding dictionary section from terms added in sorted
+ * order
+ * <p>
+ * Terms are grouped into blocks, the first term of each block is written in
+ * full and each other term as the length of the prefix it shares with the
+ * previous term followed by the rest of the term.
+ * </p>
+ */
+class PfcSectionBuilder {
+
+    private final FragmentBuffer textBuffer;
+    private final CheckedOutputStream text;
+    private final PackedArrayBuilder blocks;
+    private byte[] previous = new byte[256];
+    private int previousLength = 0;
+    private long count = 0, size = 0;
+
+    /**
+     * Creates a new builder
+     * 
+     * @param textBuffer
+     *            Buffer for the encoded terms
+     * @param blocksBuffer
+     *            Buffer for the block offsets
+     * @param maxSize
+     *            Upper bound on the size of the encoded terms
+     */
+    PfcSectionBuilder(FragmentBuffer textBuffer, FragmentBuffer blocksBuffer, long maxSize) {
+        this.textBuffer = textBuffer;
+        this.text = new CheckedOutputStream(new BufferedOutputStream(textBuffer, BufferSizes.SINK_BUFFER_SIZE),
+                new Crc32C());
+        this.blocks = new PackedArrayBuilder(HdtEncoding.bitsFor(maxSize), blocksBuffer);
+    }
+
+    /**
+     * Adds a term, terms must be added in ascending order of their bytes
+     * 
+     * @param term
+     *            Term bytes
+     * @param length
+     *            Length of the term
+     * @throws IOException
+     */
+    void add(byte[] term, int length) throws IOException {
+        int prefix = 0;
+        if (this.count > 0) {
+            int max = Math.min(length, this.previousLength);
+            while (prefix < max && term[prefix] == this.previous[prefix]) {
+                prefix++;
+            }
+            if (prefix == length || (prefix < this.previousLength
+                    && (term[prefix] & 0xFF) < (this.previous[prefix] & 0xFF)))
+                throw new IllegalArgumentException("Terms must be added in strictly ascending order");
+        }
+
+        if (this.count % HdtVocabulary.PFC_BLOCK_SIZE == 0) {
+            this.blocks.add(this.size);
+            prefix = 0;
+        } else {
+            this.size += HdtEncoding.writeVByte(this.text, prefix);
+        }
+        this.text.write(term, prefix, length - prefix);
+        this.text.write(0);
+        this.size += length - prefix + 1;
+        this.count++;
+
+        if (length > this.previous.length)
+            this.previous = new byte[Math.max(length, this.previous.length * 2)];
+        System.arraycopy(term, 0, this.previous, 0, length);
+        this.previousLength = length;
+    }
+
+    /**
+     * Gets the number of terms added
+     * 
+     * @return Number of terms
+     */
+    long count() {
+        return this.count;
+    }
+
+    /**
+     * Gets the size of the encoded terms
+     * 
+     * @return Size in bytes
+     */
+    long size() {
+        return this.size;
+    }
+
+    /**
+     * Finishes the section, no further terms may be added
+     * 
+     * @throws IOException
+     */
+    void finish() throws IOException {
+        // The final block offset marks the end of the last block
+        this.blocks.add(this.size);
+        this.blocks.finish();
+        this.text.flush();
+    }
+
+    /**
+     * Writes the section
+     * 
+     * @param out
+     *            Output stream
+     * @throws IOException
+     */
+    void writeTo(OutputStream out) throws IOException {
+        CheckedOutputStream header = new CheckedOutputStream(out, new Crc8());
+        header.write(HdtVocabulary.SECTION_PFC);
+        HdtEncoding.writeVByte(header, this.count);
+        HdtEncoding.writeVByte(header, this.size);
+        HdtEncoding.writeVByte(header, HdtVocabulary.PFC_BLOCK_SIZE);
+        HdtEncoding.writeChecksum(out, header.getChecksum(), 1);
+
+        this.blocks.writeSequenceTo(out);
+        this.textBuffer.writeTo(out);
+        HdtEncoding.writeChecksum(out, this.text.getChecksum(), 4);
+        this.textBuffer.discard();
+    }
+
+    /**
+     * Discards the section
+     */
+    void discard() {
+        this.blocks.discard();
+        this.textBuffer.discard();
+    }
+}
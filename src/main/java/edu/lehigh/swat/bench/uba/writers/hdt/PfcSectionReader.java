@@ -0,0 +1,92 @@
+package edu.lehigh.swat.bench.uba.writers.hdt;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the terms of a plain front coding dictionary section in order
+ */
+class PfcSectionReader {
+
+    private final InputStream in;
+    private final long count;
+    private final long blockSize;
+    private long index = 0;
+    private byte[] term = new byte[256];
+    private int length = 0;
+
+    /**
+     * Creates a new reader
+     * 
+     * @param in
+     *            Input stream positioned at the start of the encoded terms
+     * @param count
+     *            Number of terms
+     * @param blockSize
+     *            Number of terms per block
+     */
+    PfcSectionReader(InputStream in, long count, long blockSize) {
+        this.in = in;
+        this.count = count;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Advances to the next term
+     * 
+     * @return True if there was another term, false if all terms have been
+     *         read
+     * @throws IOException
+     */
+    boolean next() throws IOException {
+        if (this.index == this.count)
+            return false;
+
+        int prefix = 0;
+        if (this.index % this.blockSize != 0) {
+            long shared = HdtEncoding.readVByte(this.in);
+            if (shared > this.length)
+                throw new IOException("Invalid shared prefix in dictionary section");
+            prefix = (int) shared;
+        }
+        this.length = prefix;
+        int b;
+        while ((b = HdtEncoding.readByte(this.in)) != 0) {
+            if (this.length == this.term.length) {
+                byte[] expanded = new byte[this.term.length * 2];
+                System.arraycopy(this.term, 0, expanded, 0, this.length);
+                this.term = expanded;
+            }
+            this.term[this.length++] = (byte) b;
+        }
+        this.index++;
+        return true;
+    }
+
+    /**
+     * Gets the current term, only the first {@link #length()} bytes are valid
+     * 
+     * @return Term bytes
+     */
+    byte[] term() {
+        return this.term;
+    }
+
+    /**
+     * Gets the length of the current term
+     * 
+     * @return Length
+     */
+    int length() {
+        return this.length;
+    }
+
+    /**
+     * Gets the index of the current term within the section
+     * 
+     * @return Index
+     */
+    long index() {
+        return this.index - 1;
+    }
+}
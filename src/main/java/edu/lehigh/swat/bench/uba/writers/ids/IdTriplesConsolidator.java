@@ -0,0 +1,93 @@
+package edu.lehigh.swat.bench.uba.writers.ids;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.zip.GZIPOutputStream;
+
+import edu.lehigh.swat.bench.uba.writers.utils.AbstractWriteConsolidator;
+import edu.lehigh.swat.bench.uba.writers.utils.BufferSizes;
+
+/**
+ * A write consolidator that concatenates the triples files and the dictionary
+ * files into a single triples file and a single dictionary file
+ */
+public class IdTriplesConsolidator extends AbstractWriteConsolidator {
+
+    private final Queue<String> files = new LinkedList<>();
+    private final String triplesFilename, dictionaryFilename;
+    private OutputStream triplesOutput, dictionaryOutput;
+
+    public IdTriplesConsolidator(String triplesFilename, String dictionaryFilename) {
+        this.triplesFilename = triplesFilename;
+        this.dictionaryFilename = dictionaryFilename;
+    }
+
+    @Override
+    public void addFile(String file) {
+        synchronized (this.files) {
+            this.files.add(file);
+            this.queued.incrementAndGet();
+        }
+    }
+
+    @Override
+    protected String nextFile() {
+        synchronized (this.files) {
+            return this.files.poll();
+        }
+    }
+
+    @Override
+    protected OutputStream getOutput(String filename) throws IOException {
+        if (filename.contains(IdTriplesFormat.DICTIONARY_EXTENSION)) {
+            if (this.dictionaryOutput == null)
+                this.dictionaryOutput = openOutput(filename, this.dictionaryFilename);
+            return this.dictionaryOutput;
+        } else {
+            if (this.triplesOutput == null)
+                this.triplesOutput = openOutput(filename, this.triplesFilename);
+            return this.triplesOutput;
+        }
+    }
+
+    private static OutputStream openOutput(String filename, String finalFilename) throws IOException {
+        if (filename.endsWith(".gz")) {
+            return new GZIPOutputStream(new FileOutputStream(finalFilename), BufferSizes.GZIP_BUFFER_SIZE);
+        } else {
+            return new BufferedOutputStream(new FileOutputStream(finalFilename), BufferSizes.OUTPUT_BUFFER_SIZE);
+        }
+    }
+
+    @Override
+    protected void cleanupOutputs() throws IOException {
+        try {
+            if (this.triplesOutput != null) {
+                try {
+                    this.triplesOutput.close();
+                } finally {
+                    this.triplesOutput = null;
+                }
+            }
+        } finally {
+            try {
+                if (this.dictionaryOutput != null) {
+                    try {
+                        this.dictionaryOutput.close();
+                    } finally {
+                        this.dictionaryOutput = null;
+                    }
+                }
+            } finally {
+                if (this.cancelled) {
+                    new File(this.triplesFilename).delete();
+                    new File(this.dictionaryFilename).delete();
+                }
+            }
+        }
+    }
+}
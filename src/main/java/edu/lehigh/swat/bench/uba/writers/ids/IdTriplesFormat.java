@@ -0,0 +1,107 @@
+package edu.lehigh.swat.bench.uba.writers.ids;
+
+/**
+ * Constants for the dictionary encoded integer triples format
+ * <p>
+ * Each output file is a pair of files, the triples file and the dictionary
+ * file. The triples file is a sequence of fixed width triple records each of
+ * which is the subject, predicate and object IDs as 64 bit little endian
+ * integers, so it has no header and may be concatenated or memory mapped
+ * directly. The dictionary file is text with one line per term, the ID in
+ * decimal, a tab and then the term as it would appear in N-Triples.
+ * </p>
+ * <p>
+ * The IDs are computed from the structure of the generated terms rather than
+ * assigned as terms are seen, so the same term always has the same ID no matter
+ * which file, thread or run it was written by. The top bits of an ID give its
+ * {@code KIND_*} and the rest are fields whose layout depends on the kind:
+ * </p>
+ * <ul>
+ * <li>{@link #KIND_VOCABULARY} - The index of the term in the vocabulary, see
+ * {@link TermIdEncoder}</li>
+ * <li>{@link #KIND_UNIVERSITY} - The university field</li>
+ * <li>{@link #KIND_DEPARTMENT} - The university and department fields</li>
+ * <li>{@link #KIND_ENTITY} - The university, department, class and index
+ * fields of an instance within a department</li>
+ * <li>{@link #KIND_PUBLICATION} - The fields of the author, as for
+ * {@link #KIND_ENTITY}, plus the publication field</li>
+ * <li>{@link #KIND_NAME} - A name literal, the class shifted by
+ * {@link #NAME_CLASS_SHIFT} plus the index</li>
+ * <li>{@link #KIND_EMAIL} - An email address literal, the fields of its owner
+ * as for {@link #KIND_ENTITY}</li>
+ * </ul>
+ * <p>
+ * A dictionary only lists the terms used by the triples of the same file, a
+ * term may be listed more than once but always with the same ID.
+ * </p>
+ */
+public class IdTriplesFormat {
+
+    private IdTriplesFormat() {
+    }
+
+    /**
+     * Size in bytes of a triple record
+     */
+    public static final int TRIPLE_SIZE = 24;
+
+    /**
+     * Extension of dictionary files, this replaces the extension of the triples
+     * file
+     */
+    public static final String DICTIONARY_EXTENSION = ".dict";
+
+    /**
+     * Shift of the kind of an ID
+     */
+    public static final int KIND_SHIFT = 60;
+
+    /**
+     * Kinds of IDs
+     */
+    public static final int KIND_VOCABULARY = 0, KIND_UNIVERSITY = 1, KIND_DEPARTMENT = 2, KIND_ENTITY = 3,
+            KIND_PUBLICATION = 4, KIND_NAME = 5, KIND_EMAIL = 6;
+
+    /**
+     * Shifts of the fields of an ID
+     */
+    public static final int UNIVERSITY_SHIFT = 36, DEPARTMENT_SHIFT = 28, CLASS_SHIFT = 23, INDEX_SHIFT = 6,
+            PUBLICATION_SHIFT = 0;
+
+    /**
+     * Maximum values of the fields of an ID
+     */
+    public static final int UNIVERSITY_MAX = (1 << 24) - 1, DEPARTMENT_MAX = (1 << 8) - 1,
+            CLASS_MAX = (1 << 5) - 1, INDEX_MAX = (1 << 17) - 1, PUBLICATION_MAX = (1 << 6) - 1;
+
+    /**
+     * Shift of the class of a name literal, the index occupies the bits below
+     */
+    public static final int NAME_CLASS_SHIFT = 32;
+
+    /**
+     * Gets the kind of an ID
+     *
+     * @param id
+     *            ID
+     * @return Kind
+     */
+    public static int kind(long id) {
+        return (int) (id >>> KIND_SHIFT);
+    }
+
+    /**
+     * Gets a field of an ID
+     *
+     * @param id
+     *            ID
+     * @param shift
+     *            Shift of the field
+     * @param max
+     *            Maximum value of the field
+     * @return Field value
+     */
+    public static int field(long id, int shift, int max) {
+        return (int) (id >>> shift) & max;
+    }
+}
@@ -0,0 +1,215 @@
+package edu.lehigh.swat.bench.uba.writers.ids;
+
+import java.util.BitSet;
+
+import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
+import edu.lehigh.swat.bench.uba.GlobalState;
+import edu.lehigh.swat.bench.uba.model.Ontology;
+import edu.lehigh.swat.bench.uba.writers.FlatWriter;
+import edu.lehigh.swat.bench.uba.writers.WriterFragment;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
+
+/**
+ * A writer that produces the dictionary encoded integer triples described in
+ * {@link IdTriplesFormat}
+ * <p>
+ * The ID of each term is computed by a {@link TermIdEncoder} so no map of the
+ * terms seen so far is needed. Each term is added to the dictionary where it
+ * is defined, which for an instance is where it is given its own type, while
+ * universities and literals that are used many times are only added the first
+ * time they are used in each department. Vocabulary terms are added at the
+ * start of each file.
+ * </p>
+ */
+public class IdTriplesWriter extends FlatWriter {
+
+    private final TermIdEncoder encoder;
+    private final byte[] record = new byte[IdTriplesFormat.TRIPLE_SIZE];
+    private OutputSink dictionaryOut;
+    /** universities already in the dictionary for the current department */
+    private final BitSet universities = new BitSet();
+    /** names already in the dictionary for the current department, indexed by class */
+    private final BitSet[] names = new BitSet[Ontology.CLASS_NUM];
+
+    public IdTriplesWriter(GeneratorCallbackTarget target, String ontologyUrl) {
+        super(target, ontologyUrl);
+        this.encoder = new TermIdEncoder(ontologyUrl);
+        for (int i = 0; i < this.names.length; i++) {
+            this.names[i] = new BitSet();
+        }
+    }
+
+    /**
+     * Gets the name of the dictionary file for a triples file
+     *
+     * @param fileName
+     *            Triples file name
+     * @param state
+     *            State
+     * @return Dictionary file name
+     */
+    public static String getDictionaryFilename(String fileName, GlobalState state) {
+        String extension = state.getFileExtension();
+        int index = fileName.lastIndexOf(extension);
+        return fileName.substring(0, index) + IdTriplesFormat.DICTIONARY_EXTENSION
+                + fileName.substring(index + extension.length());
+    }
+
+    @Override
+    public void startFile(String fileName, GlobalState state) {
+        this.out = prepareOutputStream(fileName, state);
+        this.dictionaryOut = prepareOutputStream(getDictionaryFilename(fileName, state), state);
+        for (int i = 0; i < this.encoder.vocabularySize(); i++) {
+            addEntry(i, this.encoder.vocabularyTerm(i));
+        }
+        clearDictionary();
+        addOntologyDeclaration();
+    }
+
+    @Override
+    public void endFile(GlobalState state) {
+        // The dictionary must be complete before the files are submitted for
+        // consolidation
+        try {
+            cleanupOutputStream(this.dictionaryOut);
+        } finally {
+            this.dictionaryOut = null;
+        }
+        super.endFile(state);
+    }
+
+    @Override
+    public void startFragment(GlobalState state, boolean continuation) {
+        super.startFragment(state, continuation);
+        this.dictionaryOut = prepareFragmentStream(state);
+        clearDictionary();
+    }
+
+    @Override
+    public WriterFragment endFragment(GlobalState state) {
+        try {
+            cleanupOutputStream(this.dictionaryOut);
+        } finally {
+            this.dictionaryOut = null;
+        }
+        return super.endFragment(state);
+    }
+
+    @Override
+    public void appendFragment(GlobalState state, WriterFragment fragment) {
+        super.appendFragment(state, fragment);
+        appendFragmentOutput(fragment, 1, this.dictionaryOut);
+    }
+
+    @Override
+    protected void newSection(int classType, String id) {
+        // Departments are generated in parallel, so dictionary entries are only
+        // shared within a department to produce the same output either way
+        if (classType == Ontology.CS_C_DEPT)
+            clearDictionary();
+        super.newSection(classType, id);
+    }
+
+    private void clearDictionary() {
+        this.universities.clear();
+        for (BitSet classNames : this.names) {
+            classNames.clear();
+        }
+    }
+
+    @Override
+    protected void addTriple(String property, String object, boolean isResource) {
+        writeTriple(this.encoder.iri(this.getCurrentSubject()), this.encoder.iri(property),
+                isResource ? resource(object) : literal(object));
+    }
+
+    @Override
+    protected void addPropertyTriple(int property, String object, boolean isResource) {
+        writeTriple(this.encoder.iri(this.getCurrentSubject()), this.encoder.propertyId(property),
+                isResource ? resource(object) : literal(object));
+    }
+
+    @Override
+    protected void addTypeTriple(String subject, int classType) {
+        long id = this.encoder.iri(subject);
+        switch (IdTriplesFormat.kind(id)) {
+        case IdTriplesFormat.KIND_UNIVERSITY:
+            addUniversity(id, subject);
+            break;
+        case IdTriplesFormat.KIND_DEPARTMENT:
+            if (classType == Ontology.CS_C_DEPT)
+                addEntry(id, "<" + subject + ">");
+            break;
+        case IdTriplesFormat.KIND_ENTITY:
+            // Instances may be given additional types e.g. a graduate student
+            // who is also a teaching assistant
+            if (classType == IdTriplesFormat.field(id, IdTriplesFormat.CLASS_SHIFT, IdTriplesFormat.CLASS_MAX))
+                addEntry(id, "<" + subject + ">");
+            break;
+        case IdTriplesFormat.KIND_PUBLICATION:
+            if (classType == Ontology.CS_C_PUBLICATION)
+                addEntry(id, "<" + subject + ">");
+            break;
+        default:
+            break;
+        }
+        writeTriple(id, this.encoder.typeId(), this.encoder.classId(classType));
+    }
+
+    private long resource(String iri) {
+        long id = this.encoder.iri(iri);
+        if (IdTriplesFormat.kind(id) == IdTriplesFormat.KIND_UNIVERSITY)
+            addUniversity(id, iri);
+        return id;
+    }
+
+    private void addUniversity(long id, String iri) {
+        int university = IdTriplesFormat.field(id, IdTriplesFormat.UNIVERSITY_SHIFT, IdTriplesFormat.UNIVERSITY_MAX);
+        if (!this.universities.get(university)) {
+            this.universities.set(university);
+            addEntry(id, "<" + iri + ">");
+        }
+    }
+
+    private long literal(String literal) {
+        long id = this.encoder.literal(literal);
+        switch (IdTriplesFormat.kind(id)) {
+        case IdTriplesFormat.KIND_NAME:
+            BitSet classNames = this.names[IdTriplesFormat.field(id, IdTriplesFormat.NAME_CLASS_SHIFT,
+                    IdTriplesFormat.CLASS_MAX)];
+            int index = (int) id;
+            if (!classNames.get(index)) {
+                classNames.set(index);
+                addEntry(id, "\"" + literal + "\"");
+            }
+            break;
+        case IdTriplesFormat.KIND_EMAIL:
+            // Each instance has a single email address
+            addEntry(id, "\"" + literal + "\"");
+            break;
+        default:
+            break;
+        }
+        return id;
+    }
+
+    private void addEntry(long id, String term) {
+        this.dictionaryOut.print(id);
+        this.dictionaryOut.print('\t');
+        this.dictionaryOut.println(term);
+    }
+
+    private void writeTriple(long s, long p, long o) {
+        putLong(0, s);
+        putLong(8, p);
+        putLong(16, o);
+        this.out.write(this.record, 0, this.record.length);
+    }
+
+    private void putLong(int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            this.record[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
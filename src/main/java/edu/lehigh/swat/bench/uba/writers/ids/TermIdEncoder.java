@@ -0,0 +1,335 @@
+package edu.lehigh.swat.bench.uba.writers.ids;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.lehigh.swat.bench.uba.model.Ontology;
+
+/**
+ * Computes the IDs of terms from their structure as described in
+ * {@link IdTriplesFormat}
+ * <p>
+ * Generated URIs have one of the following forms, the same forms used by
+ * {@link edu.lehigh.swat.bench.uba.writers.CompactTurtleWriter}:
+ * </p>
+ * <ul>
+ * <li>{@code http://www.UniversityU.edu}</li>
+ * <li>{@code http://www.DepartmentD.UniversityU.edu}</li>
+ * <li>{@code http://www.DepartmentD.UniversityU.edu/ClassI}</li>
+ * <li>{@code http://www.DepartmentD.UniversityU.edu/ClassI/PublicationP}</li>
+ * </ul>
+ * <p>
+ * while literals are either names of the form {@code ClassI} or email
+ * addresses of the form {@code ClassI@DepartmentD.UniversityU.edu}, where
+ * {@code Class} is one of the {@link Ontology#CLASS_TOKEN} values. Anything
+ * else must be in the vocabulary, which is the empty URI of the ontology
+ * declaration, the RDF and OWL terms it uses, the ontology URI, its
+ * properties and classes and the fixed telephone number literal. The ID of a
+ * vocabulary term is its index in the vocabulary.
+ * </p>
+ * <p>
+ * Not thread safe, each writer has its own encoder.
+ * </p>
+ */
+public class TermIdEncoder {
+
+    private static final String HTTP_WWW = "http://www.";
+    private static final String DEPARTMENT = Ontology.CLASS_TOKEN[Ontology.CS_C_DEPT];
+    private static final String UNIVERSITY = Ontology.CLASS_TOKEN[Ontology.CS_C_UNIV];
+    private static final String DOT_UNIVERSITY = "." + UNIVERSITY;
+    private static final String EDU = ".edu";
+    private static final String PUBLICATION = "/" + Ontology.CLASS_TOKEN[Ontology.CS_C_PUBLICATION];
+
+    /**
+     * Literals the generator uses for every instance
+     */
+    private static final String[] LITERALS = { "xxx-xxx-xxxx" };
+
+    private static final int NO_ID = -1;
+
+    private final List<String> vocabulary = new ArrayList<>();
+    private final Map<String, Long> iris = new HashMap<>();
+    private final Map<String, Long> literals = new HashMap<>();
+    private final int propertyBase, classBase;
+
+    /** the department prefix of the last department URI and its ID fields */
+    private String lastPrefix;
+    private long lastPrefixId;
+
+    /** parse position within the current term */
+    private int pos;
+
+    /**
+     * Creates a new encoder
+     *
+     * @param ontologyUrl
+     *            Ontology URL
+     */
+    public TermIdEncoder(String ontologyUrl) {
+        addIri("");
+        addIri("http://www.w3.org/1999/02/22-rdf-syntax-ns#type");
+        addIri("http://www.w3.org/2002/07/owl#Ontology");
+        addIri("http://www.w3.org/2002/07/owl#imports");
+        addIri(ontologyUrl);
+        this.propertyBase = this.vocabulary.size();
+        for (int i = 0; i < Ontology.PROP_NUM; i++) {
+            addIri(ontologyUrl + "#" + Ontology.PROP_TOKEN[i]);
+        }
+        this.classBase = this.vocabulary.size();
+        for (int i = 0; i < Ontology.CLASS_NUM; i++) {
+            addIri(ontologyUrl + "#" + Ontology.CLASS_TOKEN[i]);
+        }
+        for (String literal : LITERALS) {
+            this.literals.put(literal, (long) this.vocabulary.size());
+            this.vocabulary.add("\"" + literal + "\"");
+        }
+    }
+
+    private void addIri(String iri) {
+        this.iris.put(iri, (long) this.vocabulary.size());
+        this.vocabulary.add("<" + iri + ">");
+    }
+
+    /**
+     * Gets the number of vocabulary terms
+     *
+     * @return Vocabulary size
+     */
+    public int vocabularySize() {
+        return this.vocabulary.size();
+    }
+
+    /**
+     * Gets a vocabulary term as it appears in N-Triples, its ID is its index
+     *
+     * @param index
+     *            Index
+     * @return Term
+     */
+    public String vocabularyTerm(int index) {
+        return this.vocabulary.get(index);
+    }
+
+    /**
+     * Gets the ID of {@code rdf:type}
+     *
+     * @return ID
+     */
+    public long typeId() {
+        return 1;
+    }
+
+    /**
+     * Gets the ID of an ontology property
+     *
+     * @param property
+     *            Property
+     * @return ID
+     */
+    public long propertyId(int property) {
+        return this.propertyBase + property;
+    }
+
+    /**
+     * Gets the ID of an ontology class
+     *
+     * @param classType
+     *            Class
+     * @return ID
+     */
+    public long classId(int classType) {
+        return this.classBase + classType;
+    }
+
+    /**
+     * Gets the ID of a URI
+     *
+     * @param iri
+     *            URI
+     * @return ID
+     * @throws IllegalArgumentException
+     *             Thrown if the URI is neither a generated URI nor in the
+     *             vocabulary
+     */
+    public long iri(String iri) {
+        long id = parseIri(iri);
+        if (id == NO_ID) {
+            Long vocabularyId = this.iris.get(iri);
+            if (vocabularyId == null)
+                throw new IllegalArgumentException("URI " + iri + " has no arithmetic ID");
+            id = vocabularyId;
+        }
+        return id;
+    }
+
+    /**
+     * Gets the ID of a literal
+     *
+     * @param literal
+     *            Lexical form of the literal
+     * @return ID
+     * @throws IllegalArgumentException
+     *             Thrown if the literal is neither a generated literal nor in
+     *             the vocabulary
+     */
+    public long literal(String literal) {
+        long id = parseLiteral(literal);
+        if (id == NO_ID) {
+            Long vocabularyId = this.literals.get(literal);
+            if (vocabularyId == null)
+                throw new IllegalArgumentException("Literal \"" + literal + "\" has no arithmetic ID");
+            id = vocabularyId;
+        }
+        return id;
+    }
+
+    private long parseIri(String iri) {
+        // Usually the URI is from the same department as the last one
+        if (this.lastPrefix != null && iri.startsWith(this.lastPrefix)) {
+            this.pos = this.lastPrefix.length();
+            return parseEntity(iri, this.lastPrefixId);
+        }
+
+        if (!iri.startsWith(HTTP_WWW))
+            return NO_ID;
+        this.pos = HTTP_WWW.length();
+        if (iri.startsWith(UNIVERSITY, this.pos)) {
+            this.pos += UNIVERSITY.length();
+            int u = parseNumber(iri, IdTriplesFormat.UNIVERSITY_MAX);
+            if (u < 0 || !expect(iri, EDU) || this.pos != iri.length())
+                return NO_ID;
+            return id(IdTriplesFormat.KIND_UNIVERSITY, (long) u << IdTriplesFormat.UNIVERSITY_SHIFT);
+        }
+
+        long department = parseDepartment(iri);
+        if (department == NO_ID)
+            return NO_ID;
+        if (this.pos == iri.length())
+            return id(IdTriplesFormat.KIND_DEPARTMENT, department);
+        if (iri.charAt(this.pos) != '/')
+            return NO_ID;
+        this.pos++;
+        this.lastPrefix = iri.substring(0, this.pos);
+        this.lastPrefixId = department;
+        return parseEntity(iri, department);
+    }
+
+    /**
+     * Parses {@code DepartmentD.UniversityU.edu} returning its fields
+     */
+    private long parseDepartment(String term) {
+        if (!expect(term, DEPARTMENT))
+            return NO_ID;
+        int d = parseNumber(term, IdTriplesFormat.DEPARTMENT_MAX);
+        if (d < 0 || !expect(term, DOT_UNIVERSITY))
+            return NO_ID;
+        int u = parseNumber(term, IdTriplesFormat.UNIVERSITY_MAX);
+        if (u < 0 || !expect(term, EDU))
+            return NO_ID;
+        return (long) u << IdTriplesFormat.UNIVERSITY_SHIFT | (long) d << IdTriplesFormat.DEPARTMENT_SHIFT;
+    }
+
+    /**
+     * Parses {@code ClassI} and optionally {@code /PublicationP} up to the end
+     * of a URI
+     */
+    private long parseEntity(String iri, long department) {
+        long entity = parseClassAndIndex(iri, IdTriplesFormat.INDEX_MAX);
+        if (entity == NO_ID)
+            return NO_ID;
+        long fields = entityFields(department, entity);
+        if (this.pos == iri.length())
+            return id(IdTriplesFormat.KIND_ENTITY, fields);
+
+        if (!expect(iri, PUBLICATION))
+            return NO_ID;
+        int p = parseNumber(iri, IdTriplesFormat.PUBLICATION_MAX);
+        if (p < 0 || this.pos != iri.length())
+            return NO_ID;
+        return id(IdTriplesFormat.KIND_PUBLICATION, fields | (long) p << IdTriplesFormat.PUBLICATION_SHIFT);
+    }
+
+    private long parseLiteral(String literal) {
+        this.pos = 0;
+        long name = parseClassAndIndex(literal, Integer.MAX_VALUE);
+        if (name == NO_ID)
+            return NO_ID;
+        if (this.pos == literal.length())
+            return id(IdTriplesFormat.KIND_NAME, name);
+
+        // Otherwise this may be an email address
+        if (literal.charAt(this.pos) != '@' || (int) name > IdTriplesFormat.INDEX_MAX)
+            return NO_ID;
+        this.pos++;
+        long department = parseDepartment(literal);
+        if (department == NO_ID || this.pos != literal.length())
+            return NO_ID;
+        return id(IdTriplesFormat.KIND_EMAIL, entityFields(department, name));
+    }
+
+    private static long id(int kind, long fields) {
+        return (long) kind << IdTriplesFormat.KIND_SHIFT | fields;
+    }
+
+    /**
+     * Combines the fields of a department with a class and index as returned by
+     * {@link #parseClassAndIndex(String, int)}
+     */
+    private static long entityFields(long department, long classAndIndex) {
+        return department | (classAndIndex >>> IdTriplesFormat.NAME_CLASS_SHIFT) << IdTriplesFormat.CLASS_SHIFT
+                | (classAndIndex & IdTriplesFormat.INDEX_MAX) << IdTriplesFormat.INDEX_SHIFT;
+    }
+
+    /**
+     * Parses {@code ClassI} returning the class shifted by
+     * {@link IdTriplesFormat#NAME_CLASS_SHIFT} plus the index
+     */
+    private long parseClassAndIndex(String term, int maxIndex) {
+        for (int c = 0; c < Ontology.CLASS_NUM; c++) {
+            String token = Ontology.CLASS_TOKEN[c];
+            int end = this.pos + token.length();
+            if (end < term.length() && term.startsWith(token, this.pos) && isDigit(term.charAt(end))) {
+                this.pos = end;
+                int index = parseNumber(term, maxIndex);
+                if (index < 0)
+                    return NO_ID;
+                return (long) c << IdTriplesFormat.NAME_CLASS_SHIFT | index;
+            }
+        }
+        return NO_ID;
+    }
+
+    /**
+     * Parses a non-negative decimal number without leading zeros, so that each
+     * number has exactly one form
+     *
+     * @return Number, or -1 if there is no valid number or it exceeds the
+     *         maximum
+     */
+    private int parseNumber(String term, int max) {
+        int start = this.pos;
+        long value = 0;
+        while (this.pos < term.length() && isDigit(term.charAt(this.pos))) {
+            value = value * 10 + (term.charAt(this.pos) - '0');
+            if (value > max)
+                return -1;
+            this.pos++;
+        }
+        if (this.pos == start || (term.charAt(start) == '0' && this.pos - start > 1))
+            return -1;
+        return (int) value;
+    }
+
+    private boolean expect(String term, String expected) {
+        if (!term.startsWith(expected, this.pos))
+            return false;
+        this.pos += expected.length();
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,278 @@
+package edu.lehigh.swat.bench.uba.writers.pgraph.csv;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.zip.GZIPOutputStream;
+
+import edu.lehigh.swat.bench.uba.writers.utils.AbstractWriteConsolidator;
+import edu.lehigh.swat.bench.uba.writers.utils.BufferSizes;
+
+/**
+ * A write consolidator that splits the node and relationship files of the
+ * universities into a node file per label and a relationship file per type
+ * <p>
+ * This is the layout the {@code neo4j-admin import} tool works best with, each
+ * output file starts with its own header so it may be given to the tool as a
+ * separate {@code --nodes=Label=file} or {@code --relationships=TYPE=file}
+ * argument. The header lines of the input files are dropped.
+ * </p>
+ */
+public class Neo4jCsvConsolidator extends AbstractWriteConsolidator {
+
+    /**
+     * Column of node files that gives the file a node is written to
+     */
+    private static final int LABEL_COLUMN = 1;
+    /**
+     * Column of relationship files that gives the file a relationship is
+     * written to
+     */
+    private static final int TYPE_COLUMN = 2;
+
+    private final Queue<String> files = new LinkedList<>();
+    private final String targetFilename, extension;
+    private final List<String> outputFilenames = new ArrayList<>();
+    private SplittingOutputStream nodeOutput, edgeOutput;
+
+    /**
+     * Creates a new consolidator
+     * 
+     * @param targetFilename
+     *            File name the names of the split files are derived from
+     * @param extension
+     *            File extension, the label or type is inserted before this
+     */
+    public Neo4jCsvConsolidator(String targetFilename, String extension) {
+        this.targetFilename = targetFilename;
+        this.extension = extension;
+    }
+
+    @Override
+    public void addFile(String file) {
+        synchronized (this.files) {
+            this.files.add(file);
+            this.queued.incrementAndGet();
+        }
+    }
+
+    @Override
+    protected String nextFile() {
+        synchronized (this.files) {
+            return this.files.poll();
+        }
+    }
+
+    @Override
+    protected OutputStream getOutput(String filename) throws IOException {
+        boolean compress = filename.endsWith(".gz");
+        if (filename.contains("edges" + this.extension)) {
+            if (this.edgeOutput == null)
+                this.edgeOutput = new SplittingOutputStream("-edges-", TYPE_COLUMN, Neo4jCsvFormatter.EDGE_HEADER,
+                        compress);
+            return this.edgeOutput;
+        } else {
+            if (this.nodeOutput == null)
+                this.nodeOutput = new SplittingOutputStream("-nodes-", LABEL_COLUMN, Neo4jCsvFormatter.NODE_HEADER,
+                        compress);
+            return this.nodeOutput;
+        }
+    }
+
+    @Override
+    protected void writePostFile(OutputStream output) throws IOException {
+        // Input files should end with a new line but make sure a final line
+        // without one isn't carried over to the next file
+        ((SplittingOutputStream) output).endLine();
+    }
+
+    @Override
+    protected void cleanupOutputs() throws IOException {
+        try {
+            if (this.nodeOutput != null) {
+                try {
+                    this.nodeOutput.close();
+                } finally {
+                    this.nodeOutput = null;
+                }
+            }
+        } finally {
+            try {
+                if (this.edgeOutput != null) {
+                    try {
+                        this.edgeOutput.close();
+                    } finally {
+                        this.edgeOutput = null;
+                    }
+                }
+            } finally {
+                if (this.cancelled) {
+                    for (String filename : this.outputFilenames) {
+                        new File(filename).delete();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * An output stream that splits the lines written to it between files based
+     * on the value of one of their columns
+     */
+    private class SplittingOutputStream extends OutputStream {
+
+        private final String infix, header;
+        private final int column;
+        private final boolean compress;
+        private final Map<String, OutputStream> outputs = new HashMap<>();
+        private byte[] line = new byte[1024];
+        private int length = 0;
+        /** value of the column of the last line and where it was written */
+        private byte[] lastValue = new byte[0];
+        private OutputStream lastOutput;
+
+        SplittingOutputStream(String infix, int column, String header, boolean compress) {
+            this.infix = infix;
+            this.column = column;
+            this.header = header;
+            this.compress = compress;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (this.length == this.line.length)
+                this.line = Arrays.copyOf(this.line, this.line.length * 2);
+            this.line[this.length++] = (byte) b;
+            if (b == '\n')
+                endLine();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            int end = off + len;
+            while (off < end) {
+                // Copy up to and including the next new line
+                int lineEnd = off;
+                while (lineEnd < end && b[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                boolean complete = lineEnd < end;
+                if (complete)
+                    lineEnd++;
+
+                int count = lineEnd - off;
+                if (this.length + count > this.line.length)
+                    this.line = Arrays.copyOf(this.line, Math.max(this.line.length * 2, this.length + count));
+                System.arraycopy(b, off, this.line, this.length, count);
+                this.length += count;
+                off = lineEnd;
+
+                if (complete)
+                    endLine();
+            }
+        }
+
+        /**
+         * Writes the current line to the file for its column value
+         */
+        void endLine() throws IOException {
+            if (this.length == 0)
+                return;
+            // Header lines start with a column name e.g. :ID so can't be
+            // mistaken for data lines which start with an id
+            if (this.line[0] != ':') {
+                getOutput().write(this.line, 0, this.length);
+            }
+            this.length = 0;
+        }
+
+        private OutputStream getOutput() throws IOException {
+            // Find the column respecting any quoted fields
+            int current = 0, start = 0, end = -1;
+            boolean quoted = false;
+            for (int i = 0; i < this.length; i++) {
+                byte b = this.line[i];
+                if (b == '"') {
+                    quoted = !quoted;
+                } else if (!quoted && (b == ',' || b == '\n' || b == '\r')) {
+                    if (current == this.column) {
+                        end = i;
+                        break;
+                    }
+                    current++;
+                    start = i + 1;
+                }
+            }
+            if (end == -1) {
+                if (current != this.column)
+                    throw new IllegalStateException("CSV line has no column " + this.column);
+                end = this.length;
+            }
+
+            // Usually lines with the same value are written together
+            if (this.lastOutput != null && isLastValue(start, end))
+                return this.lastOutput;
+
+            String value = new String(this.line, start, end - start, StandardCharsets.UTF_8);
+            OutputStream output = this.outputs.get(value);
+            if (output == null) {
+                output = open(value);
+                this.outputs.put(value, output);
+            }
+            this.lastValue = Arrays.copyOfRange(this.line, start, end);
+            this.lastOutput = output;
+            return output;
+        }
+
+        private boolean isLastValue(int start, int end) {
+            if (end - start != this.lastValue.length)
+                return false;
+            for (int i = start; i < end; i++) {
+                if (this.line[i] != this.lastValue[i - start])
+                    return false;
+            }
+            return true;
+        }
+
+        private OutputStream open(String value) throws IOException {
+            String name = value.replace(Neo4jCsvFormatter.LABEL_SEPARATOR, '_');
+            String filename = targetFilename.replace(extension, this.infix + name + extension);
+            outputFilenames.add(filename);
+
+            OutputStream output;
+            if (this.compress) {
+                output = new GZIPOutputStream(new FileOutputStream(filename), BufferSizes.GZIP_BUFFER_SIZE);
+            } else {
+                output = new BufferedOutputStream(new FileOutputStream(filename), BufferSizes.OUTPUT_BUFFER_SIZE);
+            }
+            output.write((this.header + System.getProperty("line.separator")).getBytes(StandardCharsets.UTF_8));
+            return output;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException error = null;
+            for (OutputStream output : this.outputs.values()) {
+                try {
+                    output.close();
+                } catch (IOException e) {
+                    if (error == null)
+                        error = e;
+                }
+            }
+            this.outputs.clear();
+            if (error != null)
+                throw error;
+        }
+    }
+}
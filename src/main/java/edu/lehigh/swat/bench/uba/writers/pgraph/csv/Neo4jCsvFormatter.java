@@ -0,0 +1,116 @@
+package edu.lehigh.swat.bench.uba.writers.pgraph.csv;
+
+import edu.lehigh.swat.bench.uba.model.Ontology;
+import edu.lehigh.swat.bench.uba.writers.graphml.Edge;
+import edu.lehigh.swat.bench.uba.writers.graphml.Node;
+import edu.lehigh.swat.bench.uba.writers.graphml.PropertyGraphFormatter;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
+
+/**
+ * Formats nodes and edges as the CSV expected by the {@code neo4j-admin import}
+ * tool
+ * <p>
+ * Each node and relationship file starts with a header line, nodes have an
+ * {@code :ID} and {@code :LABEL} column followed by a column for each property
+ * that the generator may give a node, while relationships have
+ * {@code :START_ID}, {@code :END_ID} and {@code :TYPE} columns. Properties a
+ * node does not have are left empty, which the import tool treats as not set.
+ * </p>
+ */
+public class Neo4jCsvFormatter implements PropertyGraphFormatter {
+
+    /**
+     * Slots of the node properties that have a column, in column order
+     */
+    private static final int[] NODE_PROPERTIES = { Node.URI, Node.TYPE, Ontology.CS_P_NAME, Ontology.CS_P_EMAIL,
+            Ontology.CS_P_TELEPHONE, Ontology.CS_P_RESEARCHINTEREST, Node.RESEARCH_ASSISTANT };
+
+    /**
+     * Header of node files
+     */
+    public static final String NODE_HEADER = ":ID,:LABEL,uri,type," + Ontology.PROP_TOKEN[Ontology.CS_P_NAME] + ","
+            + Ontology.PROP_TOKEN[Ontology.CS_P_EMAIL] + "," + Ontology.PROP_TOKEN[Ontology.CS_P_TELEPHONE] + ","
+            + Ontology.PROP_TOKEN[Ontology.CS_P_RESEARCHINTEREST] + ",researchAssistant:boolean";
+
+    /**
+     * Header of relationship files
+     */
+    public static final String EDGE_HEADER = ":START_ID,:END_ID,:TYPE";
+
+    /**
+     * Separator of multiple labels within the {@code :LABEL} column
+     */
+    public static final char LABEL_SEPARATOR = ';';
+
+    private boolean firstNode = true, firstEdge = true;
+
+    @Override
+    public void formatNode(Node n, OutputSink output) {
+        if (this.firstNode) {
+            output.println(NODE_HEADER);
+            this.firstNode = false;
+        }
+
+        field(n.getId(), output);
+        output.print(',');
+        if (n.getLabel() != null)
+            output.print(n.getLabel());
+
+        int written = 0;
+        for (int property : NODE_PROPERTIES) {
+            output.print(',');
+            String value = n.getProperty(property);
+            if (value != null) {
+                field(value, output);
+                written++;
+            }
+        }
+        if (written != n.getPropertyCount())
+            throw new IllegalStateException("Node " + n.getId() + " has properties with no CSV column");
+        output.println();
+    }
+
+    @Override
+    public void formatEdge(Edge e, OutputSink output) {
+        if (this.firstEdge) {
+            output.println(EDGE_HEADER);
+            this.firstEdge = false;
+        }
+
+        field(e.getSource(), output);
+        output.print(',');
+        field(e.getTarget(), output);
+        output.print(',');
+        output.println(e.getLabel());
+    }
+
+    /**
+     * Writes a field, quoting it only if it contains characters that would
+     * otherwise be misread
+     */
+    private static void field(String value, OutputSink output) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                output.print('"');
+                output.print(value.replace("\"", "\"\""));
+                output.print('"');
+                return;
+            }
+        }
+        output.print(value);
+    }
+
+    @Override
+    public void newFile() {
+        this.firstNode = true;
+        this.firstEdge = true;
+    }
+
+    @Override
+    public void continueFile() {
+        this.firstNode = false;
+        this.firstEdge = false;
+    }
+
+}
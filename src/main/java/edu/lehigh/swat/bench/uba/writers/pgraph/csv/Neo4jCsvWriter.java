@@ -0,0 +1,12 @@
+package edu.lehigh.swat.bench.uba.writers.pgraph.csv;
+
+import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
+import edu.lehigh.swat.bench.uba.writers.graphml.SegregatedFormattingPropertyGraphWriter;
+
+public class Neo4jCsvWriter extends SegregatedFormattingPropertyGraphWriter {
+
+    public Neo4jCsvWriter(GeneratorCallbackTarget callbackTarget) {
+        super(callbackTarget, new Neo4jCsvFormatter());
+    }
+
+}
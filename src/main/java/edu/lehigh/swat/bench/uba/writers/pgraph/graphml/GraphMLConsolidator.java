@@ -2,9 +2,11 @@ package edu.lehigh.swat.bench.uba.writers.pgraph.graphml;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.PrintStream;
 
 import edu.lehigh.swat.bench.uba.model.Ontology;
+import edu.lehigh.swat.bench.uba.writers.utils.BufferSizes;
+import edu.lehigh.swat.bench.uba.writers.utils.BufferedOutputSink;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
 import edu.lehigh.swat.bench.uba.writers.utils.SingleFileConsolidator;
 
 public class GraphMLConsolidator extends SingleFileConsolidator {
@@ -15,7 +17,7 @@ public class GraphMLConsolidator extends SingleFileConsolidator {
 
     @Override
     protected void writeHeader(OutputStream output) throws IOException {
-        PrintStream print = new PrintStream(output);
+        OutputSink print = new BufferedOutputSink(output, BufferSizes.SINK_BUFFER_SIZE);
         print.println(GraphMLVocabulary.HEADER);
 
         print.println("<key id=\"type\" for=\"node\" attr.name=\"type\" attr.type=\"string\" />");
@@ -38,20 +40,14 @@ public class GraphMLConsolidator extends SingleFileConsolidator {
 
         print.println(GraphMLVocabulary.GRAPH_START);
         print.flush();
-
-        if (print.checkError())
-            throw new IOException("Error writing GraphML Header");
     }
 
     @Override
     protected void writeFooter(OutputStream output) throws IOException {
-        PrintStream print = new PrintStream(output);
+        OutputSink print = new BufferedOutputSink(output, BufferSizes.SINK_BUFFER_SIZE);
         print.println(GraphMLVocabulary.GRAPH_END);
         print.println(GraphMLVocabulary.FOOTER);
         print.flush();
-
-        if (print.checkError())
-            throw new IOException("Error writing GraphML Footer");
     }
 
 }
@@ -1,11 +1,9 @@
 package edu.lehigh.swat.bench.uba.writers.pgraph.graphml;
 
-import java.io.PrintStream;
-import java.util.Map.Entry;
-
 import edu.lehigh.swat.bench.uba.writers.graphml.Edge;
 import edu.lehigh.swat.bench.uba.writers.graphml.Node;
 import edu.lehigh.swat.bench.uba.writers.graphml.PropertyGraphFormatter;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
 
 public class GraphMLFormatter implements PropertyGraphFormatter {
 
@@ -16,26 +14,26 @@ public class GraphMLFormatter implements PropertyGraphFormatter {
     }
 
     @Override
-    public void formatNode(Node n, PrintStream output) {
+    public void formatNode(Node n, OutputSink output) {
         output.print("    <node id=\"");
         output.print(n.getId());
         output.print('"');
         if (neo4j) {
             output.print(" labels=\"");
-            for (int i = 0; i < n.getLabels().size(); i++) {
-                if (i > 0)
-                    output.print(',');
-                output.print(n.getLabels().get(i));
-            }
+            if (n.getLabel() != null)
+                output.print(n.getLabel());
             output.print('"');
         }
         output.println('>');
 
-        for (Entry<String, String> kvp : n.getProperties().entrySet()) {
+        for (int i = 0; i < Node.SLOT_NUM; i++) {
+            String value = n.getProperty(i);
+            if (value == null)
+                continue;
             output.print("      <data key=\"");
-            output.print(kvp.getKey());
+            output.print(Node.getPropertyName(i));
             output.print("\">");
-            output.print(kvp.getValue());
+            output.print(value);
             output.println("</data>");
         }
 
@@ -43,7 +41,7 @@ public class GraphMLFormatter implements PropertyGraphFormatter {
     }
 
     @Override
-    public void formatEdge(Edge e, PrintStream output) {
+    public void formatEdge(Edge e, OutputSink output) {
         output.print("    <edge source=\"");
         output.print(e.getSource());
         output.print("\" target=\"");
@@ -67,4 +65,9 @@ public class GraphMLFormatter implements PropertyGraphFormatter {
         // No state to reset
     }
 
+    @Override
+    public void continueFile() {
+        // No state to update
+    }
+
 }
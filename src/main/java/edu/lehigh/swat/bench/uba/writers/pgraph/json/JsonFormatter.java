@@ -1,18 +1,16 @@
 package edu.lehigh.swat.bench.uba.writers.pgraph.json;
 
-import java.io.PrintStream;
-import java.util.Map.Entry;
-
 import edu.lehigh.swat.bench.uba.writers.graphml.Edge;
 import edu.lehigh.swat.bench.uba.writers.graphml.Node;
 import edu.lehigh.swat.bench.uba.writers.graphml.PropertyGraphFormatter;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
 
 public class JsonFormatter implements PropertyGraphFormatter {
     
     private boolean firstNode = true, firstEdge = true;
 
     @Override
-    public void formatNode(Node n, PrintStream output) {
+    public void formatNode(Node n, OutputSink output) {
         if (this.firstNode) {
             this.firstNode = false;
         } else {
@@ -23,18 +21,21 @@ public class JsonFormatter implements PropertyGraphFormatter {
         output.print(n.getId());
         output.print('"');
         
-        for (Entry<String, String> kvp : n.getProperties().entrySet()) {
+        for (int i = 0; i < Node.SLOT_NUM; i++) {
+            String value = n.getProperty(i);
+            if (value == null)
+                continue;
             output.print(", \"");
-            output.print(kvp.getKey());
+            output.print(Node.getPropertyName(i));
             output.print("\" : \"");
-            output.print(kvp.getValue());
+            output.print(value);
             output.print('"');
         }
         output.print(" }");
     }
 
     @Override
-    public void formatEdge(Edge e, PrintStream output) {
+    public void formatEdge(Edge e, OutputSink output) {
         if (this.firstEdge) {
             this.firstEdge = false;
         } else {
@@ -56,4 +57,10 @@ public class JsonFormatter implements PropertyGraphFormatter {
         this.firstEdge = true;
     }
 
+    @Override
+    public void continueFile() {
+        this.firstNode = false;
+        this.firstEdge = false;
+    }
+
 }
@@ -0,0 +1,86 @@
+package edu.lehigh.swat.bench.uba.writers.pgraph.json;
+
+import edu.lehigh.swat.bench.uba.writers.graphml.Edge;
+import edu.lehigh.swat.bench.uba.writers.graphml.Node;
+import edu.lehigh.swat.bench.uba.writers.graphml.PropertyGraphFormatter;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
+
+/**
+ * Formats nodes and edges as JSON Lines, one self-contained JSON object per
+ * line
+ * <p>
+ * Nodes have a {@code kind} of {@code node}, their {@code id}, {@code labels}
+ * and then their properties, while edges have a {@code kind} of {@code edge}
+ * and their {@code source}, {@code target} and {@code type}. Since there is no
+ * enclosing document or separators between objects there is no state to
+ * track and files can be concatenated or split at any line.
+ * </p>
+ */
+public class JsonLinesFormatter implements PropertyGraphFormatter {
+
+    @Override
+    public void formatNode(Node n, OutputSink output) {
+        output.print("{\"kind\":\"node\",\"id\":");
+        string(n.getId(), output);
+        output.print(",\"labels\":[");
+        if (n.getLabel() != null)
+            string(n.getLabel(), output);
+        output.print(']');
+
+        for (int i = 0; i < Node.SLOT_NUM; i++) {
+            String value = n.getProperty(i);
+            if (value == null)
+                continue;
+            output.print(',');
+            string(Node.getPropertyName(i), output);
+            output.print(':');
+            string(value, output);
+        }
+        output.println('}');
+    }
+
+    @Override
+    public void formatEdge(Edge e, OutputSink output) {
+        output.print("{\"kind\":\"edge\",\"source\":");
+        string(e.getSource(), output);
+        output.print(",\"target\":");
+        string(e.getTarget(), output);
+        output.print(",\"type\":");
+        string(e.getLabel(), output);
+        output.println('}');
+    }
+
+    /**
+     * Writes a JSON string, escaping it only if necessary
+     */
+    private static void string(String value, OutputSink output) {
+        output.print('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                output.print(value.subSequence(start, i));
+                if (c == '"' || c == '\\') {
+                    output.print('\\');
+                    output.print(c);
+                } else {
+                    output.print(String.format("\\u%04x", (int) c));
+                }
+                start = i + 1;
+            }
+        }
+        output.print(start == 0 ? value : value.subSequence(start, value.length()));
+        output.print('"');
+    }
+
+    @Override
+    public void newFile() {
+        // No state to reset
+    }
+
+    @Override
+    public void continueFile() {
+        // No state to update
+    }
+
+}
@@ -0,0 +1,43 @@
+package edu.lehigh.swat.bench.uba.writers.pgraph.json;
+
+import java.io.OutputStream;
+
+import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
+import edu.lehigh.swat.bench.uba.GlobalState;
+import edu.lehigh.swat.bench.uba.writers.graphml.FormattingPropertyGraphWriter;
+
+/**
+ * A writer that produces JSON Lines, see {@link JsonLinesFormatter}
+ * <p>
+ * Nodes and edges are written to a single output which needs no header or
+ * footer, so unlike the other property graph writers this writer supports
+ * {@link edu.lehigh.swat.bench.uba.writers.ConsolidationMode#Full} and
+ * maximal consolidation is a simple concatenation.
+ * </p>
+ */
+public class JsonLinesWriter extends FormattingPropertyGraphWriter {
+
+    public JsonLinesWriter(GeneratorCallbackTarget callbackTarget) {
+        super(callbackTarget, new JsonLinesFormatter());
+    }
+
+    @Override
+    public void startFile(GlobalState state, OutputStream output) {
+        // No-op
+        // No header is needed
+    }
+
+    @Override
+    public void endFile(GlobalState state, OutputStream output) {
+        // No-op
+        // No footer is needed
+    }
+
+    @Override
+    public void flushFile(GlobalState state) {
+        // With Full consolidation the university is complete at this point so
+        // write out its graduate students
+        storeGraduateStudents();
+        super.flushFile(state);
+    }
+}
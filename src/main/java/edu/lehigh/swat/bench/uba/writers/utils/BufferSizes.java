@@ -24,4 +24,10 @@ public class BufferSizes {
      */
     public static int OUTPUT_BUFFER_SIZE = 64 * 1024;
 
+    /**
+     * Buffer size used by an {@link OutputSink} whose underlying stream is
+     * already held in memory
+     */
+    public static int SINK_BUFFER_SIZE = 8 * 1024;
+
 }
@@ -0,0 +1,146 @@
+package edu.lehigh.swat.bench.uba.writers.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * An unsynchronized sink that buffers output before passing it on to an
+ * underlying stream
+ * <p>
+ * Any {@link IOException} from the underlying stream is thrown as a
+ * {@link RuntimeException} as soon as it occurs.
+ * </p>
+ */
+public class BufferedOutputSink extends OutputSink {
+
+    private static final byte[] LINE_SEPARATOR = System.getProperty("line.separator")
+            .getBytes(Charset.defaultCharset());
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private final byte[] digits = new byte[20];
+    private int count = 0;
+
+    /**
+     * Creates a new sink
+     *
+     * @param out
+     *            Underlying stream
+     * @param bufferSize
+     *            Buffer size
+     */
+    public BufferedOutputSink(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    @Override
+    public void write(int b) {
+        if (this.count == this.buffer.length)
+            checkpoint();
+        this.buffer[this.count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (len >= this.buffer.length) {
+            // Larger than our buffer so write directly
+            checkpoint();
+            try {
+                this.out.write(b, off, len);
+            } catch (IOException e) {
+                throw new RuntimeException("Error writing file", e);
+            }
+            return;
+        }
+        if (len > this.buffer.length - this.count)
+            checkpoint();
+        System.arraycopy(b, off, this.buffer, this.count, len);
+        this.count += len;
+    }
+
+    @Override
+    public void print(char c) {
+        if (c < 0x80) {
+            write(c);
+        } else {
+            write(String.valueOf(c).getBytes(Charset.defaultCharset()));
+        }
+    }
+
+    @Override
+    public void print(CharSequence s) {
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                // Not ASCII so encode the rest with the charset
+                write(s.subSequence(i, len).toString().getBytes(Charset.defaultCharset()));
+                return;
+            }
+            if (this.count == this.buffer.length)
+                checkpoint();
+            this.buffer[this.count++] = (byte) c;
+        }
+    }
+
+    @Override
+    public void print(long value) {
+        if (value == Long.MIN_VALUE) {
+            print(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            write('-');
+            value = -value;
+        }
+        int pos = this.digits.length;
+        do {
+            this.digits[--pos] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value > 0);
+        write(this.digits, pos, this.digits.length - pos);
+    }
+
+    @Override
+    public void println() {
+        write(LINE_SEPARATOR, 0, LINE_SEPARATOR.length);
+    }
+
+    @Override
+    public void checkpoint() {
+        if (this.count == 0)
+            return;
+        try {
+            this.out.write(this.buffer, 0, this.count);
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing file", e);
+        } finally {
+            this.count = 0;
+        }
+    }
+
+    @Override
+    public void flush() {
+        checkpoint();
+        try {
+            this.out.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing file", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            checkpoint();
+        } finally {
+            try {
+                this.out.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Error writing file", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package edu.lehigh.swat.bench.uba.writers.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed size bit set that may be safely set from many threads without
+ * locking
+ */
+public class ConcurrentBitSet {
+
+    private final AtomicLongArray words;
+    private final int size;
+
+    /**
+     * Creates a new bit set
+     * 
+     * @param size
+     *            Number of bits
+     */
+    public ConcurrentBitSet(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("size cannot be negative");
+        this.size = size;
+        this.words = new AtomicLongArray((size + 63) >>> 6);
+    }
+
+    /**
+     * Gets the number of bits
+     * 
+     * @return Size
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets whether a bit is set
+     * 
+     * @param index
+     *            Index
+     * @return True if set, false otherwise
+     */
+    public boolean get(int index) {
+        checkIndex(index);
+        return (this.words.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets a bit
+     * 
+     * @param index
+     *            Index
+     * @return True if this call set the bit, false if it was already set
+     */
+    public boolean set(int index) {
+        checkIndex(index);
+        int word = index >>> 6;
+        long mask = 1L << index;
+        while (true) {
+            long current = this.words.get(word);
+            if ((current & mask) != 0)
+                return false;
+            if (this.words.compareAndSet(word, current, current | mask))
+                return true;
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException("Index " + index + " is outside the bit set of size " + this.size);
+    }
+}
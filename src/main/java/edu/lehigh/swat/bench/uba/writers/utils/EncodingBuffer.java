@@ -0,0 +1,102 @@
+package edu.lehigh.swat.bench.uba.writers.utils;
+
+import java.nio.charset.Charset;
+
+/**
+ * A reusable buffer used by writers to encode their output directly to bytes
+ * <p>
+ * Almost all generated data is ASCII so characters are encoded directly, any
+ * string containing other characters is instead encoded with the platform
+ * default charset exactly as a {@link java.io.PrintStream} would.
+ * </p>
+ */
+public class EncodingBuffer {
+
+    private byte[] buffer = new byte[256];
+    private int length = 0;
+
+    /**
+     * Encodes a string as a {@link java.io.PrintStream} would
+     *
+     * @param value
+     *            Value
+     * @return Encoded value
+     */
+    public static byte[] encode(String value) {
+        return value.getBytes(Charset.defaultCharset());
+    }
+
+    /**
+     * Gets the number of bytes currently in the buffer
+     *
+     * @return Length
+     */
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * Truncates the buffer to the given length, discarding anything appended
+     * since
+     *
+     * @param length
+     *            Length
+     */
+    public void truncate(int length) {
+        this.length = length;
+    }
+
+    /**
+     * Empties the buffer
+     */
+    public void reset() {
+        this.length = 0;
+    }
+
+    /**
+     * Writes the contents of the buffer to the given sink and empties the
+     * buffer
+     *
+     * @param out
+     *            Output sink
+     */
+    public void writeTo(OutputSink out) {
+        out.write(this.buffer, 0, this.length);
+        this.length = 0;
+    }
+
+    private void ensureCapacity(int len) {
+        if (this.length + len > this.buffer.length) {
+            byte[] expanded = new byte[Math.max(this.length + len, this.buffer.length * 2)];
+            System.arraycopy(this.buffer, 0, expanded, 0, this.length);
+            this.buffer = expanded;
+        }
+    }
+
+    public void append(byte b) {
+        ensureCapacity(1);
+        this.buffer[this.length++] = b;
+    }
+
+    public void append(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, this.buffer, this.length, bytes.length);
+        this.length += bytes.length;
+    }
+
+    public void append(String value) {
+        int start = this.length;
+        int len = value.length();
+        ensureCapacity(len);
+        for (int i = 0; i < len; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // Not ASCII so encode the whole string with the charset
+                this.length = start;
+                append(encode(value));
+                return;
+            }
+            this.buffer[this.length++] = (byte) c;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package edu.lehigh.swat.bench.uba.writers.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A buffer for one of the outputs of a department fragment
+ * <p>
+ * Fragments must be held until they are appended to their university's output
+ * so cannot be flushed early. Instead the buffer is held in memory while its
+ * growth can be reserved from the {@link MemoryBudget}, once the budget is
+ * exhausted the contents are spilled to a temporary file in the output
+ * directory and all further output goes directly to that file.
+ * </p>
+ *
+ */
+public class FragmentBuffer extends OutputStream {
+
+    private final MemoryBudget budget;
+    private final File directory;
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream(BufferSizes.MEMORY_BUFFER_SIZE);
+    private long reserved = 0;
+    private File spillFile;
+    private OutputStream spill;
+
+    /**
+     * Creates a new buffer
+     *
+     * @param budget
+     *            Memory budget
+     * @param directory
+     *            Directory in which to create the spill file if needed
+     */
+    public FragmentBuffer(MemoryBudget budget, File directory) {
+        this.budget = budget;
+        this.directory = directory;
+    }
+
+    private OutputStream ensureCapacity(int len) throws IOException {
+        if (this.spill != null)
+            return this.spill;
+
+        // The initial buffer is not counted against the budget
+        long required = this.memory.size() + len - BufferSizes.MEMORY_BUFFER_SIZE;
+        while (required > this.reserved) {
+            if (this.budget.tryReserve(BufferSizes.MEMORY_BUFFER_SIZE)) {
+                this.reserved += BufferSizes.MEMORY_BUFFER_SIZE;
+            } else {
+                // Budget exhausted so spill to disk
+                this.spillFile = File.createTempFile("fragment", ".tmp", this.directory);
+                this.spill = new BufferedOutputStream(new FileOutputStream(this.spillFile),
+                        BufferSizes.OUTPUT_BUFFER_SIZE);
+                this.memory.writeTo(this.spill);
+                releaseMemory();
+                return this.spill;
+            }
+        }
+        return this.memory;
+    }
+
+    private void releaseMemory() {
+        this.memory = null;
+        this.budget.release(this.reserved);
+        this.reserved = 0;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureCapacity(1).write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureCapacity(len).write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (this.spill != null)
+            this.spill.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.spill != null)
+            this.spill.close();
+    }
+
+    /**
+     * Gets whether the buffer has been spilled to disk
+     *
+     * @return True if spilled
+     */
+    public boolean isSpilled() {
+        return this.spillFile != null;
+    }
+
+    /**
+     * Writes the contents of the buffer to the given stream
+     *
+     * @param output
+     *            Stream to write to
+     * @throws IOException
+     */
+    public void writeTo(OutputStream output) throws IOException {
+        if (this.spillFile == null) {
+            this.memory.writeTo(output);
+            return;
+        }
+
+        this.spill.flush();
+        try (InputStream input = new FileInputStream(this.spillFile)) {
+            byte[] buffer = new byte[BufferSizes.OUTPUT_BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) >= 0) {
+                output.write(buffer, 0, read);
+            }
+        }
+    }
+
+    /**
+     * Discards the contents of the buffer releasing any memory reserved and
+     * removing any spill file
+     */
+    public void discard() {
+        if (this.memory != null)
+            releaseMemory();
+        if (this.spillFile != null) {
+            try {
+                this.spill.close();
+            } catch (IOException e) {
+                // Ignore, we're deleting the file anyway
+            }
+            this.spillFile.delete();
+            this.spillFile = null;
+            this.spill = null;
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package edu.lehigh.swat.bench.uba.writers.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * An external sort of fixed width records of longs
+ * <p>
+ * Records are compared a long at a time from the first. They are collected in
+ * a chunk held in memory, which grows up to a fixed size, and each time the
+ * chunk fills it is sorted and written to a temporary run file. Once all records have been added the runs
+ * are merged, a limited number at a time so only that many files are ever
+ * open at once. If everything fits in a single chunk then no files are used
+ * at all.
+ * </p>
+ */
+public class LongRecordSorter implements Closeable {
+
+    /**
+     * Maximum number of runs merged at once
+     */
+    public static final int MERGE_FACTOR = 64;
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private static final int INITIAL_CHUNK_RECORDS = 64 * 1024;
+
+    private final int width;
+    private final File directory;
+    private final int maxChunkLength;
+    private long[] chunk;
+    private final long[] pivot;
+    private int size = 0;
+    private final List<File> runs = new ArrayList<>();
+    private boolean sorted = false;
+
+    /**
+     * Creates a new sorter
+     *
+     * @param width
+     *            Number of longs in each record
+     * @param chunkRecords
+     *            Number of records held in memory before being written to a
+     *            run
+     * @param directory
+     *            Directory for the temporary run files
+     */
+    public LongRecordSorter(int width, int chunkRecords, File directory) {
+        if (width < 1)
+            throw new IllegalArgumentException("Records must have at least one long");
+        this.width = width;
+        this.directory = directory;
+        if (chunkRecords < 1)
+            throw new IllegalArgumentException("Chunks must hold at least one record");
+        this.maxChunkLength = width * chunkRecords;
+        this.chunk = new long[width * Math.min(chunkRecords, INITIAL_CHUNK_RECORDS)];
+        this.pivot = new long[width];
+    }
+
+    /**
+     * Adds a record of two longs
+     *
+     * @param a
+     *            First long
+     * @param b
+     *            Second long
+     */
+    public void add(long a, long b) {
+        if (this.width != 2)
+            throw new IllegalArgumentException("Record has the wrong number of longs");
+        ensureCapacity();
+        this.chunk[this.size++] = a;
+        this.chunk[this.size++] = b;
+    }
+
+    /**
+     * Adds a record of three longs
+     *
+     * @param a
+     *            First long
+     * @param b
+     *            Second long
+     * @param c
+     *            Third long
+     */
+    public void add(long a, long b, long c) {
+        if (this.width != 3)
+            throw new IllegalArgumentException("Record has the wrong number of longs");
+        ensureCapacity();
+        this.chunk[this.size++] = a;
+        this.chunk[this.size++] = b;
+        this.chunk[this.size++] = c;
+    }
+
+    private void ensureCapacity() {
+        if (this.sorted)
+            throw new IllegalStateException("Records cannot be added once sorted");
+        if (this.size == this.chunk.length) {
+            if (this.chunk.length < this.maxChunkLength) {
+                this.chunk = Arrays.copyOf(this.chunk, (int) Math.min((long) this.chunk.length * 2,
+                        this.maxChunkLength));
+            } else {
+                writeRun();
+            }
+        }
+    }
+
+    private void writeRun() {
+        sort(0, this.size / this.width);
+        try {
+            File run = File.createTempFile("sort", ".tmp", this.directory);
+            this.runs.add(run);
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(run), BufferSizes.OUTPUT_BUFFER_SIZE))) {
+                for (int i = 0; i < this.size; i++) {
+                    output.writeLong(this.chunk[i]);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing file", e);
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Sorts the records added so far, no further records may be added
+     *
+     * @return Iterator over the sorted records
+     */
+    public RecordIterator sort() {
+        this.sorted = true;
+        if (this.runs.isEmpty()) {
+            sort(0, this.size / this.width);
+            return new ChunkIterator();
+        }
+
+        if (this.size > 0)
+            writeRun();
+        try {
+            while (this.runs.size() > MERGE_FACTOR) {
+                List<File> merging = new ArrayList<>(this.runs.subList(0, MERGE_FACTOR));
+                this.runs.subList(0, MERGE_FACTOR).clear();
+                File run = File.createTempFile("sort", ".tmp", this.directory);
+                this.runs.add(run);
+                try (RunMerger merger = new RunMerger(merging);
+                        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                                new FileOutputStream(run), BufferSizes.OUTPUT_BUFFER_SIZE))) {
+                    while (merger.next()) {
+                        for (int i = 0; i < this.width; i++) {
+                            output.writeLong(merger.get(i));
+                        }
+                    }
+                }
+            }
+            List<File> merging = new ArrayList<>(this.runs);
+            this.runs.clear();
+            return new RunMerger(merging);
+        } catch (IOException e) {
+            throw new RuntimeException("Error sorting records", e);
+        }
+    }
+
+    /**
+     * Discards any remaining run files
+     */
+    @Override
+    public void close() {
+        for (File run : this.runs) {
+            run.delete();
+        }
+        this.runs.clear();
+    }
+
+    private int compare(int a, int b) {
+        int x = a * this.width, y = b * this.width;
+        for (int i = 0; i < this.width; i++) {
+            int c = Long.compare(this.chunk[x + i], this.chunk[y + i]);
+            if (c != 0)
+                return c;
+        }
+        return 0;
+    }
+
+    private int compareToPivot(int a) {
+        int x = a * this.width;
+        for (int i = 0; i < this.width; i++) {
+            int c = Long.compare(this.chunk[x + i], this.pivot[i]);
+            if (c != 0)
+                return c;
+        }
+        return 0;
+    }
+
+    private void swap(int a, int b) {
+        int x = a * this.width, y = b * this.width;
+        for (int i = 0; i < this.width; i++) {
+            long tmp = this.chunk[x + i];
+            this.chunk[x + i] = this.chunk[y + i];
+            this.chunk[y + i] = tmp;
+        }
+    }
+
+    /**
+     * Sorts the records in the given range of the chunk with a quicksort
+     *
+     * @param from
+     *            First record, inclusive
+     * @param to
+     *            Last record, exclusive
+     */
+    private void sort(int from, int to) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            // Median of three pivot
+            int mid = (from + to) >>> 1, last = to - 1;
+            if (compare(mid, from) < 0)
+                swap(mid, from);
+            if (compare(last, from) < 0)
+                swap(last, from);
+            if (compare(last, mid) < 0)
+                swap(last, mid);
+            System.arraycopy(this.chunk, mid * this.width, this.pivot, 0, this.width);
+
+            int i = from, j = last;
+            while (i <= j) {
+                while (compareToPivot(i) < 0)
+                    i++;
+                while (compareToPivot(j) > 0)
+                    j--;
+                if (i <= j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+
+            // Recurse into the smaller partition and loop on the larger
+            if (j - from < to - i) {
+                sort(from, j + 1);
+                from = i;
+            } else {
+                sort(i, to);
+                to = j + 1;
+            }
+        }
+
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && compare(j, j - 1) < 0; j--) {
+                swap(j, j - 1);
+            }
+        }
+    }
+
+    /**
+     * Iterates over sorted records
+     */
+    public interface RecordIterator extends Closeable {
+
+        /**
+         * Advances to the next record
+         *
+         * @return True if there was another record, false if all records
+         *         have been returned
+         */
+        public boolean next();
+
+        /**
+         * Gets a long of the current record
+         *
+         * @param i
+         *            Index of the long within the record
+         * @return Value
+         */
+        public long get(int i);
+
+        @Override
+        public void close();
+    }
+
+    private class ChunkIterator implements RecordIterator {
+
+        private int position = -width;
+
+        @Override
+        public boolean next() {
+            if (this.position + width >= size)
+                return false;
+            this.position += width;
+            return true;
+        }
+
+        @Override
+        public long get(int i) {
+            return chunk[this.position + i];
+        }
+
+        @Override
+        public void close() {
+            // Nothing to clean up
+        }
+    }
+
+    private class RunReader {
+
+        private final DataInputStream input;
+        private final long[] record = new long[width];
+        private long remaining;
+
+        RunReader(File run) throws IOException {
+            this.input = new DataInputStream(
+                    new BufferedInputStream(new FileInputStream(run), BufferSizes.OUTPUT_BUFFER_SIZE));
+            this.remaining = run.length() / (8 * width);
+        }
+
+        boolean next() throws IOException {
+            if (this.remaining == 0)
+                return false;
+            this.remaining--;
+            for (int i = 0; i < width; i++) {
+                this.record[i] = this.input.readLong();
+            }
+            return true;
+        }
+    }
+
+    private class RunMerger implements RecordIterator {
+
+        private final List<File> files;
+        private final List<RunReader> readers = new ArrayList<>();
+        private final PriorityQueue<RunReader> queue;
+        private RunReader current;
+
+        RunMerger(List<File> files) throws IOException {
+            this.files = files;
+            this.queue = new PriorityQueue<>(files.size(), new Comparator<RunReader>() {
+                @Override
+                public int compare(RunReader a, RunReader b) {
+                    for (int i = 0; i < width; i++) {
+                        int c = Long.compare(a.record[i], b.record[i]);
+                        if (c != 0)
+                            return c;
+                    }
+                    return 0;
+                }
+            });
+            try {
+                for (File file : files) {
+                    RunReader reader = new RunReader(file);
+                    this.readers.add(reader);
+                    if (reader.next())
+                        this.queue.add(reader);
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean next() {
+            try {
+                if (this.current != null && this.current.next())
+                    this.queue.add(this.current);
+                this.current = this.queue.poll();
+                return this.current != null;
+            } catch (IOException e) {
+                throw new RuntimeException("Error reading file", e);
+            }
+        }
+
+        @Override
+        public long get(int i) {
+            return this.current.record[i];
+        }
+
+        @Override
+        public void close() {
+            for (RunReader reader : this.readers) {
+                try {
+                    reader.input.close();
+                } catch (IOException e) {
+                    // Ignore, we're deleting the file anyway
+                }
+            }
+            for (File file : this.files) {
+                file.delete();
+            }
+        }
+    }
+}
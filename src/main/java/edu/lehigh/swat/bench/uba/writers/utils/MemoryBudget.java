@@ -0,0 +1,122 @@
+package edu.lehigh.swat.bench.uba.writers.utils;
+
+/**
+ * A budget for the memory used by in-flight output buffers that is shared by
+ * all writers
+ * <p>
+ * Buffers reserve memory from the budget as they grow, when a reservation
+ * cannot be made the buffer must instead get rid of its contents e.g. by
+ * flushing them early or spilling them to disk. Reservations never block so
+ * buffers waiting on each other can never deadlock.
+ * </p>
+ *
+ */
+public class MemoryBudget {
+
+    private final long limit;
+    private long used = 0, peak = 0;
+
+    /**
+     * Creates a new budget
+     *
+     * @param limit
+     *            Limit in bytes, zero or negative for no limit
+     */
+    public MemoryBudget(long limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Gets whether the budget is limited
+     *
+     * @return True if limited
+     */
+    public boolean isLimited() {
+        return this.limit > 0;
+    }
+
+    /**
+     * Gets the limit
+     *
+     * @return Limit in bytes, zero or negative if there is no limit
+     */
+    public long getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * Tries to reserve memory from the budget
+     *
+     * @param bytes
+     *            Number of bytes to reserve
+     * @return True if the memory was reserved, false if insufficient memory
+     *         remains in the budget
+     */
+    public synchronized boolean tryReserve(long bytes) {
+        if (this.isLimited() && this.used + bytes > this.limit)
+            return false;
+        this.used += bytes;
+        this.peak = Math.max(this.peak, this.used);
+        return true;
+    }
+
+    /**
+     * Releases memory previously reserved from the budget
+     *
+     * @param bytes
+     *            Number of bytes to release
+     */
+    public synchronized void release(long bytes) {
+        this.used -= bytes;
+    }
+
+    /**
+     * Gets the memory currently reserved
+     *
+     * @return Reserved bytes
+     */
+    public synchronized long getUsed() {
+        return this.used;
+    }
+
+    /**
+     * Gets the peak memory reserved
+     *
+     * @return Peak reserved bytes
+     */
+    public synchronized long getPeak() {
+        return this.peak;
+    }
+
+    /**
+     * Parses a memory size, this is a number of bytes optionally followed by
+     * one of the suffixes {@code k}, {@code m} or {@code g} (case insensitive)
+     * e.g. {@code 512m} or {@code 2g}
+     *
+     * @param size
+     *            Size
+     * @return Size in bytes
+     */
+    public static long parseSize(String size) {
+        String value = size.trim().toLowerCase();
+        long multiplier = 1;
+        if (value.endsWith("k")) {
+            multiplier = 1024l;
+        } else if (value.endsWith("m")) {
+            multiplier = 1024l * 1024l;
+        } else if (value.endsWith("g")) {
+            multiplier = 1024l * 1024l * 1024l;
+        }
+        if (multiplier != 1)
+            value = value.substring(0, value.length() - 1);
+        try {
+            long bytes = Long.parseLong(value) * multiplier;
+            if (bytes < 0)
+                throw new NumberFormatException();
+            return bytes;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid memory size %s, expected a number of bytes optionally followed by k, m or g", size));
+        }
+    }
+}
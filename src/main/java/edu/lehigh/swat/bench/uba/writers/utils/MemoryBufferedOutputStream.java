@@ -10,6 +10,12 @@ import edu.lehigh.swat.bench.uba.GlobalState;
 /**
  * An output stream that buffers the contents in memory until the file is closed
  * at which time it submits the write to the background writer service
+ * <p>
+ * As the buffer grows it reserves memory from the global {@link MemoryBudget},
+ * if the budget is exhausted the buffer is flushed early to the writer for the
+ * current thread. Since each thread has its own writer and generates a single
+ * university at a time flushing early does not change the output.
+ * </p>
  * 
  * @author rvesse
  *
@@ -18,12 +24,50 @@ public class MemoryBufferedOutputStream extends FilterOutputStream {
 
     private final GlobalState state;
     private final Object lock = new Object();
+    private long reserved = 0;
 
     public MemoryBufferedOutputStream(GlobalState state) {
         super(new ByteArrayOutputStream(BufferSizes.MEMORY_BUFFER_SIZE));
         this.state = state;
     }
 
+    /**
+     * Ensures the budget has room for the given number of additional bytes,
+     * flushing the buffer early if it does not
+     *
+     * @param len
+     *            Number of bytes about to be written
+     * @throws IOException
+     */
+    private void ensureCapacity(int len) throws IOException {
+        // The initial buffer is not counted against the budget
+        long required = ((ByteArrayOutputStream) this.out).size() + len - BufferSizes.MEMORY_BUFFER_SIZE;
+        while (required > this.reserved) {
+            if (this.state.getMemoryBudget().tryReserve(BufferSizes.MEMORY_BUFFER_SIZE)) {
+                this.reserved += BufferSizes.MEMORY_BUFFER_SIZE;
+            } else {
+                flushBuffer();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        synchronized (this.lock) {
+            ensureCapacity(1);
+            this.out.write(b);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        synchronized (this.lock) {
+            ensureCapacity(len);
+            this.out.write(b, off, len);
+        }
+    }
+
     @Override
     public void flush() throws IOException {
         super.flush();
@@ -33,17 +77,29 @@ public class MemoryBufferedOutputStream extends FilterOutputStream {
             if (this.out == null)
                 return;
 
-            // Flush the current state of the output stream
-            OutputStream output = this.state.getWriterPool().getOutputStream();
-            output.write(((ByteArrayOutputStream) this.out).toByteArray());
-            output.flush();
-
-            // Reset the buffer after a flush
-            this.out = null;
-            this.out = new ByteArrayOutputStream(BufferSizes.MEMORY_BUFFER_SIZE);
+            flushBuffer();
         }
     }
 
+    /**
+     * Writes the current buffer to the writer for the current thread and
+     * starts a new buffer
+     *
+     * @throws IOException
+     */
+    private void flushBuffer() throws IOException {
+        // Flush the current state of the output stream
+        OutputStream output = this.state.getWriterPool().getOutputStream();
+        ((ByteArrayOutputStream) this.out).writeTo(output);
+        output.flush();
+
+        // Reset the buffer after a flush
+        this.out = null;
+        this.out = new ByteArrayOutputStream(BufferSizes.MEMORY_BUFFER_SIZE);
+        this.state.getMemoryBudget().release(this.reserved);
+        this.reserved = 0;
+    }
+
     @Override
     public void close() throws IOException {
         super.close();
@@ -51,9 +107,11 @@ public class MemoryBufferedOutputStream extends FilterOutputStream {
         synchronized (this.lock) {
             // Submit the write to the background writer service
             OutputStream output = this.state.getWriterPool().getOutputStream();
-            output.write(((ByteArrayOutputStream) this.out).toByteArray());
+            ((ByteArrayOutputStream) this.out).writeTo(output);
             output.flush();
             this.out = null;
+            this.state.getMemoryBudget().release(this.reserved);
+            this.reserved = 0;
         }
     }
 }
@@ -0,0 +1,139 @@
+package edu.lehigh.swat.bench.uba.writers.utils;
+
+/**
+ * Encodes N-Triples directly to bytes
+ * <p>
+ * Each triple is encoded into a reusable byte buffer which is then written to
+ * the output with a single call, see {@link EncodingBuffer}. IRIs that are
+ * used repeatedly, such as predicates and classes, can be encoded once up
+ * front by {@link #encodeIri(String)}.
+ * </p>
+ * <p>
+ * If a graph is set by {@link #setGraph(byte[])} triples are written as
+ * N-Quads in that graph instead.
+ * </p>
+ */
+public class NTriplesEncoder {
+
+    private static final byte[] LINE_END = EncodingBuffer.encode(" ." + System.getProperty("line.separator"));
+
+    private final EncodingBuffer buffer = new EncodingBuffer();
+    private byte[] graph;
+
+    /**
+     * Encodes an IRI as it appears in N-Triples i.e. enclosed in angle
+     * brackets
+     * 
+     * @param iri
+     *            IRI
+     * @return Encoded IRI
+     */
+    public static byte[] encodeIri(String iri) {
+        return EncodingBuffer.encode("<" + iri + ">");
+    }
+
+    /**
+     * Sets the graph that subsequent triples are written in
+     * 
+     * @param graph
+     *            Encoded graph IRI, {@code null} for the default graph
+     */
+    public void setGraph(byte[] graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Writes a triple
+     * 
+     * @param out
+     *            Output sink
+     * @param subject
+     *            Subject IRI
+     * @param predicate
+     *            Predicate IRI
+     * @param object
+     *            Object
+     * @param isResource
+     *            Whether the object is an IRI (True) or a literal (False)
+     */
+    public void writeTriple(OutputSink out, String subject, String predicate, String object, boolean isResource) {
+        this.buffer.reset();
+        appendIri(subject);
+        this.buffer.append((byte) ' ');
+        appendIri(predicate);
+        this.buffer.append((byte) ' ');
+        appendObject(object, isResource);
+        write(out);
+    }
+
+    /**
+     * Writes a triple whose predicate has already been encoded
+     * 
+     * @param out
+     *            Output sink
+     * @param subject
+     *            Subject IRI
+     * @param predicate
+     *            Encoded predicate IRI
+     * @param object
+     *            Object
+     * @param isResource
+     *            Whether the object is an IRI (True) or a literal (False)
+     */
+    public void writeTriple(OutputSink out, String subject, byte[] predicate, String object, boolean isResource) {
+        this.buffer.reset();
+        appendIri(subject);
+        this.buffer.append((byte) ' ');
+        this.buffer.append(predicate);
+        this.buffer.append((byte) ' ');
+        appendObject(object, isResource);
+        write(out);
+    }
+
+    /**
+     * Writes a triple whose predicate and object have already been encoded
+     * 
+     * @param out
+     *            Output sink
+     * @param subject
+     *            Subject IRI
+     * @param predicate
+     *            Encoded predicate IRI
+     * @param object
+     *            Encoded object IRI
+     */
+    public void writeTriple(OutputSink out, String subject, byte[] predicate, byte[] object) {
+        this.buffer.reset();
+        appendIri(subject);
+        this.buffer.append((byte) ' ');
+        this.buffer.append(predicate);
+        this.buffer.append((byte) ' ');
+        this.buffer.append(object);
+        write(out);
+    }
+
+    private void appendObject(String object, boolean isResource) {
+        if (isResource) {
+            appendIri(object);
+        } else {
+            this.buffer.append((byte) '"');
+            this.buffer.append(object);
+            this.buffer.append((byte) '"');
+        }
+    }
+
+    private void appendIri(String iri) {
+        this.buffer.append((byte) '<');
+        this.buffer.append(iri);
+        this.buffer.append((byte) '>');
+    }
+
+    private void write(OutputSink out) {
+        if (this.graph != null) {
+            this.buffer.append((byte) ' ');
+            this.buffer.append(this.graph);
+        }
+        this.buffer.append(LINE_END);
+        this.buffer.writeTo(out);
+    }
+}
@@ -0,0 +1,112 @@
+package edu.lehigh.swat.bench.uba.writers.utils;
+
+import java.io.OutputStream;
+
+/**
+ * The output that writers write their data to
+ * <p>
+ * Unlike a {@link java.io.PrintStream} a sink is only ever used by a single
+ * writer, and thus a single thread, so requires no synchronization. Strings
+ * and characters are encoded exactly as a {@link java.io.PrintStream} would
+ * with the platform default charset. Errors are thrown as they occur rather
+ * than having to be checked for so none of the methods declare
+ * {@link java.io.IOException}.
+ * </p>
+ * <p>
+ * A sink is also an {@link OutputStream} so already encoded bytes e.g. from
+ * an {@link EncodingBuffer} or a {@link FragmentBuffer} may be written
+ * directly to it.
+ * </p>
+ */
+public abstract class OutputSink extends OutputStream {
+
+    /**
+     * Writes a single byte, this should only be used for ASCII characters or
+     * already encoded data
+     */
+    @Override
+    public abstract void write(int b);
+
+    @Override
+    public void write(byte[] b) {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public abstract void write(byte[] b, int off, int len);
+
+    /**
+     * Writes a character
+     *
+     * @param c
+     *            Character
+     */
+    public abstract void print(char c);
+
+    /**
+     * Writes a sequence of characters
+     *
+     * @param s
+     *            Characters
+     */
+    public abstract void print(CharSequence s);
+
+    /**
+     * Writes the decimal digits of a number
+     *
+     * @param value
+     *            Value
+     */
+    public abstract void print(long value);
+
+    /**
+     * Writes a line separator
+     */
+    public abstract void println();
+
+    /**
+     * Writes a character followed by a line separator
+     *
+     * @param c
+     *            Character
+     */
+    public void println(char c) {
+        print(c);
+        println();
+    }
+
+    /**
+     * Writes a sequence of characters followed by a line separator
+     *
+     * @param s
+     *            Characters
+     */
+    public void println(CharSequence s) {
+        print(s);
+        println();
+    }
+
+    /**
+     * Passes any output buffered by the sink on to the underlying stream
+     * without flushing that stream
+     * <p>
+     * Flushing may have side effects, e.g. with {@link MemoryBufferedOutputStream}
+     * it submits the buffered output to the writer pool, so this is preferred
+     * when output only needs to reach the underlying stream.
+     * </p>
+     */
+    public abstract void checkpoint();
+
+    /**
+     * Passes any output buffered by the sink on to the underlying stream and
+     * flushes that stream
+     */
+    @Override
+    public abstract void flush();
+
+    /**
+     * Writes any buffered output and closes the underlying stream
+     */
+    @Override
+    public abstract void close();
+}
@@ -0,0 +1,97 @@
+package edu.lehigh.swat.bench.uba.writers.vp;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.zip.GZIPOutputStream;
+
+import edu.lehigh.swat.bench.uba.writers.utils.AbstractWriteConsolidator;
+import edu.lehigh.swat.bench.uba.writers.utils.BufferSizes;
+
+/**
+ * A write consolidator that concatenates the files of each table into a single
+ * file per table
+ */
+public class VerticalPartitionConsolidator extends AbstractWriteConsolidator {
+
+    private final Queue<String> files = new LinkedList<>();
+    private final String targetFilename, extension;
+    private final Map<String, OutputStream> outputs = new HashMap<>();
+    private final Map<String, String> outputFilenames = new HashMap<>();
+
+    /**
+     * Creates a new consolidator
+     * 
+     * @param targetFilename
+     *            File name the names of the table files are derived from
+     * @param extension
+     *            File extension, the table name is inserted before this
+     */
+    public VerticalPartitionConsolidator(String targetFilename, String extension) {
+        this.targetFilename = targetFilename;
+        this.extension = extension;
+    }
+
+    @Override
+    public void addFile(String file) {
+        synchronized (this.files) {
+            this.files.add(file);
+            this.queued.incrementAndGet();
+        }
+    }
+
+    @Override
+    protected String nextFile() {
+        synchronized (this.files) {
+            return this.files.poll();
+        }
+    }
+
+    @Override
+    protected OutputStream getOutput(String filename) throws IOException {
+        String name = new File(filename).getName();
+        String table = name.substring(name.indexOf(VerticalPartitionWriter.TABLE_SEPARATOR) + 1,
+                name.lastIndexOf(this.extension));
+        OutputStream output = this.outputs.get(table);
+        if (output == null) {
+            String tableFilename = this.targetFilename.replace(this.extension,
+                    VerticalPartitionWriter.TABLE_SEPARATOR + table + this.extension);
+            this.outputFilenames.put(table, tableFilename);
+            if (filename.endsWith(".gz")) {
+                output = new GZIPOutputStream(new FileOutputStream(tableFilename), BufferSizes.GZIP_BUFFER_SIZE);
+            } else {
+                output = new BufferedOutputStream(new FileOutputStream(tableFilename),
+                        BufferSizes.OUTPUT_BUFFER_SIZE);
+            }
+            this.outputs.put(table, output);
+        }
+        return output;
+    }
+
+    @Override
+    protected void cleanupOutputs() throws IOException {
+        IOException error = null;
+        for (OutputStream output : this.outputs.values()) {
+            try {
+                output.close();
+            } catch (IOException e) {
+                if (error == null)
+                    error = e;
+            }
+        }
+        this.outputs.clear();
+        if (this.cancelled) {
+            for (String filename : this.outputFilenames.values()) {
+                new File(filename).delete();
+            }
+        }
+        if (error != null)
+            throw error;
+    }
+}
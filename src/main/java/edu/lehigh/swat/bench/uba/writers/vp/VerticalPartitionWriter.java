@@ -0,0 +1,200 @@
+package edu.lehigh.swat.bench.uba.writers.vp;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.lehigh.swat.bench.uba.GeneratorCallbackTarget;
+import edu.lehigh.swat.bench.uba.GlobalState;
+import edu.lehigh.swat.bench.uba.model.Ontology;
+import edu.lehigh.swat.bench.uba.writers.FlatWriter;
+import edu.lehigh.swat.bench.uba.writers.WriterFragment;
+import edu.lehigh.swat.bench.uba.writers.utils.OutputSink;
+
+/**
+ * A writer that produces vertically partitioned output, a TSV table per
+ * property and per class
+ * <p>
+ * Each property table has a line per triple with the subject and object
+ * separated by a tab, while each class table has a line with the subject of
+ * each {@code rdf:type} triple for that class since the object is implied by
+ * the table. URIs and literals are written as is, which is unambiguous since
+ * the objects of each property are always one or the other, with any tab, new
+ * line or backslash in a literal escaped by a backslash as expected by bulk
+ * copy tools. The ontology declaration is not data so is not written.
+ * </p>
+ * <p>
+ * Each table is written to its own file, named by inserting
+ * {@link #TABLE_SEPARATOR} and the table name before the file extension e.g.
+ * {@code University0-takesCourse.tsv} and
+ * {@code University0-type-FullProfessor.tsv}, which is only created once the
+ * table has a line. Within a fragment each table is buffered separately and
+ * the tables of the fragment are recorded so they can be appended to the
+ * right files.
+ * </p>
+ */
+public class VerticalPartitionWriter extends FlatWriter {
+
+    /**
+     * Separator inserted before the table name in file names
+     */
+    public static final char TABLE_SEPARATOR = '-';
+    /**
+     * Prefix of the names of class tables
+     */
+    public static final String TYPE_TABLE_PREFIX = "type" + TABLE_SEPARATOR;
+
+    private static final int TABLE_NUM = Ontology.PROP_NUM + Ontology.CLASS_NUM;
+
+    private final OutputSink[] tables = new OutputSink[TABLE_NUM];
+    private GlobalState state;
+    private String fileName;
+    /** tables in the order their fragment buffers were created */
+    private List<Integer> fragmentTables;
+
+    public VerticalPartitionWriter(GeneratorCallbackTarget target, String ontologyUrl) {
+        super(target, ontologyUrl);
+    }
+
+    /**
+     * Gets the name of a table
+     * 
+     * @param table
+     *            Table, properties come first followed by classes
+     * @return Table name
+     */
+    static String getTableName(int table) {
+        if (table < Ontology.PROP_NUM)
+            return Ontology.PROP_TOKEN[table];
+        return TYPE_TABLE_PREFIX + Ontology.CLASS_TOKEN[table - Ontology.PROP_NUM];
+    }
+
+    @Override
+    public void startFile(String fileName, GlobalState state) {
+        this.fileName = fileName;
+        this.state = state;
+    }
+
+    @Override
+    public void startFile(GlobalState state, OutputStream output) {
+        throw new UnsupportedOperationException(
+                "Full consolidation is not directly supported by the vertically partitioned writer");
+    }
+
+    @Override
+    public void flushFile(GlobalState state) {
+        for (OutputSink table : this.tables) {
+            if (table != null)
+                table.flush();
+        }
+    }
+
+    @Override
+    public void endFile(GlobalState state) {
+        try {
+            closeTables();
+            this.submitWrites();
+        } finally {
+            this.fileName = null;
+        }
+    }
+
+    @Override
+    public void startFragment(GlobalState state, boolean continuation) {
+        this.state = state;
+        this.fragmentTables = new ArrayList<>();
+    }
+
+    @Override
+    public WriterFragment endFragment(GlobalState state) {
+        List<Integer> pending = this.fragmentTables;
+        this.fragmentTables = null;
+        closeTables();
+        return completeFragment(pending);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void appendFragment(GlobalState state, WriterFragment fragment) {
+        List<Integer> fragmentTables = (List<Integer>) fragment.getPending();
+        for (int i = 0; i < fragmentTables.size(); i++) {
+            appendFragmentOutput(fragment, i, getTable(fragmentTables.get(i)));
+        }
+    }
+
+    private void closeTables() {
+        RuntimeException error = null;
+        for (int i = 0; i < this.tables.length; i++) {
+            if (this.tables[i] == null)
+                continue;
+            try {
+                cleanupOutputStream(this.tables[i]);
+            } catch (RuntimeException e) {
+                if (error == null)
+                    error = e;
+            } finally {
+                this.tables[i] = null;
+            }
+        }
+        if (error != null)
+            throw error;
+    }
+
+    private OutputSink getTable(int table) {
+        OutputSink output = this.tables[table];
+        if (output == null) {
+            if (this.fragmentTables != null) {
+                output = prepareFragmentStream(this.state);
+                this.fragmentTables.add(table);
+            } else {
+                String extension = this.state.getFileExtension();
+                int index = this.fileName.lastIndexOf(extension);
+                output = prepareOutputStream(this.fileName.substring(0, index) + TABLE_SEPARATOR
+                        + getTableName(table) + this.fileName.substring(index), this.state);
+            }
+            this.tables[table] = output;
+        }
+        return output;
+    }
+
+    @Override
+    protected void addTriple(String property, String object, boolean isResource) {
+        for (int i = 0; i < Ontology.PROP_NUM; i++) {
+            if (this.propertyUrls[i].equals(property)) {
+                addPropertyTriple(i, object, isResource);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Property " + property + " has no table");
+    }
+
+    @Override
+    protected void addPropertyTriple(int property, String object, boolean isResource) {
+        OutputSink table = getTable(property);
+        table.print(this.getCurrentSubject());
+        table.print('\t');
+        if (isResource) {
+            table.println(object);
+        } else {
+            literal(object, table);
+            table.println();
+        }
+    }
+
+    @Override
+    protected void addTypeTriple(String subject, int classType) {
+        getTable(Ontology.PROP_NUM + classType).println(subject);
+    }
+
+    private static void literal(String value, OutputSink table) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\t' || c == '\n' || c == '\r' || c == '\\') {
+                table.print(value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r",
+                        "\\r"));
+                return;
+            }
+        }
+        table.print(value);
+    }
+}
@@ -0,0 +1,45 @@
+package edu.lehigh.swat.bench.uba;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the thread pools used for data generation
+ * <p>
+ * This is the Java 21 implementation which is used in place of the Java 7
+ * implementation when running the multi-release JAR on Java 21 or later, in
+ * addition to platform threads it can create pools of virtual threads. Virtual
+ * threads are unmounted from their carrier thread while blocked on file and
+ * GZip I/O so many more universities can be generated concurrently without
+ * tying up scarce platform threads.
+ * </p>
+ */
+public class ThreadPools {
+
+    private ThreadPools() {
+    }
+
+    /**
+     * Gets whether virtual threads are supported by the running JVM
+     * 
+     * @return True if virtual threads are supported
+     */
+    public static boolean supportsVirtualThreads() {
+        return true;
+    }
+
+    /**
+     * Creates a fixed size thread pool
+     * 
+     * @param threads
+     *            Number of threads
+     * @param virtual
+     *            Whether to use virtual threads
+     * @return Thread pool
+     */
+    public static ExecutorService newFixedThreadPool(int threads, boolean virtual) {
+        if (virtual)
+            return Executors.newFixedThreadPool(Math.max(threads, 1), Thread.ofVirtual().factory());
+        return threads <= 1 ? Executors.newSingleThreadExecutor() : Executors.newFixedThreadPool(threads);
+    }
+}